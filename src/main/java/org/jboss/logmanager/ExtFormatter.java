@@ -130,6 +130,11 @@ public abstract class ExtFormatter extends Formatter {
      * @return the formatted string
      */
     protected String formatMessageLegacy(LogRecord record) {
+        final MessageTemplate template = getTemplate(record, ExtLogRecord.FormatStyle.MESSAGE_FORMAT);
+        // a template returns a message without parameters as is, the pattern must still be processed as before
+        if (template != null && hasParameters(record)) {
+            return applyTemplate(record, template);
+        }
         return MessageFormat.format(record.getMessage(), record.getParameters());
     }
 
@@ -141,9 +146,45 @@ public abstract class ExtFormatter extends Formatter {
      * @return the formatted string
      */
     protected String formatMessagePrintf(LogRecord record) {
+        final MessageTemplate template = getTemplate(record, ExtLogRecord.FormatStyle.PRINTF);
+        // a template returns a message without parameters as is, the pattern must still be processed as before
+        if (template != null && hasParameters(record)) {
+            return applyTemplate(record, template);
+        }
         return String.format(record.getMessage(), record.getParameters());
     }
 
+    /**
+     * Returns the parsed raw message of the record. This is the template of the record if it was parsed from the raw
+     * message, otherwise the template is looked up in the cache.
+     */
+    private static MessageTemplate getTemplate(final LogRecord record, final ExtLogRecord.FormatStyle formatStyle) {
+        final String message = record.getMessage();
+        if (message == null) {
+            return null;
+        }
+        if (record instanceof ExtLogRecord) {
+            final MessageTemplate template = ((ExtLogRecord) record).getTemplate();
+            if (template != null && template.getFormatStyle() == formatStyle && template.getPattern().equals(message)) {
+                return template;
+            }
+        }
+        return MessageTemplate.of(message, formatStyle);
+    }
+
+    private static boolean hasParameters(final LogRecord record) {
+        final Object[] parameters = record.getParameters();
+        return parameters != null && parameters.length > 0;
+    }
+
+    private static String applyTemplate(final LogRecord record, final MessageTemplate template) {
+        if (record instanceof ExtLogRecord) {
+            // share the formatted message with filters which have already formatted it
+            return ((ExtLogRecord) record).format(template);
+        }
+        return template.format(record.getParameters());
+    }
+
     static class WrappedFormatter extends ExtFormatter {
         private final Formatter formatter;
         private final boolean formatMessages;
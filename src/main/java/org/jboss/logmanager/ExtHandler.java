@@ -25,6 +25,7 @@ import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.security.Permission;
 import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.ErrorManager;
@@ -45,6 +46,8 @@ public abstract class ExtHandler extends Handler implements AutoCloseable, Flush
 
     private static final ErrorManager DEFAULT_ERROR_MANAGER = new OnlyOnceErrorManager();
     private static final Permission CONTROL_PERMISSION = new LoggingPermission("control", null);
+    // incremented whenever the level of a handler changes, see HandlerDispatch
+    private static final AtomicInteger levelVersion = new AtomicInteger();
 
     protected final ReentrantLock lock = new ReentrantLock();
 
@@ -492,6 +495,7 @@ public abstract class ExtHandler extends Handler implements AutoCloseable, Flush
         lock.lock();
         try {
             level = newLevel;
+            levelVersion.incrementAndGet();
         } finally {
             lock.unlock();
         }
@@ -502,6 +506,15 @@ public abstract class ExtHandler extends Handler implements AutoCloseable, Flush
         return level;
     }
 
+    /**
+     * Returns a value which changes whenever the level of any handler is {@linkplain #setLevel(Level) set}.
+     *
+     * @return the level version
+     */
+    static int getLevelVersion() {
+        return levelVersion.get();
+    }
+
     /**
      * Indicates whether or not the {@linkplain #getFormatter() formatter} associated with this handler or a formatter
      * from a {@linkplain #getHandlers() child handler} requires the caller to be calculated.
@@ -25,7 +25,7 @@ import java.io.IOException;
 import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.security.PrivilegedAction;
-import java.text.MessageFormat;
+import java.util.Collections;
 import java.util.Map;
 import java.util.MissingResourceException;
 import java.util.ResourceBundle;
@@ -61,7 +61,8 @@ public class ExtLogRecord extends LogRecord {
     }
 
     /**
-     * Construct a new instance. Grabs the current NDC immediately. MDC is deferred.
+     * Construct a new instance. Grabs a snapshot of the current NDC immediately, but only renders it when
+     * {@linkplain #getNdc() requested}. MDC is deferred.
      *
      * @param level           a logging level value
      * @param msg             the raw non-localized logging message (may be null)
@@ -72,7 +73,8 @@ public class ExtLogRecord extends LogRecord {
     }
 
     /**
-     * Construct a new instance. Grabs the current NDC immediately. MDC is deferred.
+     * Construct a new instance. Grabs a snapshot of the current NDC immediately, but only renders it when
+     * {@linkplain #getNdc() requested}. MDC is deferred.
      *
      * @param level           a logging level value
      * @param msg             the raw non-localized logging message (may be null)
@@ -84,7 +86,7 @@ public class ExtLogRecord extends LogRecord {
         super(level, msg);
         this.formatStyle = formatStyle == null ? FormatStyle.MESSAGE_FORMAT : formatStyle;
         this.loggerClassName = loggerClassName;
-        ndc = NDC.get();
+        ndcSnapshot = NDC.getNDCProvider().getSnapshot();
         threadName = Thread.currentThread().getName();
         hostName = HostName.getQualifiedHostName();
         processName = io.smallrye.common.os.Process.getProcessName();
@@ -116,9 +118,13 @@ public class ExtLogRecord extends LogRecord {
         }
         setLongThreadID(original.getLongThreadID());
         formatStyle = original.formatStyle;
+        template = original.template;
+        formattedMessage = original.formattedMessage;
         marker = original.marker;
         mdcCopy = original.mdcCopy;
+        mdcSnapshot = original.mdcSnapshot;
         ndc = original.ndc;
+        ndcSnapshot = original.ndcSnapshot;
         loggerClassName = original.loggerClassName;
         threadName = original.threadName;
         hostName = original.hostName;
@@ -147,8 +153,16 @@ public class ExtLogRecord extends LogRecord {
     private transient boolean calculateCaller = true;
 
     private String ndc;
+    // Rendered into ndc on first use
+    private transient CharSequence ndcSnapshot;
     private FormatStyle formatStyle;
+    // The parsed message pattern, after the resource bundle lookup, if it is known ahead of time
+    private transient MessageTemplate template;
+    // The result of getFormattedMessage(), shared by filters and formatters, discarded when the message changes
+    private transient String formattedMessage;
     private FastCopyHashMap<String, Object> mdcCopy;
+    // An immutable snapshot from the MDC provider, only copied into mdcCopy when it is changed or serialized
+    private transient PersistentHashMap<String, Object> mdcSnapshot;
     private int sourceLineNumber = -1;
     private String sourceFileName;
     private String threadName;
@@ -161,6 +175,8 @@ public class ExtLogRecord extends LogRecord {
 
     private void writeObject(ObjectOutputStream oos) throws IOException {
         copyAll();
+        mutableMdc();
+        getNdc();
         oos.defaultWriteObject();
     }
 
@@ -207,9 +223,29 @@ public class ExtLogRecord extends LogRecord {
      * more than once has no additional effect and will not incur extra copies.
      */
     public void copyMdc() {
+        if (mdcCopy == null && mdcSnapshot == null) {
+            final Map<String, Object> copy = MDC.getMDCProvider().copyObject();
+            if (copy instanceof PersistentHashMap) {
+                // Immutable, so there is no need to copy it
+                mdcSnapshot = (PersistentHashMap<String, Object>) copy;
+            } else {
+                mdcCopy = FastCopyHashMap.of(copy);
+            }
+        }
+    }
+
+    private Map<String, Object> mdcMap() {
+        final Map<String, Object> mdcCopy = this.mdcCopy;
+        return mdcCopy == null ? mdcSnapshot : mdcCopy;
+    }
+
+    private FastCopyHashMap<String, Object> mutableMdc() {
+        copyMdc();
         if (mdcCopy == null) {
-            mdcCopy = FastCopyHashMap.of(MDC.getMDCProvider().copyObject());
+            mdcCopy = new FastCopyHashMap<>(mdcSnapshot);
+            mdcSnapshot = null;
         }
+        return mdcCopy;
     }
 
     /**
@@ -219,7 +255,7 @@ public class ExtLogRecord extends LogRecord {
      * @return the property value
      */
     public String getMdc(String key) {
-        final Map<String, Object> mdcCopy = this.mdcCopy;
+        final Map<String, Object> mdcCopy = mdcMap();
         if (mdcCopy == null) {
             return MDC.get(key);
         }
@@ -227,6 +263,34 @@ public class ExtLogRecord extends LogRecord {
         return value == null ? null : value.toString();
     }
 
+    /**
+     * Get the value of an MDC property as it was put in the MDC, without converting it to a string.
+     *
+     * @param key the property key
+     * @return the property value
+     */
+    public Object getMdcObject(String key) {
+        final Map<String, Object> mdcCopy = mdcMap();
+        if (mdcCopy == null) {
+            return MDC.getObject(key);
+        }
+        return mdcCopy.get(key);
+    }
+
+    /**
+     * Get an unmodifiable view of all the MDC properties for this log record, with the values as they were put in the
+     * MDC. If the MDC has not yet been copied, this method will copy it. Unlike {@link #getMdcCopy()} this does not
+     * create a new map or convert the values to strings.
+     *
+     * @return an unmodifiable view of the MDC map
+     */
+    public Map<String, Object> getMdcObjects() {
+        copyMdc();
+        final Map<String, Object> mdc = mdcMap();
+        // The snapshot is already immutable
+        return mdc instanceof PersistentHashMap ? mdc : Collections.unmodifiableMap(mdc);
+    }
+
     /**
      * Get a copy of all the MDC properties for this log record. If the MDC has not yet been copied, this method will copy it.
      *
@@ -236,7 +300,7 @@ public class ExtLogRecord extends LogRecord {
         copyMdc();
         // Create a new map with string values
         final FastCopyHashMap<String, String> newMdc = new FastCopyHashMap<String, String>();
-        for (Map.Entry<String, Object> entry : mdcCopy.entrySet()) {
+        for (Map.Entry<String, Object> entry : mdcMap().entrySet()) {
             final String key = entry.getKey();
             final Object value = entry.getValue();
             newMdc.put(key, (value == null ? null : value.toString()));
@@ -252,8 +316,7 @@ public class ExtLogRecord extends LogRecord {
      * @return the old value, if any
      */
     public String putMdc(String key, String value) {
-        copyMdc();
-        final Object oldValue = mdcCopy.put(key, value);
+        final Object oldValue = mutableMdc().put(key, value);
         return oldValue == null ? null : oldValue.toString();
     }
 
@@ -264,8 +327,7 @@ public class ExtLogRecord extends LogRecord {
      * @return the old value, if any
      */
     public String removeMdc(String key) {
-        copyMdc();
-        final Object oldValue = mdcCopy.remove(key);
+        final Object oldValue = mutableMdc().remove(key);
         return oldValue == null ? null : oldValue.toString();
     }
 
@@ -284,6 +346,7 @@ public class ExtLogRecord extends LogRecord {
             }
         }
         mdcCopy = newMdc;
+        mdcSnapshot = null;
     }
 
     /**
@@ -292,6 +355,14 @@ public class ExtLogRecord extends LogRecord {
      * @return the NDC
      */
     public String getNdc() {
+        String ndc = this.ndc;
+        if (ndc == null) {
+            final CharSequence ndcSnapshot = this.ndcSnapshot;
+            if (ndcSnapshot != null) {
+                ndc = ndcSnapshot.toString();
+                this.ndc = ndc;
+            }
+        }
         return ndc;
     }
 
@@ -302,6 +373,7 @@ public class ExtLogRecord extends LogRecord {
      */
     public void setNdc(String value) {
         ndc = value;
+        ndcSnapshot = null;
     }
 
     /**
@@ -458,12 +530,30 @@ public class ExtLogRecord extends LogRecord {
 
     /**
      * Get the fully formatted log record, with resources resolved and parameters applied.
+     * <p>
+     * The result is cached until the message, the parameters or the resource bundle of this record are changed, so
+     * filters and formatters which all need the formatted message only format it once. Note that changing the contents
+     * of the parameter array in place does not discard the cached message.
+     * </p>
      *
      * @return the formatted log record
      * @deprecated The formatter should normally be used to format the message contents.
      */
     @Deprecated
     public String getFormattedMessage() {
+        String formattedMessage = this.formattedMessage;
+        if (formattedMessage == null) {
+            formattedMessage = formatMessage();
+            this.formattedMessage = formattedMessage;
+        }
+        return formattedMessage;
+    }
+
+    private String formatMessage() {
+        final MessageTemplate template = this.template;
+        if (template != null) {
+            return template.format(getParameters());
+        }
         final ResourceBundle bundle = getResourceBundle();
         String msg = getMessage();
         if (msg == null)
@@ -480,13 +570,46 @@ public class ExtLogRecord extends LogRecord {
             return msg;
         }
         return switch (formatStyle) {
-            case PRINTF -> String.format(msg, parameters);
-            case MESSAGE_FORMAT -> msg.indexOf('{') >= 0 ? MessageFormat.format(msg, parameters) : msg;
+            case PRINTF -> MessageTemplate.of(msg, formatStyle).format(parameters);
+            case MESSAGE_FORMAT -> msg.indexOf('{') >= 0 ? MessageTemplate.of(msg, formatStyle).format(parameters) : msg;
             // should be unreachable
             default -> msg;
         };
     }
 
+    /**
+     * Set the parsed message pattern. The template must be parsed from the message of this record, after it has been
+     * looked up in the resource bundle of this record, using the format style of this record. Changing the message or
+     * the resource bundle discards the template.
+     *
+     * @param template the template
+     */
+    void setTemplate(final MessageTemplate template) {
+        this.template = template;
+    }
+
+    MessageTemplate getTemplate() {
+        return template;
+    }
+
+    /**
+     * Formats the parameters of this record with the template. If the template is the one
+     * {@link #getFormattedMessage()} would use, the formatted message is shared with it.
+     *
+     * @param template the template parsed from the raw message of this record
+     *
+     * @return the formatted message
+     */
+    @SuppressWarnings("deprecation")
+    String format(final MessageTemplate template) {
+        if (template.getFormatStyle() == formatStyle && getResourceBundle() == null
+                && template.getPattern().equals(getMessage())
+                && (formatStyle != FormatStyle.MESSAGE_FORMAT || template.getPattern().indexOf('{') >= 0)) {
+            return getFormattedMessage();
+        }
+        return template.format(getParameters());
+    }
+
     /**
      * Get the resource key, if any. If the log message is not localized, then the key is {@code null}.
      *
@@ -592,6 +715,8 @@ public class ExtLogRecord extends LogRecord {
      */
     public void setMessage(final String message, final FormatStyle formatStyle) {
         this.formatStyle = formatStyle == null ? FormatStyle.MESSAGE_FORMAT : formatStyle;
+        template = null;
+        formattedMessage = null;
         super.setMessage(message);
     }
 
@@ -601,6 +726,7 @@ public class ExtLogRecord extends LogRecord {
      * @param parameters the log message parameters. (may be null)
      */
     public void setParameters(final Object[] parameters) {
+        formattedMessage = null;
         super.setParameters(parameters);
     }
 
@@ -610,6 +736,8 @@ public class ExtLogRecord extends LogRecord {
      * @param bundle localization bundle (may be null)
      */
     public void setResourceBundle(final ResourceBundle bundle) {
+        template = null;
+        formattedMessage = null;
         super.setResourceBundle(bundle);
     }
 
@@ -619,6 +747,7 @@ public class ExtLogRecord extends LogRecord {
      * @param name localization bundle name (may be null)
      */
     public void setResourceBundleName(final String name) {
+        formattedMessage = null;
         super.setResourceBundleName(name);
     }
 
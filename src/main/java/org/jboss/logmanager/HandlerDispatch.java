@@ -0,0 +1,160 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ *
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.logmanager;
+
+import java.util.Arrays;
+import java.util.logging.Handler;
+import java.util.logging.LogRecord;
+
+/**
+ * The handlers of a logger node which accept each level.
+ * <p>
+ * The levels of the handlers split the levels into bands, and the handlers which accept the levels of each band are
+ * computed up front, so that publishing a record only visits the handlers which will accept its level.
+ * </p>
+ * <p>
+ * Only the levels of {@link ExtHandler}s which don't override {@link ExtHandler#getLevel()},
+ * {@link Handler#isLoggable(LogRecord)} or either of the {@code publish} methods are used, as those are known to drop
+ * the records below their level and to only change it through {@link ExtHandler#setLevel(java.util.logging.Level)}.
+ * Other handlers are visited for every level.
+ * </p>
+ * <p>
+ * An instance is immutable. It is stale once the handler array of the node is replaced or the level of any handler
+ * changes, see {@link #isCurrent(Handler[], int)}.
+ * </p>
+ */
+final class HandlerDispatch {
+    private static final ClassValue<Boolean> LEVEL_TRACKED = new ClassValue<Boolean>() {
+        @Override
+        protected Boolean computeValue(final Class<?> type) {
+            if (!ExtHandler.class.isAssignableFrom(type)) {
+                return Boolean.FALSE;
+            }
+            try {
+                // a handler which overrides publish may act on records below its level, such as QueueHandler
+                return type.getMethod("getLevel").getDeclaringClass() == ExtHandler.class
+                        && type.getMethod("isLoggable", LogRecord.class).getDeclaringClass() == Handler.class
+                        && type.getMethod("publish", LogRecord.class).getDeclaringClass() == ExtHandler.class
+                        && type.getMethod("publish", ExtLogRecord.class).getDeclaringClass() == ExtHandler.class;
+            } catch (NoSuchMethodException e) {
+                return Boolean.FALSE;
+            }
+        }
+    };
+
+    private final Handler[] handlers;
+    private final int levelVersion;
+    // the lowest level of each band, ascending
+    private final int[] levels;
+    // the indexes of the handlers which accept each band, and the levels below the first band
+    private final int[][] indexes;
+    private final int[] belowIndexes;
+
+    /**
+     * Computes the dispatch table of the handlers.
+     *
+     * @param handlers     the handlers of the node
+     * @param levelVersion the {@linkplain ExtHandler#getLevelVersion() level version}, which must be read before the
+     *                     levels of the handlers
+     */
+    HandlerDispatch(final Handler[] handlers, final int levelVersion) {
+        this.handlers = handlers;
+        this.levelVersion = levelVersion;
+        // the lowest level each handler accepts, Integer.MIN_VALUE if the level isn't tracked, or OFF if it accepts none
+        final int[] handlerLevels = new int[handlers.length];
+        final int[] levels = new int[handlers.length];
+        int levelCount = 0;
+        for (int i = 0; i < handlers.length; i++) {
+            final Handler handler = handlers[i];
+            if (handler != null && LEVEL_TRACKED.get(handler.getClass())) {
+                final java.util.logging.Level level = handler.getLevel();
+                handlerLevels[i] = level == null ? Integer.MIN_VALUE : level.intValue();
+            } else {
+                handlerLevels[i] = Integer.MIN_VALUE;
+            }
+            if (handlerLevels[i] != Integer.MIN_VALUE && handlerLevels[i] != Logger.OFF_INT) {
+                levels[levelCount++] = handlerLevels[i];
+            }
+        }
+        Arrays.sort(levels, 0, levelCount);
+        int distinct = 0;
+        for (int i = 0; i < levelCount; i++) {
+            if (distinct == 0 || levels[distinct - 1] != levels[i]) {
+                levels[distinct++] = levels[i];
+            }
+        }
+        this.levels = Arrays.copyOf(levels, distinct);
+        indexes = new int[distinct][];
+        for (int band = 0; band < distinct; band++) {
+            indexes[band] = accepting(handlerLevels, this.levels[band]);
+        }
+        belowIndexes = accepting(handlerLevels, Integer.MIN_VALUE);
+    }
+
+    private static int[] accepting(final int[] handlerLevels, final int level) {
+        final int[] result = new int[handlerLevels.length];
+        int count = 0;
+        for (int i = 0; i < handlerLevels.length; i++) {
+            final int handlerLevel = handlerLevels[i];
+            if (handlerLevel == Integer.MIN_VALUE || handlerLevel != Logger.OFF_INT && handlerLevel <= level) {
+                result[count++] = i;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Checks whether this table is still valid.
+     *
+     * @param handlers     the current handlers of the node
+     * @param levelVersion the current {@linkplain ExtHandler#getLevelVersion() level version}
+     *
+     * @return {@code true} if this table may be used
+     */
+    boolean isCurrent(final Handler[] handlers, final int levelVersion) {
+        return this.handlers == handlers && this.levelVersion == levelVersion;
+    }
+
+    /**
+     * Returns the handlers the indexes refer to.
+     *
+     * @return the handlers
+     */
+    Handler[] getHandlers() {
+        return handlers;
+    }
+
+    /**
+     * Returns the indexes of the handlers which may accept the level, in the order of the handlers.
+     *
+     * @param level the level of the record
+     *
+     * @return the indexes of the handlers, must not be modified
+     */
+    int[] getIndexes(final int level) {
+        final int[] levels = this.levels;
+        for (int band = levels.length - 1; band >= 0; band--) {
+            if (level >= levels[band]) {
+                return indexes[band];
+            }
+        }
+        return belowIndexes;
+    }
+}
@@ -21,12 +21,17 @@ package org.jboss.logmanager;
 
 import static java.security.AccessController.doPrivileged;
 
+import java.lang.invoke.MethodType;
 import java.lang.module.ModuleDescriptor;
 import java.security.PrivilegedAction;
 import java.util.EnumSet;
 import java.util.Iterator;
 import java.util.Optional;
+import java.util.Queue;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
@@ -40,6 +45,23 @@ final class JDKSpecific {
 
     static final StackWalker WALKER = doPrivileged(new GetStackWalkerAction());
 
+    // The maximum number of caller locations cached for a single class
+    private static final int MAX_CACHED_LOCATIONS = 256;
+
+    private static final ClassValue<CallerLocations> CALLER_LOCATIONS = new ClassValue<>() {
+        @Override
+        protected CallerLocations computeValue(final Class<?> type) {
+            return new CallerLocations();
+        }
+    };
+
+    private static final ClassValue<ModuleInfo> MODULE_INFO = new ClassValue<>() {
+        @Override
+        protected ModuleInfo computeValue(final Class<?> type) {
+            return JBOSS_MODULES ? calculateModule(type) : calculateJdkModule(type);
+        }
+    };
+
     private JDKSpecific() {
     }
 
@@ -79,34 +101,181 @@ final class JDKSpecific {
         WALKER.walk(new CallerCalcFunction(logRecord));
     }
 
-    private static void calculateJdkModule(final ExtLogRecord logRecord, final Class<?> clazz) {
+    private static CallerLocation getCallerLocation(final StackWalker.StackFrame frame, final Class<?> clazz) {
+        final int bci = frame.getByteCodeIndex();
+        if (bci < 0) {
+            return createCallerLocation(frame, clazz);
+        }
+        final CallerLocations locations = CALLER_LOCATIONS.get(clazz);
+        final CallSite site = new CallSite(frame.getMethodName(), frame.getMethodType(), bci);
+        CachedLocation cached = locations.cache.get(site);
+        if (cached != null) {
+            // Only write the flag when it was cleared, so that hits do not keep writing to shared memory
+            if (!cached.used) {
+                cached.used = true;
+            }
+            return cached.location;
+        }
+        final CallerLocation location = createCallerLocation(frame, clazz);
+        cached = new CachedLocation(site, location);
+        if (locations.cache.putIfAbsent(site, cached) == null) {
+            locations.evictionQueue.offer(cached);
+            while (locations.cache.size() > MAX_CACHED_LOCATIONS && locations.evict()) {
+                // keep evicting until the cache is back to its size
+            }
+        }
+        return location;
+    }
+
+    private static CallerLocation createCallerLocation(final StackWalker.StackFrame frame, final Class<?> clazz) {
+        final ModuleInfo module = MODULE_INFO.get(clazz);
+        return new CallerLocation(frame.getClassName(), frame.getMethodName(), frame.getFileName(),
+                frame.getLineNumber(), module.name, module.version);
+    }
+
+    private static ModuleInfo calculateJdkModule(final Class<?> clazz) {
         final java.lang.Module module = clazz.getModule();
         if (module != null) {
-            logRecord.setSourceModuleName(module.getName());
             final ModuleDescriptor descriptor = module.getDescriptor();
             if (descriptor != null) {
                 final Optional<ModuleDescriptor.Version> optional = descriptor.version();
                 if (optional.isPresent()) {
-                    logRecord.setSourceModuleVersion(optional.get().toString());
-                } else {
-                    logRecord.setSourceModuleVersion(null);
+                    return new ModuleInfo(module.getName(), optional.get().toString());
                 }
             }
+            return new ModuleInfo(module.getName(), null);
         }
+        return ModuleInfo.NONE;
     }
 
-    private static void calculateModule(final ExtLogRecord logRecord, final Class<?> clazz) {
+    private static ModuleInfo calculateModule(final Class<?> clazz) {
         final Module module = Module.forClass(clazz);
         if (module != null) {
-            logRecord.setSourceModuleName(module.getName());
             final Version version = module.getVersion();
-            if (version != null) {
-                logRecord.setSourceModuleVersion(version.toString());
-            } else {
-                logRecord.setSourceModuleVersion(null);
+            return new ModuleInfo(module.getName(), version == null ? null : version.toString());
+        }
+        return calculateJdkModule(clazz);
+    }
+
+    /**
+     * The name and version of the module of a class.
+     */
+    private static final class ModuleInfo {
+        static final ModuleInfo NONE = new ModuleInfo(null, null);
+
+        private final String name;
+        private final String version;
+
+        ModuleInfo(final String name, final String version) {
+            this.name = name;
+            this.version = version;
+        }
+    }
+
+    /**
+     * The position of a call in the byte code of a class.
+     */
+    /**
+     * The cached caller locations of a single class. Once full, a location which was not used since the eviction scan
+     * last passed over it is evicted, so the call sites in use stay cached.
+     */
+    private static final class CallerLocations {
+        private final ConcurrentMap<CallSite, CachedLocation> cache = new ConcurrentHashMap<>();
+        // The cached entries in the order they are scanned for eviction
+        private final Queue<CachedLocation> evictionQueue = new ConcurrentLinkedQueue<>();
+
+        /**
+         * Evicts one entry from the cache. Entries which were used since they were last scanned get a second chance and
+         * are moved to the end of the queue.
+         *
+         * @return {@code true} if an entry was evicted
+         */
+        boolean evict() {
+            CachedLocation cached;
+            // Bound the scan in case other threads keep using the entries
+            int secondChances = MAX_CACHED_LOCATIONS;
+            while ((cached = evictionQueue.poll()) != null) {
+                if (cached.used && secondChances-- > 0) {
+                    cached.used = false;
+                    evictionQueue.offer(cached);
+                } else {
+                    cache.remove(cached.site, cached);
+                    return true;
+                }
             }
-        } else {
-            calculateJdkModule(logRecord, clazz);
+            return false;
+        }
+    }
+
+    private static final class CachedLocation {
+        private final CallSite site;
+        private final CallerLocation location;
+        // Set when the location is used, and cleared when the eviction scan passes over it
+        private volatile boolean used;
+
+        CachedLocation(final CallSite site, final CallerLocation location) {
+            this.site = site;
+            this.location = location;
+        }
+    }
+
+    private static final class CallSite {
+        private final String methodName;
+        private final MethodType methodType;
+        private final int bci;
+
+        CallSite(final String methodName, final MethodType methodType, final int bci) {
+            this.methodName = methodName;
+            this.methodType = methodType;
+            this.bci = bci;
+        }
+
+        @Override
+        public int hashCode() {
+            return (methodName.hashCode() * 31 + methodType.hashCode()) * 31 + bci;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof CallSite)) {
+                return false;
+            }
+            final CallSite other = (CallSite) obj;
+            return bci == other.bci && methodName.equals(other.methodName) && methodType.equals(other.methodType);
+        }
+    }
+
+    /**
+     * The resolved source of a call.
+     */
+    private static final class CallerLocation {
+        private final String className;
+        private final String methodName;
+        private final String fileName;
+        private final int lineNumber;
+        private final String moduleName;
+        private final String moduleVersion;
+
+        CallerLocation(final String className, final String methodName, final String fileName, final int lineNumber,
+                final String moduleName, final String moduleVersion) {
+            this.className = className;
+            this.methodName = methodName;
+            this.fileName = fileName;
+            this.lineNumber = lineNumber;
+            this.moduleName = moduleName;
+            this.moduleVersion = moduleVersion;
+        }
+
+        void applyTo(final ExtLogRecord logRecord) {
+            logRecord.setSourceClassName(className);
+            logRecord.setSourceMethodName(methodName);
+            logRecord.setSourceFileName(fileName);
+            logRecord.setSourceLineNumber(lineNumber);
+            logRecord.setSourceModuleName(moduleName);
+            logRecord.setSourceModuleVersion(moduleVersion);
         }
     }
 
@@ -128,15 +297,7 @@ final class JDKSpecific {
                     // next entry could be the one we want!
                     found = true;
                 } else if (found) {
-                    logRecord.setSourceClassName(frame.getClassName());
-                    logRecord.setSourceMethodName(frame.getMethodName());
-                    logRecord.setSourceFileName(frame.getFileName());
-                    logRecord.setSourceLineNumber(frame.getLineNumber());
-                    if (JBOSS_MODULES) {
-                        calculateModule(logRecord, clazz);
-                    } else {
-                        calculateJdkModule(logRecord, clazz);
-                    }
+                    getCallerLocation(frame, clazz).applyTo(logRecord);
                     return null;
                 }
             }
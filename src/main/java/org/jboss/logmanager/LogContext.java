@@ -28,6 +28,7 @@ import java.security.PrivilegedAction;
 import java.util.Collection;
 import java.util.Enumeration;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.Map;
@@ -338,6 +339,46 @@ public final class LogContext implements AutoCloseable {
         return node.getAttachment(key);
     }
 
+    /**
+     * Set the levels of several loggers at once. The levels are assigned first and the effective levels of the
+     * affected loggers are then updated in a single walk of the logger tree, rather than one walk per logger. This is
+     * considerably cheaper than invoking {@link Logger#setLevel(Level)} for each logger when reconfiguring many
+     * loggers, and other threads changing levels cannot interleave with the update.
+     * <p>
+     * The update is only atomic with respect to other level changes. Threads checking whether a level is loggable
+     * while the update is in progress may see the new levels of some loggers and the old levels of others.
+     * </p>
+     * <p>
+     * A {@code null} level means the logger inherits the level of its parent, as with {@link Logger#setLevel(Level)}.
+     * Loggers which do not exist yet are created.
+     * </p>
+     *
+     * @param levels the new levels keyed by logger name
+     * @throws SecurityException if a security manager exists and if the caller does not have LoggingPermission("control")
+     */
+    public void setLevels(Map<String, ? extends Level> levels) throws SecurityException {
+        checkAccess();
+        if (levels.isEmpty()) {
+            return;
+        }
+        treeLock.lock();
+        try {
+            // Holds the changed nodes and their ancestors, which are the paths the tree walk has to follow
+            final Set<LoggerNode> changed = new HashSet<>();
+            for (Map.Entry<String, ? extends Level> entry : levels.entrySet()) {
+                final LoggerNode node = rootLogger.getOrCreate(entry.getKey());
+                node.assignLevel(entry.getValue());
+                LoggerNode current = node;
+                while (current != null && changed.add(current)) {
+                    current = current.getParent();
+                }
+            }
+            rootLogger.updateEffectiveLevels(changed);
+        } finally {
+            treeLock.unlock();
+        }
+    }
+
     /**
      * Get the level for a name.
      *
@@ -0,0 +1,168 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ *
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.logmanager;
+
+import java.util.MissingResourceException;
+import java.util.ResourceBundle;
+import java.util.logging.Level;
+
+/**
+ * A log statement bound to a logger, a level and a message, which is meant to be created once and kept, for example in
+ * a static field, by the code logging the message.
+ * <p>
+ * Checking whether the statement is enabled is a single field read, which reflects level changes of the logger as soon
+ * as they are made. The message is parsed once, the first time the statement is logged, rather than for every record.
+ * </p>
+ * <p>
+ * Instances are obtained from {@link Logger#logSite(Level, String, ExtLogRecord.FormatStyle)} and are safe to use from
+ * multiple threads.
+ * </p>
+ */
+public final class LogSite {
+    private static final String LOG_SITE_CLASS_NAME = LogSite.class.getName();
+
+    private final Logger logger;
+    private final LoggerNode loggerNode;
+    private final String loggerClassName;
+    private final Level level;
+    private final int levelValue;
+    private final String message;
+    private final ExtLogRecord.FormatStyle formatStyle;
+    // Replaced if the resource bundle of the logger changes
+    private volatile Binding binding;
+
+    LogSite(final Logger logger, final LoggerNode loggerNode, final String loggerClassName, final Level level,
+            final String message, final ExtLogRecord.FormatStyle formatStyle) {
+        this.logger = logger;
+        this.loggerNode = loggerNode;
+        this.loggerClassName = loggerClassName == null ? LOG_SITE_CLASS_NAME : loggerClassName;
+        this.level = level;
+        levelValue = level.intValue();
+        this.message = message;
+        this.formatStyle = formatStyle == null ? ExtLogRecord.FormatStyle.MESSAGE_FORMAT : formatStyle;
+    }
+
+    /**
+     * Returns the logger this statement logs to.
+     *
+     * @return the logger
+     */
+    public Logger getLogger() {
+        return logger;
+    }
+
+    /**
+     * Returns the level this statement logs at.
+     *
+     * @return the level
+     */
+    public Level getLevel() {
+        return level;
+    }
+
+    /**
+     * Returns the raw message of this statement.
+     *
+     * @return the message
+     */
+    public String getMessage() {
+        return message;
+    }
+
+    /**
+     * Returns the format style of the message.
+     *
+     * @return the format style
+     */
+    public ExtLogRecord.FormatStyle getFormatStyle() {
+        return formatStyle;
+    }
+
+    /**
+     * Checks whether the logger is currently enabled for the level of this statement.
+     *
+     * @return {@code true} if a message logged by this statement would be published, otherwise {@code false}
+     */
+    public boolean isEnabled() {
+        return loggerNode.isLoggableLevel(levelValue);
+    }
+
+    /**
+     * Logs the message with the given parameters, if the logger is enabled for the level of this statement.
+     *
+     * @param params the message parameters
+     */
+    public void log(final Object... params) {
+        log(null, params);
+    }
+
+    /**
+     * Logs the message with the given parameters and throwable, if the logger is enabled for the level of this
+     * statement.
+     *
+     * @param thrown the throwable, if any
+     * @param params the message parameters
+     */
+    public void log(final Throwable thrown, final Object... params) {
+        if (!loggerNode.isLoggableLevel(levelValue)) {
+            return;
+        }
+        final ResourceBundle bundle = logger.getResourceBundle();
+        Binding binding = this.binding;
+        if (binding == null || binding.bundle != bundle) {
+            this.binding = binding = new Binding(bundle, MessageTemplate.compile(localize(bundle), formatStyle));
+        }
+        final ExtLogRecord rec = new ExtLogRecord(level, message, formatStyle, loggerClassName);
+        if (bundle != null) {
+            rec.setResourceBundleName(bundle.getBaseBundleName());
+            rec.setResourceBundle(bundle);
+        }
+        rec.setParameters(params);
+        rec.setThrown(thrown);
+        rec.setTemplate(binding.template);
+        logger.publishRaw(rec);
+    }
+
+    private String localize(final ResourceBundle bundle) {
+        if (bundle != null) {
+            try {
+                return bundle.getString(message);
+            } catch (MissingResourceException ex) {
+                // ignore
+            }
+        }
+        return message;
+    }
+
+    @Override
+    public String toString() {
+        return "LogSite(" + logger.getName() + ", " + level + ", " + message + ")";
+    }
+
+    private static final class Binding {
+        private final ResourceBundle bundle;
+        private final MessageTemplate template;
+
+        private Binding(final ResourceBundle bundle, final MessageTemplate template) {
+            this.bundle = bundle;
+            this.template = template;
+        }
+    }
+}
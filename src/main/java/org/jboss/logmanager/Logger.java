@@ -896,18 +896,63 @@ public final class Logger extends java.util.logging.Logger implements Serializab
         log(fqcn, level, message, NO_FORMAT, null, t);
     }
 
+    /**
+     * Create a log statement for a fixed level and message. The statement is meant to be kept by the caller and reused
+     * for each message logged, it checks the level and parses the message more cheaply than the other log methods.
+     *
+     * @param level       the level to log at
+     * @param message     the message
+     * @param formatStyle the message format style
+     * @return the log statement
+     */
+    public LogSite logSite(final Level level, final String message, final ExtLogRecord.FormatStyle formatStyle) {
+        return logSite(null, level, message, formatStyle);
+    }
+
+    /**
+     * Create a log statement for a fixed level and message. The statement is meant to be kept by the caller and reused
+     * for each message logged, it checks the level and parses the message more cheaply than the other log methods.
+     *
+     * @param fqcn        the fully qualified class name of the first logger class, or {@code null} if the statement is
+     *                    used directly by the caller
+     * @param level       the level to log at
+     * @param message     the message
+     * @param formatStyle the message format style
+     * @return the log statement
+     */
+    public LogSite logSite(final String fqcn, final Level level, final String message,
+            final ExtLogRecord.FormatStyle formatStyle) {
+        if (level == null) {
+            throw new NullPointerException("level is null");
+        }
+        if (message == null) {
+            throw new NullPointerException("message is null");
+        }
+        return new LogSite(this, loggerNode, fqcn, level, message, formatStyle);
+    }
+
     /**
      * Do the logging with no level checks (they've already been done).
      *
      * @param record the extended log record
      */
     public void logRaw(final ExtLogRecord record) {
-        record.setLoggerName(getName());
         final ResourceBundle bundle = getResourceBundle();
         if (bundle != null) {
             record.setResourceBundleName(bundle.getBaseBundleName());
             record.setResourceBundle(bundle);
         }
+        publishRaw(record);
+    }
+
+    /**
+     * Do the logging with no level checks (they've already been done), leaving the resource bundle of the record as
+     * it is.
+     *
+     * @param record the extended log record
+     */
+    void publishRaw(final ExtLogRecord record) {
+        record.setLoggerName(getName());
         try {
             if (!loggerNode.isLoggable(record)) {
                 return;
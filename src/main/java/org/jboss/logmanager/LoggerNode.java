@@ -25,6 +25,7 @@ import java.lang.invoke.VarHandle;
 import java.lang.reflect.UndeclaredThrowableException;
 import java.security.AccessController;
 import java.security.PrivilegedAction;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Enumeration;
@@ -85,6 +86,11 @@ final class LoggerNode implements AutoCloseable {
     @SuppressWarnings({ "UnusedDeclaration" })
     private volatile Handler[] handlers;
 
+    /**
+     * The handlers which accept each level, computed from the handlers when a record is published.
+     */
+    private volatile HandlerDispatch dispatch;
+
     /**
      * Flag to specify whether parent handlers are used.
      */
@@ -131,6 +137,12 @@ final class LoggerNode implements AutoCloseable {
      */
     private final int effectiveMinLevel;
 
+    /**
+     * The lowest loggable level, which is the greater of the effective level and the effective minimum level. Always
+     * updated together with the effective level, so that checking whether a level is loggable is a single field read.
+     */
+    private volatile int loggableLevel;
+
     /**
      * Construct a new root instance.
      *
@@ -150,6 +162,7 @@ final class LoggerNode implements AutoCloseable {
         } else {
             effectiveLevel = Logger.INFO_INT;
         }
+        loggableLevel = Math.max(effectiveLevel, effectiveMinLevel);
         handlers = safeCloneHandlers(initializer.getInitialHandlers(fullName));
         children = context.createChildMap();
         attachments = Map.of();
@@ -188,6 +201,7 @@ final class LoggerNode implements AutoCloseable {
         } else {
             effectiveLevel = parent.effectiveLevel;
         }
+        loggableLevel = Math.max(effectiveLevel, effectiveMinLevel);
         handlers = safeCloneHandlers(initializer.getInitialHandlers(fullName));
         children = context.createChildMap();
         attachments = Map.of();
@@ -232,10 +246,10 @@ final class LoggerNode implements AutoCloseable {
             filter = null;
             if ("".equals(fullName)) {
                 level = Level.INFO;
-                effectiveLevel = Level.INFO.intValue();
+                updateEffectiveLevel(Level.INFO.intValue());
             } else {
                 level = null;
-                effectiveLevel = parent.effectiveLevel;
+                updateEffectiveLevel(parent.effectiveLevel);
             }
             handlersUpdater.clear(this);
             useParentFilter = false;
@@ -336,7 +350,7 @@ final class LoggerNode implements AutoCloseable {
      */
     void setEffectiveLevel(int newLevel) {
         if (level == null) {
-            effectiveLevel = newLevel;
+            updateEffectiveLevel(newLevel);
             for (LoggerNode node : children.values()) {
                 if (node != null) {
                     node.setEffectiveLevel(newLevel);
@@ -374,7 +388,7 @@ final class LoggerNode implements AutoCloseable {
 
     boolean isLoggableLevel(int level) {
         // this can be inlined
-        return level != Logger.OFF_INT && level >= effectiveMinLevel && level >= effectiveLevel;
+        return level != Logger.OFF_INT && level >= loggableLevel;
     }
 
     Handler[] getHandlers() {
@@ -432,7 +446,13 @@ final class LoggerNode implements AutoCloseable {
     @SuppressWarnings("deprecation") // record#getFormattedMessage
     void publish(final ExtLogRecord record) {
         ExtLogRecord oldRecord = null;
-        for (Handler handler : getHandlers())
+        final HandlerDispatch dispatch = getDispatch();
+        final Handler[] handlers = dispatch.getHandlers();
+        int level = record.getLevel().intValue();
+        int[] indexes = dispatch.getIndexes(level);
+        for (int i = 0; i < indexes.length; i++) {
+            final int index = indexes[i];
+            final Handler handler = handlers[index];
             try {
                 if (handler instanceof ExtHandler || handler.getFormatter() instanceof ExtFormatter) {
                     handler.publish(record);
@@ -474,6 +494,16 @@ final class LoggerNode implements AutoCloseable {
                     }
                 }
             }
+            final int newLevel = record.getLevel().intValue();
+            if (newLevel != level) {
+                // the filter of the handler changed the level, continue with the handlers after it which accept the new
+                // level
+                level = newLevel;
+                indexes = dispatch.getIndexes(level);
+                final int position = Arrays.binarySearch(indexes, index);
+                i = position >= 0 ? position : -position - 2;
+            }
+        }
         if (useParentHandlers) {
             final LoggerNode parent = this.parent;
             if (parent != null)
@@ -481,27 +511,25 @@ final class LoggerNode implements AutoCloseable {
         }
     }
 
+    private HandlerDispatch getDispatch() {
+        // the level version must be read before the levels of the handlers
+        final int levelVersion = ExtHandler.getLevelVersion();
+        final Handler[] handlers = getHandlers();
+        HandlerDispatch dispatch = this.dispatch;
+        if (dispatch == null || !dispatch.isCurrent(handlers, levelVersion)) {
+            dispatch = this.dispatch = new HandlerDispatch(handlers, levelVersion);
+        }
+        return dispatch;
+    }
+
     void setLevel(final Level newLevel) {
         final ReentrantLock treeLock = context.treeLock;
         treeLock.lock();
         try {
             final int oldEffectiveLevel = effectiveLevel;
-            final int newEffectiveLevel;
-            if (newLevel != null) {
-                level = newLevel;
-                newEffectiveLevel = newLevel.intValue();
-                context.pin(this);
-            } else {
-                final LoggerNode parent = this.parent;
-                if (parent == null) {
-                    level = Level.INFO;
-                    newEffectiveLevel = Logger.INFO_INT;
-                } else {
-                    level = null;
-                    newEffectiveLevel = parent.effectiveLevel;
-                }
-            }
-            effectiveLevel = newEffectiveLevel;
+            assignLevel(newLevel);
+            final int newEffectiveLevel = calculateEffectiveLevel();
+            updateEffectiveLevel(newEffectiveLevel);
             if (oldEffectiveLevel != newEffectiveLevel) {
                 // our level changed, recurse down to children
                 for (LoggerNode node : children.values()) {
@@ -515,6 +543,57 @@ final class LoggerNode implements AutoCloseable {
         }
     }
 
+    /**
+     * Set the level without updating the effective level of this node or its children. Must only be called while the
+     * context's tree lock is held, and must be followed by a call to {@link #updateEffectiveLevels(Set)} on the root
+     * node.
+     *
+     * @param newLevel the new level, or {@code null} to inherit the level of the parent
+     */
+    void assignLevel(final Level newLevel) {
+        if (newLevel != null) {
+            level = newLevel;
+            context.pin(this);
+        } else if (parent == null) {
+            level = Level.INFO;
+        } else {
+            level = null;
+        }
+    }
+
+    /**
+     * Recalculate the effective levels of this node and its children in a single walk of the tree, after the levels
+     * of one or more nodes were changed with {@link #assignLevel(Level)}. Only the children whose effective level may
+     * have changed are visited. Must only be called while the context's tree lock is held.
+     *
+     * @param changed the nodes whose level was changed, along with all of their ancestors
+     */
+    void updateEffectiveLevels(final Set<LoggerNode> changed) {
+        final int oldEffectiveLevel = effectiveLevel;
+        final int newEffectiveLevel = calculateEffectiveLevel();
+        updateEffectiveLevel(newEffectiveLevel);
+        final boolean levelChanged = oldEffectiveLevel != newEffectiveLevel;
+        for (LoggerNode node : children.values()) {
+            if (node != null && (levelChanged || changed.contains(node))) {
+                node.updateEffectiveLevels(changed);
+            }
+        }
+    }
+
+    private int calculateEffectiveLevel() {
+        final Level level = this.level;
+        if (level != null) {
+            return level.intValue();
+        }
+        final LoggerNode parent = this.parent;
+        return parent == null ? Logger.INFO_INT : parent.effectiveLevel;
+    }
+
+    private void updateEffectiveLevel(final int newLevel) {
+        effectiveLevel = newLevel;
+        loggableLevel = Math.max(newLevel, effectiveMinLevel);
+    }
+
     Level getLevel() {
         return level;
     }
@@ -25,6 +25,8 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.ServiceConfigurationError;
 import java.util.ServiceLoader;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
 
 /**
  * Mapped diagnostic context. This is a thread-local map used to hold loggable information.
@@ -154,4 +156,68 @@ public final class MDC {
     public static void clear() {
         mdcProvider.clear();
     }
+
+    /**
+     * Wraps the task so that it runs with the MDC of the current thread, as it is at the time of this call. The MDC of
+     * the thread running the task is restored once the task completes.
+     * <p>
+     * The MDC is captured without copying the entries where the provider supports it, so wrapping a task is cheap
+     * enough to do for every task handed to an executor.
+     * </p>
+     *
+     * @param task the task to wrap
+     * @return the wrapped task
+     */
+    public static Runnable wrap(final Runnable task) {
+        if (task == null) {
+            throw new NullPointerException("task is null");
+        }
+        final Map<String, Object> captured = mdcProvider.capture();
+        return () -> {
+            final Map<String, Object> previous = mdcProvider.replace(captured);
+            try {
+                task.run();
+            } finally {
+                mdcProvider.replace(previous);
+            }
+        };
+    }
+
+    /**
+     * Wraps the task so that it runs with the MDC of the current thread, as it is at the time of this call. The MDC of
+     * the thread running the task is restored once the task completes.
+     *
+     * @param task the task to wrap
+     * @param <V>  the type of the result
+     * @return the wrapped task
+     * @see #wrap(Runnable)
+     */
+    public static <V> Callable<V> wrap(final Callable<V> task) {
+        if (task == null) {
+            throw new NullPointerException("task is null");
+        }
+        final Map<String, Object> captured = mdcProvider.capture();
+        return () -> {
+            final Map<String, Object> previous = mdcProvider.replace(captured);
+            try {
+                return task.call();
+            } finally {
+                mdcProvider.replace(previous);
+            }
+        };
+    }
+
+    /**
+     * Wraps the executor so that each task runs with the MDC of the thread which submitted it.
+     *
+     * @param executor the executor to wrap
+     * @return the wrapped executor
+     * @see #wrap(Runnable)
+     */
+    public static Executor wrap(final Executor executor) {
+        if (executor == null) {
+            throw new NullPointerException("executor is null");
+        }
+        return command -> executor.execute(wrap(command));
+    }
 }
@@ -80,4 +80,37 @@ public interface MDCProvider {
      */
     void clear();
 
+    /**
+     * Get the current MDC map for later use with {@link #replace(Map)}. The returned map must not be modified by the
+     * caller, which allows providers to return it without copying the entries.
+     * <p>
+     * The default implementation returns {@link #copyObject()}.
+     * </p>
+     *
+     * @return the current MDC map
+     */
+    default Map<String, Object> capture() {
+        return copyObject();
+    }
+
+    /**
+     * Replace the current MDC map with the given map, returning the previous one. Passing the returned map back to
+     * this method restores the previous MDC. Neither map may be modified by the caller afterwards, which allows
+     * providers to use them without copying the entries.
+     * <p>
+     * The default implementation captures the current map, clears it and puts each entry of the given map.
+     * </p>
+     *
+     * @param map the new MDC map
+     * @return the previous MDC map
+     */
+    default Map<String, Object> replace(Map<String, Object> map) {
+        final Map<String, Object> previous = capture();
+        clear();
+        for (Map.Entry<String, Object> entry : map.entrySet()) {
+            putObject(entry.getKey(), entry.getValue());
+        }
+        return previous;
+    }
+
 }
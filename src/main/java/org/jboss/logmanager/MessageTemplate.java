@@ -0,0 +1,183 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ *
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.logmanager;
+
+import java.text.MessageFormat;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * A log message pattern which is parsed ahead of time, so that formatting a message only has to apply the parameters.
+ * Instances are immutable and may be shared between threads.
+ * <p>
+ * Recently used {@link MessageFormat} patterns are cached by {@link #of(String, ExtLogRecord.FormatStyle)}. Log
+ * messages typically come from a small, stable set of patterns, so nearly every lookup is a hit. The cache is bounded,
+ * once full a pattern which was not used since the eviction scan last passed over it is evicted, so the patterns in use
+ * stay cached. Printf patterns are not parsed ahead of time, so they are not cached.
+ * </p>
+ */
+final class MessageTemplate {
+    private static final int MAX_CACHED = 1024;
+    private static final ConcurrentHashMap<String, Cached> cache = new ConcurrentHashMap<>();
+    // The cached entries in the order they are scanned for eviction
+    private static final ConcurrentLinkedQueue<Cached> evictionQueue = new ConcurrentLinkedQueue<>();
+
+    private final String pattern;
+    private final ExtLogRecord.FormatStyle formatStyle;
+    // The parsed pattern, which is cloned before use as MessageFormat is not thread safe
+    private final MessageFormat messageFormat;
+
+    private MessageTemplate(final String pattern, final ExtLogRecord.FormatStyle formatStyle,
+            final MessageFormat messageFormat) {
+        this.pattern = pattern;
+        this.formatStyle = formatStyle;
+        this.messageFormat = messageFormat;
+    }
+
+    /**
+     * Parses a message pattern.
+     *
+     * @param pattern     the pattern, which must not be {@code null}
+     * @param formatStyle the format style of the pattern
+     *
+     * @return the template
+     */
+    static MessageTemplate compile(final String pattern, final ExtLogRecord.FormatStyle formatStyle) {
+        MessageFormat messageFormat = null;
+        if (formatStyle == ExtLogRecord.FormatStyle.MESSAGE_FORMAT && pattern.indexOf('{') >= 0) {
+            try {
+                messageFormat = new MessageFormat(pattern);
+            } catch (IllegalArgumentException ignore) {
+                // an invalid pattern, fail when it is formatted as MessageFormat.format() would
+            }
+        }
+        return new MessageTemplate(pattern, formatStyle, messageFormat);
+    }
+
+    /**
+     * Returns the parsed pattern, from the cache if it was parsed recently.
+     *
+     * @param pattern     the pattern, which must not be {@code null}
+     * @param formatStyle the format style of the pattern
+     *
+     * @return the template
+     */
+    static MessageTemplate of(final String pattern, final ExtLogRecord.FormatStyle formatStyle) {
+        if (formatStyle != ExtLogRecord.FormatStyle.MESSAGE_FORMAT) {
+            return compile(pattern, formatStyle);
+        }
+        Cached cached = cache.get(pattern);
+        if (cached != null) {
+            // Only write the flag when it was cleared, so that hits do not keep writing to shared memory
+            if (!cached.used) {
+                cached.used = true;
+            }
+            return cached.template;
+        }
+        final MessageTemplate template = compile(pattern, formatStyle);
+        cached = new Cached(template);
+        if (cache.putIfAbsent(pattern, cached) == null) {
+            evictionQueue.offer(cached);
+            while (cache.size() > MAX_CACHED && evict()) {
+                // keep evicting until the cache is back to its size
+            }
+        }
+        return template;
+    }
+
+    /**
+     * Evicts one entry from the cache. Entries which were used since they were last scanned get a second chance and
+     * are moved to the end of the queue.
+     *
+     * @return {@code true} if an entry was evicted
+     */
+    private static boolean evict() {
+        Cached cached;
+        // Bound the scan in case other threads keep using the entries
+        int secondChances = MAX_CACHED;
+        while ((cached = evictionQueue.poll()) != null) {
+            if (cached.used && secondChances-- > 0) {
+                cached.used = false;
+                evictionQueue.offer(cached);
+            } else {
+                cache.remove(cached.template.pattern, cached);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the pattern this template was parsed from.
+     *
+     * @return the pattern
+     */
+    String getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Returns the format style of the pattern.
+     *
+     * @return the format style
+     */
+    ExtLogRecord.FormatStyle getFormatStyle() {
+        return formatStyle;
+    }
+
+    /**
+     * Formats the message. The result is the same as the one of
+     * {@link MessageFormat#format(String, Object...) MessageFormat.format()} or
+     * {@link String#format(String, Object...) String.format()} depending on the format style.
+     *
+     * @param parameters the parameters, may be {@code null}
+     *
+     * @return the formatted message
+     */
+    String format(final Object[] parameters) {
+        if (parameters == null || parameters.length == 0) {
+            return pattern;
+        }
+        switch (formatStyle) {
+            case PRINTF:
+                return String.format(pattern, parameters);
+            case MESSAGE_FORMAT:
+                // The pattern is parsed with the default locale, which could have changed since
+                if (messageFormat != null
+                        && messageFormat.getLocale().equals(Locale.getDefault(Locale.Category.FORMAT))) {
+                    return ((MessageFormat) messageFormat.clone()).format(parameters);
+                }
+                return pattern.indexOf('{') >= 0 ? MessageFormat.format(pattern, parameters) : pattern;
+            default:
+                return pattern;
+        }
+    }
+
+    private static final class Cached {
+        private final MessageTemplate template;
+        // Set when the template is used, and cleared when the eviction scan passes over it
+        private volatile boolean used;
+
+        private Cached(final MessageTemplate template) {
+            this.template = template;
+        }
+    }
+}
@@ -44,6 +44,21 @@ public interface NDCProvider {
      */
     String get();
 
+    /**
+     * Get an immutable snapshot of the current NDC value. The snapshot is not affected by later changes to the stack,
+     * and its {@link Object#toString() toString()} returns the value {@link #get()} returned at the time the snapshot
+     * was taken.
+     * <p>
+     * Implementations should make this cheaper than {@link #get()} by deferring rendering the value until it is
+     * needed. The default implementation returns {@link #get()}.
+     * </p>
+     *
+     * @return the current NDC value, or {@code ""} if there is none
+     */
+    default CharSequence getSnapshot() {
+        return get();
+    }
+
     /**
      * Provided for compatibility with log4j. Get the NDC value that is {@code n} entries from the bottom.
      *
@@ -0,0 +1,401 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ *
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.logmanager;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable map backed by a hash array mapped trie. Changes are made with {@link #plus(Object, Object)} and
+ * {@link #minus(Object)}, which return a new map sharing all unchanged nodes with this one. The mutating methods of
+ * {@link Map} throw an {@link UnsupportedOperationException}.
+ * <p>
+ * Neither keys nor values may be {@code null}.
+ * </p>
+ */
+final class PersistentHashMap<K, V> extends AbstractMap<K, V> {
+
+    private static final int BITS = 5;
+    private static final int MASK = (1 << BITS) - 1;
+
+    private static final PersistentHashMap<?, ?> EMPTY = new PersistentHashMap<>(null, 0);
+
+    private final Node root;
+    private final int size;
+    private Set<Map.Entry<K, V>> entrySet;
+
+    private PersistentHashMap(final Node root, final int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <K, V> PersistentHashMap<K, V> empty() {
+        return (PersistentHashMap<K, V>) EMPTY;
+    }
+
+    @Override
+    public V get(final Object key) {
+        if (root == null || key == null) {
+            return null;
+        }
+        return cast(root.find(key, hash(key), 0));
+    }
+
+    @Override
+    public boolean containsKey(final Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    /**
+     * Returns a map with the key mapped to the value.
+     *
+     * @param key   the key
+     * @param value the value
+     *
+     * @return the new map or this map if the key is already mapped to the value
+     */
+    PersistentHashMap<K, V> plus(final K key, final V value) {
+        if (key == null) {
+            throw new NullPointerException("key is null");
+        }
+        if (value == null) {
+            throw new NullPointerException("value is null");
+        }
+        final int hash = hash(key);
+        if (root == null) {
+            return new PersistentHashMap<>(BitmapNode.EMPTY.put(key, value, hash, 0), 1);
+        }
+        final Object old = root.find(key, hash, 0);
+        if (old == value) {
+            return this;
+        }
+        return new PersistentHashMap<>(root.put(key, value, hash, 0), old == null ? size + 1 : size);
+    }
+
+    /**
+     * Returns a map without a mapping for the key.
+     *
+     * @param key the key
+     *
+     * @return the new map or this map if there was no mapping for the key
+     */
+    PersistentHashMap<K, V> minus(final Object key) {
+        if (root == null || key == null) {
+            return this;
+        }
+        final int hash = hash(key);
+        if (root.find(key, hash, 0) == null) {
+            return this;
+        }
+        final Node newRoot = root.remove(key, hash, 0);
+        return newRoot == null ? empty() : new PersistentHashMap<>(newRoot, size - 1);
+    }
+
+    private static int hash(final Object key) {
+        final int h = key.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T cast(final Object value) {
+        return (T) value;
+    }
+
+    /**
+     * A node of the trie. The array holds key and value pairs, a {@code null} key means the value is a child node.
+     */
+    private abstract static class Node {
+        final Object[] array;
+
+        Node(final Object[] array) {
+            this.array = array;
+        }
+
+        abstract Object find(Object key, int hash, int shift);
+
+        abstract Node put(Object key, Object value, int hash, int shift);
+
+        /**
+         * Removes a key known to be present.
+         *
+         * @return the new node or {@code null} if the node is now empty
+         */
+        abstract Node remove(Object key, int hash, int shift);
+    }
+
+    private static final class BitmapNode extends Node {
+        static final BitmapNode EMPTY = new BitmapNode(0, new Object[0]);
+
+        private final int bitmap;
+
+        BitmapNode(final int bitmap, final Object[] array) {
+            super(array);
+            this.bitmap = bitmap;
+        }
+
+        @Override
+        Object find(final Object key, final int hash, final int shift) {
+            final int bit = bit(hash, shift);
+            if ((bitmap & bit) == 0) {
+                return null;
+            }
+            final int idx = index(bit);
+            final Object k = array[idx];
+            final Object v = array[idx + 1];
+            if (k == null) {
+                return ((Node) v).find(key, hash, shift + BITS);
+            }
+            return key.equals(k) ? v : null;
+        }
+
+        @Override
+        Node put(final Object key, final Object value, final int hash, final int shift) {
+            final int bit = bit(hash, shift);
+            final int idx = index(bit);
+            if ((bitmap & bit) == 0) {
+                final Object[] newArray = new Object[array.length + 2];
+                System.arraycopy(array, 0, newArray, 0, idx);
+                newArray[idx] = key;
+                newArray[idx + 1] = value;
+                System.arraycopy(array, idx, newArray, idx + 2, array.length - idx);
+                return new BitmapNode(bitmap | bit, newArray);
+            }
+            final Object k = array[idx];
+            final Object v = array[idx + 1];
+            if (k == null) {
+                final Node child = ((Node) v).put(key, value, hash, shift + BITS);
+                return child == v ? this : with(idx, null, child);
+            }
+            if (key.equals(k)) {
+                return v == value ? this : with(idx, k, value);
+            }
+            // Two different keys in the same slot, push both down a level
+            return with(idx, null, createNode(k, v, key, value, hash, shift + BITS));
+        }
+
+        @Override
+        Node remove(final Object key, final int hash, final int shift) {
+            final int bit = bit(hash, shift);
+            final int idx = index(bit);
+            final Object k = array[idx];
+            if (k == null) {
+                final Node child = ((Node) array[idx + 1]).remove(key, hash, shift + BITS);
+                if (child != null) {
+                    return with(idx, null, child);
+                }
+            }
+            if (bitmap == bit) {
+                return null;
+            }
+            final Object[] newArray = new Object[array.length - 2];
+            System.arraycopy(array, 0, newArray, 0, idx);
+            System.arraycopy(array, idx + 2, newArray, idx, newArray.length - idx);
+            return new BitmapNode(bitmap & ~bit, newArray);
+        }
+
+        private BitmapNode with(final int idx, final Object key, final Object value) {
+            final Object[] newArray = array.clone();
+            newArray[idx] = key;
+            newArray[idx + 1] = value;
+            return new BitmapNode(bitmap, newArray);
+        }
+
+        private int index(final int bit) {
+            return Integer.bitCount(bitmap & (bit - 1)) << 1;
+        }
+
+        private static int bit(final int hash, final int shift) {
+            return 1 << ((hash >>> shift) & MASK);
+        }
+
+        private static Node createNode(final Object key1, final Object value1, final Object key2, final Object value2,
+                final int hash2, final int shift) {
+            final int hash1 = hash(key1);
+            if (hash1 == hash2) {
+                return new CollisionNode(hash1, new Object[] { key1, value1, key2, value2 });
+            }
+            return EMPTY.put(key1, value1, hash1, shift).put(key2, value2, hash2, shift);
+        }
+    }
+
+    /**
+     * Holds keys which have the same hash.
+     */
+    private static final class CollisionNode extends Node {
+        private final int hash;
+
+        CollisionNode(final int hash, final Object[] array) {
+            super(array);
+            this.hash = hash;
+        }
+
+        @Override
+        Object find(final Object key, final int hash, final int shift) {
+            if (hash == this.hash) {
+                for (int i = 0; i < array.length; i += 2) {
+                    if (key.equals(array[i])) {
+                        return array[i + 1];
+                    }
+                }
+            }
+            return null;
+        }
+
+        @Override
+        Node put(final Object key, final Object value, final int hash, final int shift) {
+            if (hash != this.hash) {
+                // Not a collision, nest this node in a bitmap node so the new key can take its own slot
+                return new BitmapNode(BitmapNode.bit(this.hash, shift), new Object[] { null, this })
+                        .put(key, value, hash, shift);
+            }
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    if (array[i + 1] == value) {
+                        return this;
+                    }
+                    final Object[] newArray = array.clone();
+                    newArray[i + 1] = value;
+                    return new CollisionNode(hash, newArray);
+                }
+            }
+            final Object[] newArray = new Object[array.length + 2];
+            System.arraycopy(array, 0, newArray, 0, array.length);
+            newArray[array.length] = key;
+            newArray[array.length + 1] = value;
+            return new CollisionNode(hash, newArray);
+        }
+
+        @Override
+        Node remove(final Object key, final int hash, final int shift) {
+            if (array.length == 2) {
+                return null;
+            }
+            for (int i = 0; i < array.length; i += 2) {
+                if (key.equals(array[i])) {
+                    final Object[] newArray = new Object[array.length - 2];
+                    System.arraycopy(array, 0, newArray, 0, i);
+                    System.arraycopy(array, i + 2, newArray, i, newArray.length - i);
+                    return new CollisionNode(hash, newArray);
+                }
+            }
+            return this;
+        }
+    }
+
+    private final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public boolean contains(final Object o) {
+            if (o instanceof Map.Entry) {
+                final Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+                final V value = get(entry.getKey());
+                return value != null && value.equals(entry.getValue());
+            }
+            return false;
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+    }
+
+    private final class EntryIterator implements Iterator<Map.Entry<K, V>> {
+        // 7 bitmap levels cover the 32 bits of the hash, plus a level for collisions
+        private final Object[][] arrays = new Object[8][];
+        private final int[] positions = new int[8];
+        private int depth;
+        private Map.Entry<K, V> next;
+
+        EntryIterator() {
+            if (root == null) {
+                depth = -1;
+            } else {
+                arrays[0] = root.array;
+            }
+            advance();
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<K, V> next() {
+            final Map.Entry<K, V> result = next;
+            if (result == null) {
+                throw new NoSuchElementException();
+            }
+            advance();
+            return result;
+        }
+
+        private void advance() {
+            next = null;
+            while (depth >= 0) {
+                final Object[] array = arrays[depth];
+                final int pos = positions[depth];
+                if (pos >= array.length) {
+                    arrays[depth--] = null;
+                    continue;
+                }
+                positions[depth] = pos + 2;
+                final Object k = array[pos];
+                if (k == null) {
+                    depth++;
+                    arrays[depth] = ((Node) array[pos + 1]).array;
+                    positions[depth] = 0;
+                } else {
+                    next = new AbstractMap.SimpleImmutableEntry<>(cast(k), cast(array[pos + 1]));
+                    return;
+                }
+            }
+        }
+    }
+}
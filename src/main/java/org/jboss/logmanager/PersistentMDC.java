@@ -0,0 +1,176 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ *
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.logmanager;
+
+import java.util.Map;
+
+/**
+ * An {@link MDCProvider} which keeps the MDC of each thread in an immutable hash array mapped trie.
+ * <p>
+ * Taking a snapshot of the MDC, for example when a record is handed to an asynchronous handler, does not copy the
+ * entries. The snapshot is the current map itself, and later changes to the MDC create a new map which shares all
+ * unchanged nodes with the snapshot. Child threads inherit the MDC of the parent in the same way.
+ * </p>
+ * <p>
+ * The map returned from {@link #copyObject()} is immutable. Callers of {@link MDC#copyObject()} which need to change the
+ * returned map must copy it first.
+ * </p>
+ * <p>
+ * To use this provider, register it with the {@link java.util.ServiceLoader} used by {@link MDC}. On the class path add
+ * a {@code META-INF/services/org.jboss.logmanager.MDCProvider} file containing
+ * {@code org.jboss.logmanager.PersistentMDC}. On the module path declare a provider in your module with a
+ * {@code public static MDCProvider provider()} method which returns a new instance of this class.
+ * </p>
+ */
+public final class PersistentMDC implements MDCProvider {
+    private static final Holder mdc = new Holder();
+
+    /**
+     * Creates a new provider. All instances share the same per-thread state.
+     */
+    public PersistentMDC() {
+    }
+
+    @Override
+    public String get(String key) {
+        final Object value = getObject(key);
+        return value == null ? null : value.toString();
+    }
+
+    @Override
+    public Object getObject(String key) {
+        return mdc.get().map.get(key);
+    }
+
+    @Override
+    public String put(String key, String value) {
+        final Object oldValue = putObject(key, value);
+        return oldValue == null ? null : oldValue.toString();
+    }
+
+    @Override
+    public Object putObject(String key, Object value) {
+        if (key == null) {
+            throw new NullPointerException("key is null");
+        }
+        if (value == null) {
+            throw new NullPointerException("value is null");
+        }
+        final Context context = mdc.get();
+        final PersistentHashMap<String, Object> map = context.map;
+        final Object oldValue = map.get(key);
+        context.map = map.plus(key, value);
+        return oldValue;
+    }
+
+    @Override
+    public String remove(String key) {
+        final Object oldValue = removeObject(key);
+        return oldValue == null ? null : oldValue.toString();
+    }
+
+    @Override
+    public Object removeObject(String key) {
+        final Context context = mdc.get();
+        final PersistentHashMap<String, Object> map = context.map;
+        final Object oldValue = map.get(key);
+        context.map = map.minus(key);
+        return oldValue;
+    }
+
+    @Override
+    public Map<String, String> copy() {
+        final FastCopyHashMap<String, String> result = new FastCopyHashMap<>();
+        for (Map.Entry<String, Object> entry : mdc.get().map.entrySet()) {
+            result.put(entry.getKey(), entry.getValue().toString());
+        }
+        return result;
+    }
+
+    /**
+     * Returns an immutable snapshot of the MDC map. This is a constant time operation.
+     *
+     * @return an immutable snapshot of the map
+     */
+    @Override
+    public Map<String, Object> copyObject() {
+        return mdc.get().map;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return mdc.get().map.isEmpty();
+    }
+
+    @Override
+    public void clear() {
+        mdc.get().map = PersistentHashMap.empty();
+    }
+
+    @Override
+    public Map<String, Object> capture() {
+        return mdc.get().map;
+    }
+
+    /**
+     * Replaces the MDC map. This is a constant time operation if the map was returned from this provider.
+     *
+     * @param map the new MDC map
+     * @return the previous MDC map
+     */
+    @Override
+    public Map<String, Object> replace(final Map<String, Object> map) {
+        final Context context = mdc.get();
+        final PersistentHashMap<String, Object> previous = context.map;
+        if (map instanceof PersistentHashMap) {
+            context.map = (PersistentHashMap<String, Object>) map;
+        } else {
+            PersistentHashMap<String, Object> newMap = PersistentHashMap.empty();
+            for (Map.Entry<String, Object> entry : map.entrySet()) {
+                newMap = newMap.plus(entry.getKey(), entry.getValue());
+            }
+            context.map = newMap;
+        }
+        return previous;
+    }
+
+    private static final class Context {
+        // Only accessed by the owning thread
+        PersistentHashMap<String, Object> map;
+
+        Context(final PersistentHashMap<String, Object> map) {
+            this.map = map;
+        }
+    }
+
+    private static final class Holder extends InheritableThreadLocal<Context> {
+
+        @Override
+        protected Context childValue(final Context parentValue) {
+            // The map is immutable, so the child can share it
+            return new Context(parentValue.map);
+        }
+
+        @Override
+        protected Context initialValue() {
+            return new Context(PersistentHashMap.empty());
+        }
+    }
+}
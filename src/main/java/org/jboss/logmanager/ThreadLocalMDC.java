@@ -13,7 +13,7 @@ final class ThreadLocalMDC implements MDCProvider {
 
     @Override
     public Object getObject(String key) {
-        return mdc.get().get(key);
+        return mdc.get().map.get(key);
     }
 
     @Override
@@ -30,7 +30,7 @@ final class ThreadLocalMDC implements MDCProvider {
         if (value == null) {
             throw new NullPointerException("value is null");
         }
-        return mdc.get().put(key, value);
+        return mdc.get().writable().put(key, value);
     }
 
     @Override
@@ -41,13 +41,14 @@ final class ThreadLocalMDC implements MDCProvider {
 
     @Override
     public Object removeObject(String key) {
-        return mdc.get().remove(key);
+        final Context context = mdc.get();
+        return context.map.containsKey(key) ? context.writable().remove(key) : null;
     }
 
     @Override
     public Map<String, String> copy() {
         final FastCopyHashMap<String, String> result = new FastCopyHashMap<>();
-        for (Map.Entry<String, Object> entry : mdc.get().entrySet()) {
+        for (Map.Entry<String, Object> entry : mdc.get().map.entrySet()) {
             result.put(entry.getKey(), entry.getValue().toString());
         }
         return result;
@@ -55,29 +56,74 @@ final class ThreadLocalMDC implements MDCProvider {
 
     @Override
     public Map<String, Object> copyObject() {
-        return mdc.get().clone();
+        return mdc.get().map.clone();
     }
 
     @Override
     public boolean isEmpty() {
-        return mdc.get().isEmpty();
+        return mdc.get().map.isEmpty();
     }
 
     @Override
     public void clear() {
-        mdc.get().clear();
+        final Context context = mdc.get();
+        if (context.shared) {
+            context.map = new FastCopyHashMap<>();
+            context.shared = false;
+        } else {
+            context.map.clear();
+        }
+    }
+
+    @Override
+    public Map<String, Object> capture() {
+        final Context context = mdc.get();
+        context.shared = true;
+        return context.map;
+    }
+
+    @Override
+    public Map<String, Object> replace(final Map<String, Object> map) {
+        final Context context = mdc.get();
+        final FastCopyHashMap<String, Object> previous = context.map;
+        // Neither map may be changed from here on as either could be in use elsewhere, copy on the next write instead
+        context.map = FastCopyHashMap.of(map);
+        context.shared = true;
+        return previous;
+    }
+
+    private static final class Context {
+        // Only accessed by the owning thread, or by the parent thread before this thread is started
+        FastCopyHashMap<String, Object> map;
+        // Whether the map may be referenced elsewhere, in which case it is copied before it is changed
+        boolean shared;
+
+        Context(final FastCopyHashMap<String, Object> map, final boolean shared) {
+            this.map = map;
+            this.shared = shared;
+        }
+
+        FastCopyHashMap<String, Object> writable() {
+            if (shared) {
+                map = map.clone();
+                shared = false;
+            }
+            return map;
+        }
     }
 
-    private static final class Holder extends InheritableThreadLocal<FastCopyHashMap<String, Object>> {
+    private static final class Holder extends InheritableThreadLocal<Context> {
 
         @Override
-        protected FastCopyHashMap<String, Object> childValue(final FastCopyHashMap<String, Object> parentValue) {
-            return new FastCopyHashMap<>(parentValue);
+        protected Context childValue(final Context parentValue) {
+            // Share the map with the child, whichever thread changes it first makes its own copy
+            parentValue.shared = true;
+            return new Context(parentValue.map, true);
         }
 
         @Override
-        protected FastCopyHashMap<String, Object> initialValue() {
-            return new FastCopyHashMap<>();
+        protected Context initialValue() {
+            return new Context(new FastCopyHashMap<>(), false);
         }
     }
 }
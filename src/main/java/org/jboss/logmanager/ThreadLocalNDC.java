@@ -1,122 +1,139 @@
 package org.jboss.logmanager;
 
-import java.util.Arrays;
-
 final class ThreadLocalNDC implements NDCProvider {
     private static final Holder ndc = new Holder();
 
     @Override
     public int push(String context) {
-        final Stack<String> stack = ndc.get();
-        try {
-            return stack.depth();
-        } finally {
-            stack.push(context);
-        }
+        final Stack stack = ndc.get();
+        final Frame top = stack.top;
+        stack.top = new Frame(top, context);
+        return top == null ? 0 : top.depth;
     }
 
     @Override
     public String pop() {
-        final Stack<String> stack = ndc.get();
-        if (stack.isEmpty()) {
+        final Stack stack = ndc.get();
+        final Frame top = stack.top;
+        if (top == null) {
             return "";
         } else {
-            return stack.pop();
+            stack.top = top.parent;
+            return top.value;
         }
     }
 
     @Override
     public void clear() {
-        ndc.get().trimTo(0);
+        ndc.get().top = null;
     }
 
     @Override
     public void trimTo(int size) {
-        ndc.get().trimTo(size);
+        final Stack stack = ndc.get();
+        Frame top = stack.top;
+        while (top != null && top.depth > size) {
+            top = top.parent;
+        }
+        stack.top = top;
     }
 
     @Override
     public int getDepth() {
-        return ndc.get().depth();
+        final Frame top = ndc.get().top;
+        return top == null ? 0 : top.depth;
     }
 
     @Override
     public String get() {
-        final Stack<String> stack = ndc.get();
-        if (stack.isEmpty()) {
+        final Frame top = ndc.get().top;
+        if (top == null) {
             return "";
         } else {
-            return stack.toString();
+            return top.toString();
         }
     }
 
     @Override
-    public String get(int n) {
-        return ndc.get().get(n);
+    public CharSequence getSnapshot() {
+        final Frame top = ndc.get().top;
+        return top == null ? "" : top;
     }
 
-    private static final class Holder extends ThreadLocal<Stack<String>> {
-        protected Stack<String> initialValue() {
-            return new Stack<>();
+    @Override
+    public String get(int n) {
+        Frame frame = ndc.get().top;
+        while (frame != null && frame.depth > n + 1) {
+            frame = frame.parent;
         }
+        return frame == null || frame.depth != n + 1 ? null : frame.value;
     }
 
-    private static final class Stack<T> {
-        private Object[] data = new Object[32];
-        private int sp;
-
-        public void push(T value) {
-            if (sp == data.length) {
-                data = Arrays.copyOf(data, (data.length << 1) + data.length >>> 1);
-            }
-            data[sp++] = value;
-        }
-
-        @SuppressWarnings("unchecked")
-        public T pop() {
-            try {
-                return (T) data[--sp];
-            } finally {
-                data[sp] = null;
-            }
+    private static final class Holder extends ThreadLocal<Stack> {
+        protected Stack initialValue() {
+            return new Stack();
         }
+    }
 
-        @SuppressWarnings("unchecked")
-        public T top() {
-            return (T) data[sp - 1];
-        }
+    private static final class Stack {
+        // Only accessed by the owning thread
+        Frame top;
+    }
 
-        public boolean isEmpty() {
-            return sp == 0;
+    /**
+     * An immutable entry of the stack. Pushing a value creates a new frame on top of the current one, so a reference
+     * to a frame is a snapshot of the stack which later changes do not affect.
+     */
+    private static final class Frame implements CharSequence {
+        private final Frame parent;
+        private final String value;
+        private final int depth;
+        // Rendered on first use, racing threads render the same value
+        private String rendered;
+
+        Frame(final Frame parent, final String value) {
+            this.parent = parent;
+            this.value = value;
+            depth = parent == null ? 1 : parent.depth + 1;
         }
 
-        public int depth() {
-            return sp;
+        @Override
+        public int length() {
+            return toString().length();
         }
 
-        public void trimTo(int max) {
-            final int sp = this.sp;
-            if (sp > max) {
-                Arrays.fill(data, max, sp - 1, null);
-                this.sp = max;
-            }
+        @Override
+        public char charAt(final int index) {
+            return toString().charAt(index);
         }
 
-        @SuppressWarnings("unchecked")
-        public T get(int n) {
-            return n < sp ? (T) data[n] : null;
+        @Override
+        public CharSequence subSequence(final int start, final int end) {
+            return toString().substring(start, end);
         }
 
+        @Override
         public String toString() {
-            final StringBuilder b = new StringBuilder();
-            final int sp = this.sp;
-            for (int i = 0; i < sp; i++) {
-                b.append(data[i]);
-                if ((i + 1) < sp) {
-                    b.append('.');
+            String rendered = this.rendered;
+            if (rendered == null) {
+                // Walk down to the bottom frame, only this frame caches the rendering
+                final String[] values = new String[depth];
+                Frame frame = this;
+                for (int i = depth - 1; i >= 0; i--) {
+                    values[i] = frame.value;
+                    frame = frame.parent;
+                }
+                final StringBuilder b = new StringBuilder();
+                for (int i = 0; i < values.length; i++) {
+                    if (i > 0) {
+                        b.append('.');
+                    }
+                    b.append(values[i]);
                 }
+                rendered = b.toString();
+                this.rendered = rendered;
             }
-            return b.toString();
+            return rendered;
         }
     }
 }
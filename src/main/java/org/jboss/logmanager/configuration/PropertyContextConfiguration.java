@@ -21,8 +21,10 @@ package org.jboss.logmanager.configuration;
 
 import java.util.ArrayList;
 import java.util.EnumSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Properties;
 import java.util.function.Supplier;
@@ -51,6 +53,8 @@ public class PropertyContextConfiguration extends ContextConfiguration {
 
     private static final String[] EMPTY_STRINGS = new String[0];
     private final Properties properties;
+    // The logger levels are collected and applied together once all the loggers are configured
+    private final Map<String, Level> levels = new LinkedHashMap<>();
 
     private PropertyContextConfiguration(final LogContext logContext, final Properties properties) {
         super(logContext);
@@ -84,6 +88,7 @@ public class PropertyContextConfiguration extends ContextConfiguration {
         for (String loggerName : getStringCsvArray("loggers")) {
             configureLogger(loggerName);
         }
+        getContext().setLevels(levels);
         // Configure any declared handlers.
         for (String handlerName : getStringCsvArray("handlers")) {
             configureHandler(handlerName);
@@ -115,7 +120,7 @@ public class PropertyContextConfiguration extends ContextConfiguration {
         // Get logger level
         final String levelName = getStringProperty(getKey("logger", loggerName, "level"));
         if (levelName != null) {
-            logger.setLevel(Level.parse(levelName));
+            levels.put(loggerName, Level.parse(levelName));
         }
 
         // Get logger filters
@@ -275,7 +280,7 @@ public class PropertyContextConfiguration extends ContextConfiguration {
                 final ObjectBuilder<Filter> filterBuilder = ObjectBuilder.of(this, Filter.class, filterValue)
                         .setModuleName(getStringProperty(getKey("filter", filterName, "module")))
                         .addPostConstructMethods(getStringCsvArray(getKey("filter", filterName, "postConfiguration")));
-                configureProperties(filterBuilder, "errorManager", filterName);
+                configureProperties(filterBuilder, "filter", filterName);
                 addFilter(filterName, filterBuilder.build());
             }
         }
@@ -0,0 +1,656 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ *
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.logmanager.configuration.filters;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.logging.Filter;
+import java.util.logging.LogRecord;
+
+import org.jboss.logmanager.filters.AcceptAllFilter;
+import org.jboss.logmanager.filters.AllFilter;
+import org.jboss.logmanager.filters.AnyFilter;
+import org.jboss.logmanager.filters.DenyAllFilter;
+import org.jboss.logmanager.filters.InvertFilter;
+import org.jboss.logmanager.filters.SubstringFilter;
+
+/**
+ * Compiles parsed filter expressions into flat filters.
+ * <p>
+ * The expression is simplified before it is turned into a filter. Nested {@code all} and {@code any} expressions are
+ * flattened, constant expressions are folded, and all the level checks of an {@code all} or {@code any} expression are
+ * merged into a single check of the level value against a set of ranges. Level checks are evaluated before the other
+ * filters, which usually need the formatted message. Matches of plain strings are merged into a single
+ * {@link SubstringFilter}, which scans the message once for all of them.
+ * </p>
+ * <p>
+ * Filters which change the record, like {@code substitute} or {@code levelChange}, must run in the order they are
+ * written and must not be skipped, as the record is shared with other handlers. Checks are never moved across them.
+ * </p>
+ */
+final class FilterCompiler {
+
+    private FilterCompiler() {
+    }
+
+    /**
+     * Simplifies the expression and creates the filter for it.
+     *
+     * @param node the parsed expression
+     *
+     * @return the filter
+     */
+    static Filter compile(final Node node) {
+        return node.simplify().toFilter();
+    }
+
+    /**
+     * A parsed filter expression.
+     */
+    abstract static class Node {
+        /**
+         * Returns whether evaluating the expression changes the record.
+         */
+        abstract boolean isPure();
+
+        /**
+         * Returns the result of the expression if it is the same for every record, otherwise {@code null}. A filter
+         * which is not {@linkplain #isPure() pure} still has to be evaluated even if its result is known.
+         */
+        abstract Boolean getConstant();
+
+        /**
+         * Returns a rough cost of evaluating the expression, cheaper expressions are evaluated first.
+         */
+        abstract int getCost();
+
+        abstract Node simplify();
+
+        /**
+         * Creates the filter for this expression. The node must be simplified first.
+         */
+        abstract Filter toFilter();
+
+        /**
+         * Creates the filter for this expression from the filters in {@code org.jboss.logmanager.filters}, as written
+         * and without any simplification.
+         */
+        abstract Filter toInterpretedFilter();
+    }
+
+    static final class Constant extends Node {
+        static final Constant ACCEPT = new Constant(true);
+        static final Constant DENY = new Constant(false);
+
+        private final boolean value;
+
+        private Constant(final boolean value) {
+            this.value = value;
+        }
+
+        @Override
+        boolean isPure() {
+            return true;
+        }
+
+        @Override
+        Boolean getConstant() {
+            return value;
+        }
+
+        @Override
+        int getCost() {
+            return 0;
+        }
+
+        @Override
+        Node simplify() {
+            return this;
+        }
+
+        @Override
+        Filter toFilter() {
+            return value ? AcceptAllFilter.getInstance() : DenyAllFilter.getInstance();
+        }
+
+        @Override
+        Filter toInterpretedFilter() {
+            return toFilter();
+        }
+    }
+
+    /**
+     * A check of the level of the record.
+     */
+    static final class Levels extends Node {
+        private final LevelSet levels;
+        // the filter the expression was parsed to, null for merged checks
+        private final Filter interpreted;
+
+        Levels(final LevelSet levels, final Filter interpreted) {
+            this.levels = levels;
+            this.interpreted = interpreted;
+        }
+
+        @Override
+        boolean isPure() {
+            return true;
+        }
+
+        @Override
+        Boolean getConstant() {
+            return levels.isEmpty() ? Boolean.FALSE : levels.isAll() ? Boolean.TRUE : null;
+        }
+
+        @Override
+        int getCost() {
+            return 0;
+        }
+
+        @Override
+        Node simplify() {
+            final Boolean constant = getConstant();
+            return constant == null ? this : constant ? Constant.ACCEPT : Constant.DENY;
+        }
+
+        @Override
+        Filter toFilter() {
+            return new LevelSetFilter(levels);
+        }
+
+        @Override
+        Filter toInterpretedFilter() {
+            return interpreted;
+        }
+    }
+
+    /**
+     * Any other filter.
+     */
+    static final class Leaf extends Node {
+        private final Filter filter;
+        private final boolean pure;
+        private final Boolean constant;
+        private final int cost;
+        // the string a match filter looks for, if its pattern is a plain string
+        private final String literal;
+
+        Leaf(final Filter filter, final boolean pure, final Boolean constant, final int cost) {
+            this(filter, pure, constant, cost, null);
+        }
+
+        Leaf(final Filter filter, final boolean pure, final Boolean constant, final int cost, final String literal) {
+            this.filter = filter;
+            this.pure = pure;
+            this.constant = constant;
+            this.cost = cost;
+            this.literal = literal;
+        }
+
+        @Override
+        boolean isPure() {
+            return pure;
+        }
+
+        @Override
+        Boolean getConstant() {
+            return constant;
+        }
+
+        @Override
+        int getCost() {
+            return cost;
+        }
+
+        @Override
+        Node simplify() {
+            return this;
+        }
+
+        @Override
+        Filter toFilter() {
+            return filter;
+        }
+
+        @Override
+        Filter toInterpretedFilter() {
+            return filter;
+        }
+    }
+
+    static final class Not extends Node {
+        private final Node node;
+
+        Not(final Node node) {
+            this.node = node;
+        }
+
+        @Override
+        boolean isPure() {
+            return node.isPure();
+        }
+
+        @Override
+        Boolean getConstant() {
+            final Boolean constant = node.getConstant();
+            return constant == null ? null : !constant;
+        }
+
+        @Override
+        int getCost() {
+            return node.getCost();
+        }
+
+        @Override
+        Node simplify() {
+            final Node node = this.node.simplify();
+            if (node instanceof Constant) {
+                return ((Constant) node).value ? Constant.DENY : Constant.ACCEPT;
+            } else if (node instanceof Levels) {
+                return new Levels(((Levels) node).levels.complement(), null).simplify();
+            } else if (node instanceof Not) {
+                return ((Not) node).node;
+            }
+            return node == this.node ? this : new Not(node);
+        }
+
+        @Override
+        Filter toFilter() {
+            return new InvertFilter(node.toFilter());
+        }
+
+        @Override
+        Filter toInterpretedFilter() {
+            return new InvertFilter(node.toInterpretedFilter());
+        }
+    }
+
+    /**
+     * An {@code all} or {@code any} expression.
+     */
+    static final class Junction extends Node {
+        private final boolean all;
+        private final List<Node> nodes;
+
+        Junction(final boolean all, final List<Node> nodes) {
+            this.all = all;
+            this.nodes = nodes;
+        }
+
+        @Override
+        boolean isPure() {
+            for (Node node : nodes) {
+                if (!node.isPure()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        Boolean getConstant() {
+            // the nodes are only known after simplification
+            return null;
+        }
+
+        @Override
+        int getCost() {
+            int cost = 0;
+            for (Node node : nodes) {
+                cost = Math.max(cost, node.getCost());
+            }
+            return cost;
+        }
+
+        @Override
+        Node simplify() {
+            // The value which ends the evaluation, false for all and true for any
+            final boolean decisive = !all;
+            final List<Node> result = new ArrayList<>();
+            boolean decided = false;
+            for (Node node : nodes) {
+                decided = add(result, node.simplify());
+                if (decided) {
+                    break;
+                }
+            }
+            if (result.isEmpty()) {
+                return all ? Constant.ACCEPT : Constant.DENY;
+            }
+            if (decided) {
+                // Only the filters which change the record before the decisive one still need to run
+                boolean pure = true;
+                for (Node node : result) {
+                    pure &= node.isPure();
+                }
+                if (pure) {
+                    return decisive ? Constant.ACCEPT : Constant.DENY;
+                }
+            }
+            if (merge(result)) {
+                // the merged level check is either always or never true, fold it
+                return new Junction(all, result).simplify();
+            }
+            if (result.size() == 1) {
+                return result.get(0);
+            }
+            return new Junction(all, result);
+        }
+
+        /**
+         * Adds the simplified node, unless it has no effect on the result.
+         *
+         * @return {@code true} if the node decides the result and the remaining nodes are never evaluated
+         */
+        private boolean add(final List<Node> result, final Node node) {
+            if (node instanceof Junction && ((Junction) node).all == all) {
+                for (Node nested : ((Junction) node).nodes) {
+                    if (add(result, nested)) {
+                        return true;
+                    }
+                }
+                return false;
+            }
+            final Boolean constant = node.getConstant();
+            if (constant != null) {
+                if (constant == !all) {
+                    result.add(node);
+                    return true;
+                }
+                if (node.isPure()) {
+                    return false;
+                }
+            }
+            result.add(node);
+            return false;
+        }
+
+        /**
+         * Merges the level checks in each run of nodes which don't change the record, and moves the merged check, and
+         * other cheap checks, to the start of the run. The plain string matches of the run are merged into a single
+         * {@link SubstringFilter}.
+         *
+         * @return {@code true} if a merged level check has a constant result
+         */
+        private boolean merge(final List<Node> nodes) {
+            boolean constant = false;
+            int start = 0;
+            while (start < nodes.size()) {
+                int end = start;
+                while (end < nodes.size() && nodes.get(end).isPure()) {
+                    end++;
+                }
+                if (end - start > 1) {
+                    final List<Node> run = nodes.subList(start, end);
+                    LevelSet levels = null;
+                    for (Node node : run) {
+                        if (node instanceof Levels) {
+                            final LevelSet other = ((Levels) node).levels;
+                            levels = levels == null ? other : all ? levels.intersect(other) : levels.union(other);
+                        }
+                    }
+                    if (levels != null) {
+                        run.removeIf(node -> node instanceof Levels);
+                        final Levels merged = new Levels(levels, null);
+                        constant |= merged.getConstant() != null;
+                        run.add(0, merged);
+                    }
+                    // any(match("a"), match("b")) or all(not(match("a")), not(match("b"))) only scan the message once
+                    final List<String> literals = new ArrayList<>();
+                    for (Node node : run) {
+                        final String literal = literalOf(node);
+                        if (literal != null) {
+                            literals.add(literal);
+                        }
+                    }
+                    if (literals.size() > 1) {
+                        run.removeIf(node -> literalOf(node) != null);
+                        final Node merged = new Leaf(new SubstringFilter(literals), true, null, 1);
+                        run.add(all ? new Not(merged) : merged);
+                    }
+                    run.sort(Comparator.comparingInt(Node::getCost));
+                    end = start + run.size();
+                }
+                start = end + 1;
+            }
+            return constant;
+        }
+
+        private String literalOf(final Node node) {
+            if (all) {
+                return node instanceof Not && ((Not) node).node instanceof Leaf ? ((Leaf) ((Not) node).node).literal
+                        : null;
+            }
+            return node instanceof Leaf ? ((Leaf) node).literal : null;
+        }
+
+        @Override
+        Filter toFilter() {
+            final int first = nodes.get(0) instanceof Levels ? 1 : 0;
+            final LevelSet levels = first == 1 ? ((Levels) nodes.get(0)).levels : null;
+            final Filter[] filters = new Filter[nodes.size() - first];
+            for (int i = 0; i < filters.length; i++) {
+                filters[i] = nodes.get(i + first).toFilter();
+            }
+            return all ? new AllOfFilter(levels, filters) : new AnyOfFilter(levels, filters);
+        }
+
+        @Override
+        Filter toInterpretedFilter() {
+            final List<Filter> filters = new ArrayList<>(nodes.size());
+            for (Node node : nodes) {
+                filters.add(node.toInterpretedFilter());
+            }
+            return all ? new AllFilter(filters) : new AnyFilter(filters);
+        }
+    }
+
+    /**
+     * An immutable set of level values, stored as sorted, disjoint and non-adjacent inclusive ranges.
+     */
+    static final class LevelSet {
+        private static final LevelSet EMPTY = new LevelSet(new int[0]);
+        // the common levels are all multiples of 100 in this range, so they are looked up in a bit mask
+        private static final int MASK_STEP = 100;
+        private static final int MASK_LIMIT = Long.SIZE * MASK_STEP;
+
+        // pairs of inclusive lower and upper bounds
+        private final int[] bounds;
+        private final long mask;
+
+        private LevelSet(final int[] bounds) {
+            this.bounds = bounds;
+            long mask = 0L;
+            for (int i = 0; i < Long.SIZE; i++) {
+                if (containsSlow(i * MASK_STEP)) {
+                    mask |= 1L << i;
+                }
+            }
+            this.mask = mask;
+        }
+
+        static LevelSet of(final int value) {
+            return new LevelSet(new int[] { value, value });
+        }
+
+        static LevelSet range(final int min, final boolean minInclusive, final int max, final boolean maxInclusive) {
+            final long low = minInclusive ? min : (long) min + 1;
+            final long high = maxInclusive ? max : (long) max - 1;
+            if (low > high) {
+                return EMPTY;
+            }
+            return new LevelSet(new int[] { (int) low, (int) high });
+        }
+
+        boolean isEmpty() {
+            return bounds.length == 0;
+        }
+
+        boolean isAll() {
+            return bounds.length == 2 && bounds[0] == Integer.MIN_VALUE && bounds[1] == Integer.MAX_VALUE;
+        }
+
+        boolean contains(final int value) {
+            if (value >= 0 && value < MASK_LIMIT && value % MASK_STEP == 0) {
+                return (mask & 1L << value / MASK_STEP) != 0L;
+            }
+            return containsSlow(value);
+        }
+
+        private boolean containsSlow(final int value) {
+            for (int i = 0; i < bounds.length; i += 2) {
+                if (value < bounds[i]) {
+                    return false;
+                }
+                if (value <= bounds[i + 1]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        LevelSet complement() {
+            final int[] result = new int[bounds.length + 2];
+            int size = 0;
+            long next = Integer.MIN_VALUE;
+            for (int i = 0; i < bounds.length; i += 2) {
+                if (bounds[i] > next) {
+                    result[size++] = (int) next;
+                    result[size++] = bounds[i] - 1;
+                }
+                next = (long) bounds[i + 1] + 1;
+            }
+            if (next <= Integer.MAX_VALUE) {
+                result[size++] = (int) next;
+                result[size++] = Integer.MAX_VALUE;
+            }
+            return new LevelSet(Arrays.copyOf(result, size));
+        }
+
+        LevelSet union(final LevelSet other) {
+            final int[] merged = new int[bounds.length + other.bounds.length];
+            int size = 0;
+            int i = 0;
+            int j = 0;
+            while (i < bounds.length || j < other.bounds.length) {
+                final int low;
+                final int high;
+                if (j == other.bounds.length || i < bounds.length && bounds[i] <= other.bounds[j]) {
+                    low = bounds[i];
+                    high = bounds[i + 1];
+                    i += 2;
+                } else {
+                    low = other.bounds[j];
+                    high = other.bounds[j + 1];
+                    j += 2;
+                }
+                if (size > 0 && low <= (long) merged[size - 1] + 1) {
+                    merged[size - 1] = Math.max(merged[size - 1], high);
+                } else {
+                    merged[size++] = low;
+                    merged[size++] = high;
+                }
+            }
+            return new LevelSet(Arrays.copyOf(merged, size));
+        }
+
+        LevelSet intersect(final LevelSet other) {
+            final int[] result = new int[bounds.length + other.bounds.length];
+            int size = 0;
+            int i = 0;
+            int j = 0;
+            while (i < bounds.length && j < other.bounds.length) {
+                final int low = Math.max(bounds[i], other.bounds[j]);
+                final int high = Math.min(bounds[i + 1], other.bounds[j + 1]);
+                if (low <= high) {
+                    result[size++] = low;
+                    result[size++] = high;
+                }
+                if (bounds[i + 1] < other.bounds[j + 1]) {
+                    i += 2;
+                } else {
+                    j += 2;
+                }
+            }
+            return size == 0 ? EMPTY : new LevelSet(Arrays.copyOf(result, size));
+        }
+    }
+
+    private static final class LevelSetFilter implements Filter {
+        private final LevelSet levels;
+
+        LevelSetFilter(final LevelSet levels) {
+            this.levels = levels;
+        }
+
+        @Override
+        public boolean isLoggable(final LogRecord record) {
+            return levels.contains(record.getLevel().intValue());
+        }
+    }
+
+    private static final class AllOfFilter implements Filter {
+        private final LevelSet levels;
+        private final Filter[] filters;
+
+        AllOfFilter(final LevelSet levels, final Filter[] filters) {
+            this.levels = levels;
+            this.filters = filters;
+        }
+
+        @Override
+        public boolean isLoggable(final LogRecord record) {
+            if (levels != null && !levels.contains(record.getLevel().intValue())) {
+                return false;
+            }
+            for (Filter filter : filters) {
+                if (!filter.isLoggable(record)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    private static final class AnyOfFilter implements Filter {
+        private final LevelSet levels;
+        private final Filter[] filters;
+
+        AnyOfFilter(final LevelSet levels, final Filter[] filters) {
+            this.levels = levels;
+            this.filters = filters;
+        }
+
+        @Override
+        public boolean isLoggable(final LogRecord record) {
+            if (levels != null && levels.contains(record.getLevel().intValue())) {
+                return true;
+            }
+            for (Filter filter : filters) {
+                if (filter.isLoggable(record)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
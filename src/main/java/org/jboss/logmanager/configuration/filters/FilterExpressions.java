@@ -19,6 +19,7 @@
 
 package org.jboss.logmanager.configuration.filters;
 
+import static java.lang.Character.isDigit;
 import static java.lang.Character.isJavaIdentifierPart;
 import static java.lang.Character.isJavaIdentifierStart;
 import static java.lang.Character.isWhitespace;
@@ -32,19 +33,29 @@ import java.util.logging.Filter;
 import java.util.logging.Level;
 
 import org.jboss.logmanager.LogContext;
-import org.jboss.logmanager.filters.AcceptAllFilter;
-import org.jboss.logmanager.filters.AllFilter;
-import org.jboss.logmanager.filters.AnyFilter;
-import org.jboss.logmanager.filters.DenyAllFilter;
-import org.jboss.logmanager.filters.InvertFilter;
+import org.jboss.logmanager.configuration.filters.FilterCompiler.Constant;
+import org.jboss.logmanager.configuration.filters.FilterCompiler.Junction;
+import org.jboss.logmanager.configuration.filters.FilterCompiler.Leaf;
+import org.jboss.logmanager.configuration.filters.FilterCompiler.LevelSet;
+import org.jboss.logmanager.configuration.filters.FilterCompiler.Levels;
+import org.jboss.logmanager.configuration.filters.FilterCompiler.Node;
+import org.jboss.logmanager.configuration.filters.FilterCompiler.Not;
 import org.jboss.logmanager.filters.LevelChangingFilter;
 import org.jboss.logmanager.filters.LevelFilter;
 import org.jboss.logmanager.filters.LevelRangeFilter;
+import org.jboss.logmanager.filters.RateLimitFilter;
 import org.jboss.logmanager.filters.RegexFilter;
+import org.jboss.logmanager.filters.SamplingFilter;
 import org.jboss.logmanager.filters.SubstituteFilter;
+import org.jboss.logmanager.filters.SubstringFilter;
 
 /**
  * Helper class to parse filter expressions.
+ * <p>
+ * Parsed expressions are compiled into flat filters. Level checks are merged and evaluated before the other filters,
+ * which only have to format the message of records with a matching level. The result is the same as evaluating the
+ * expression as written, including the filters which change the record.
+ * </p>
  *
  * @author <a href="mailto:jperkins@redhat.com">James R. Perkins</a>
  */
@@ -53,12 +64,15 @@ public class FilterExpressions {
     private static final String ACCEPT = "accept";
     private static final String ALL = "all";
     private static final String ANY = "any";
+    private static final String CONTAINS = "contains";
     private static final String DENY = "deny";
     private static final String LEVELS = "levels";
     private static final String LEVEL_CHANGE = "levelChange";
     private static final String LEVEL_RANGE = "levelRange";
     private static final String MATCH = "match";
     private static final String NOT = "not";
+    private static final String RATE_LIMIT = "rateLimit";
+    private static final String SAMPLE = "sample";
     private static final String SUBSTITUTE = "substitute";
     private static final String SUBSTITUTE_ALL = "substituteAll";
 
@@ -71,11 +85,29 @@ public class FilterExpressions {
      * @return the created filter
      */
     public static Filter parse(final LogContext logContext, final String expression) {
+        final Node node = parseExpression(logContext, expression);
+        return node == null ? null : FilterCompiler.compile(node);
+    }
+
+    /**
+     * Parses a filter expression into the filters it is written with, without compiling it.
+     *
+     * @param logContext the log context this filter is for
+     * @param expression the filter expression
+     *
+     * @return the created filter
+     */
+    static Filter parseInterpreted(final LogContext logContext, final String expression) {
+        final Node node = parseExpression(logContext, expression);
+        return node == null ? null : node.toInterpretedFilter();
+    }
+
+    private static Node parseExpression(final LogContext logContext, final String expression) {
         final Iterator<String> iterator = tokens(expression).iterator();
         return parseFilterExpression(logContext, iterator, true);
     }
 
-    private static Filter parseFilterExpression(final LogContext logContext, final Iterator<String> iterator,
+    private static Node parseFilterExpression(final LogContext logContext, final Iterator<String> iterator,
             final boolean outermost) {
         if (!iterator.hasNext()) {
             if (outermost) {
@@ -85,72 +117,114 @@ public class FilterExpressions {
         }
         final String token = iterator.next();
         if (ACCEPT.equals(token)) {
-            return AcceptAllFilter.getInstance();
+            return Constant.ACCEPT;
         } else if (DENY.equals(token)) {
-            return DenyAllFilter.getInstance();
+            return Constant.DENY;
         } else if (NOT.equals(token)) {
             expect("(", iterator);
-            final Filter nested = parseFilterExpression(logContext, iterator, false);
+            final Node nested = parseFilterExpression(logContext, iterator, false);
             expect(")", iterator);
-            return new InvertFilter(nested);
+            return new Not(nested);
         } else if (ALL.equals(token)) {
             expect("(", iterator);
-            final List<Filter> filters = new ArrayList<>();
+            final List<Node> nodes = new ArrayList<>();
             do {
-                filters.add(parseFilterExpression(logContext, iterator, false));
+                nodes.add(parseFilterExpression(logContext, iterator, false));
             } while (expect(",", ")", iterator));
-            return new AllFilter(filters);
+            return new Junction(true, nodes);
         } else if (ANY.equals(token)) {
             expect("(", iterator);
-            final List<Filter> filters = new ArrayList<>();
+            final List<Node> nodes = new ArrayList<>();
             do {
-                filters.add(parseFilterExpression(logContext, iterator, false));
+                nodes.add(parseFilterExpression(logContext, iterator, false));
             } while (expect(",", ")", iterator));
-            return new AnyFilter(filters);
+            return new Junction(false, nodes);
         } else if (LEVEL_CHANGE.equals(token)) {
             expect("(", iterator);
             final Level level = logContext.getLevelForName(expectName(iterator));
             expect(")", iterator);
-            return new LevelChangingFilter(level);
+            return new Leaf(new LevelChangingFilter(level), false, Boolean.TRUE, 0);
         } else if (LEVELS.equals(token)) {
             expect("(", iterator);
             final Set<Level> levels = new HashSet<>();
+            LevelSet levelSet = null;
             do {
-                levels.add(logContext.getLevelForName(expectName(iterator)));
+                final Level level = logContext.getLevelForName(expectName(iterator));
+                levels.add(level);
+                final LevelSet single = LevelSet.of(level.intValue());
+                levelSet = levelSet == null ? single : levelSet.union(single);
             } while (expect(",", ")", iterator));
-            return new LevelFilter(levels);
+            return new Levels(levelSet, new LevelFilter(levels));
         } else if (LEVEL_RANGE.equals(token)) {
             final boolean minInclusive = expect("[", "(", iterator);
             final Level minLevel = logContext.getLevelForName(expectName(iterator));
             expect(",", iterator);
             final Level maxLevel = logContext.getLevelForName(expectName(iterator));
             final boolean maxInclusive = expect("]", ")", iterator);
-            return new LevelRangeFilter(minLevel, minInclusive, maxLevel, maxInclusive);
+            final LevelRangeFilter filter = new LevelRangeFilter(minLevel, minInclusive, maxLevel, maxInclusive);
+            return new Levels(LevelSet.range(minLevel.intValue(), minInclusive, maxLevel.intValue(), maxInclusive),
+                    filter);
         } else if (MATCH.equals(token)) {
             expect("(", iterator);
             final String pattern = expectString(iterator);
             expect(")", iterator);
-            return new RegexFilter(pattern);
+            return new Leaf(new RegexFilter(pattern), true, null, 1, isLiteral(pattern) ? pattern : null);
+        } else if (CONTAINS.equals(token)) {
+            expect("(", iterator);
+            final List<String> strings = new ArrayList<>();
+            do {
+                strings.add(expectString(iterator));
+            } while (expect(",", ")", iterator));
+            return new Leaf(new SubstringFilter(strings), true, null, 1);
         } else if (SUBSTITUTE.equals(token)) {
             expect("(", iterator);
             final String pattern = expectString(iterator);
             expect(",", iterator);
             final String replacement = expectString(iterator);
             expect(")", iterator);
-            return new SubstituteFilter(pattern, replacement, false);
+            return new Leaf(new SubstituteFilter(pattern, replacement, false), false, Boolean.TRUE, 1);
         } else if (SUBSTITUTE_ALL.equals(token)) {
             expect("(", iterator);
             final String pattern = expectString(iterator);
             expect(",", iterator);
             final String replacement = expectString(iterator);
             expect(")", iterator);
-            return new SubstituteFilter(pattern, replacement, true);
+            return new Leaf(new SubstituteFilter(pattern, replacement, true), false, Boolean.TRUE, 1);
+        } else if (RATE_LIMIT.equals(token)) {
+            expect("(", iterator);
+            final int burst = expectInt(iterator);
+            expect(",", iterator);
+            final double rate = expectNumber(iterator);
+            expect(")", iterator);
+            // the filter takes a token for each record it sees, so it must not be skipped or reordered
+            return new Leaf(new RateLimitFilter(logContext, burst, rate), false, null, 1);
+        } else if (SAMPLE.equals(token)) {
+            expect("(", iterator);
+            final double rate = expectNumber(iterator);
+            final String key = expect(",", ")", iterator) ? expectString(iterator) : null;
+            if (key != null) {
+                expect(")", iterator);
+            }
+            // the filter counts the records it sees, and random sampling must not be evaluated twice
+            return new Leaf(new SamplingFilter(key, rate), false, null, 1);
         } else {
             final String name = expectName(iterator);
             throw new IllegalArgumentException(String.format("No filter named \"%s\" is defined", name));
         }
     }
 
+    /**
+     * Checks whether the pattern only matches itself.
+     */
+    private static boolean isLiteral(final String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            if ("\\^$.|?*+()[]{}".indexOf(pattern.charAt(i)) >= 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     private static String expectName(Iterator<String> iterator) {
         if (iterator.hasNext()) {
             final String next = iterator.next();
@@ -171,6 +245,32 @@ public class FilterExpressions {
         throw new IllegalArgumentException("Expected string next in filter expression");
     }
 
+    private static double expectNumber(final Iterator<String> iterator) {
+        if (iterator.hasNext()) {
+            final String next = iterator.next();
+            if (isDigit(next.codePointAt(0))) {
+                try {
+                    return Double.parseDouble(next);
+                } catch (NumberFormatException ignore) {
+                }
+            }
+        }
+        throw new IllegalArgumentException("Expected number next in filter expression");
+    }
+
+    private static int expectInt(final Iterator<String> iterator) {
+        if (iterator.hasNext()) {
+            final String next = iterator.next();
+            if (isDigit(next.codePointAt(0))) {
+                try {
+                    return Integer.parseInt(next);
+                } catch (NumberFormatException ignore) {
+                }
+            }
+        }
+        throw new IllegalArgumentException("Expected integer next in filter expression");
+    }
+
     private static boolean expect(final String trueToken, final String falseToken, final Iterator<String> iterator) {
         final boolean hasNext = iterator.hasNext();
         final String next = hasNext ? iterator.next() : null;
@@ -209,6 +309,12 @@ public class FilterExpressions {
                     idx = source.offsetByCodePoints(idx, 1);
                 } while (idx < length && isJavaIdentifierPart(ch = source.codePointAt(idx)));
                 tokens.add(source.substring(start, idx));
+            } else if (isDigit(ch)) {
+                int start = idx;
+                do {
+                    idx = source.offsetByCodePoints(idx, 1);
+                } while (idx < length && (isDigit(ch = source.codePointAt(idx)) || ch == '.'));
+                tokens.add(source.substring(start, idx));
             } else if (ch == '"') {
                 final StringBuilder b = new StringBuilder();
                 // tag token as a string
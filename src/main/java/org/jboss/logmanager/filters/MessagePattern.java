@@ -0,0 +1,234 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ *
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.logmanager.filters;
+
+import java.text.MessageFormat;
+import java.util.logging.LogRecord;
+import java.util.regex.Pattern;
+
+import org.jboss.logmanager.ExtLogRecord;
+
+/**
+ * A regular expression which is matched against the formatted message of log records.
+ * <p>
+ * A literal which every match of the expression contains is extracted when possible. Messages which don't contain the
+ * literal are rejected with a plain substring search, without running the regular expression. The literal is only
+ * checked against messages which are not changed by formatting, as the text of a parameter could supply it.
+ * </p>
+ */
+final class MessagePattern {
+    // flags which don't change how the literal characters of an expression match
+    private static final int LITERAL_SAFE_FLAGS = Pattern.MULTILINE | Pattern.DOTALL | Pattern.UNIX_LINES
+            | Pattern.UNICODE_CHARACTER_CLASS;
+
+    private final Pattern pattern;
+    private final String literal;
+
+    MessagePattern(final Pattern pattern) {
+        this.pattern = pattern;
+        literal = requiredLiteral(pattern);
+    }
+
+    Pattern getPattern() {
+        return pattern;
+    }
+
+    /**
+     * Checks whether the expression may be found in the text.
+     *
+     * @param text the text to check
+     *
+     * @return {@code false} if the expression is known not to be found in the text, otherwise {@code true}
+     */
+    boolean mayFind(final String text) {
+        return literal == null || text.contains(literal);
+    }
+
+    /**
+     * Checks whether the expression is found in the formatted message of the record.
+     *
+     * @param record the record to check
+     *
+     * @return {@code true} if the expression is found
+     */
+    boolean find(final LogRecord record) {
+        final String message = unformattedMessage(record);
+        if (message != null) {
+            return mayFind(message) && pattern.matcher(message).find();
+        }
+        return pattern.matcher(String.valueOf(formattedMessage(record))).find();
+    }
+
+    /**
+     * Returns the raw message of the record if formatting the record would not change it.
+     *
+     * @param record the record
+     *
+     * @return the raw message or {@code null} if the message needs to be formatted
+     */
+    static String unformattedMessage(final LogRecord record) {
+        final String message = record.getMessage();
+        if (message == null || record.getResourceBundle() != null) {
+            return null;
+        }
+        final Object[] parameters = record.getParameters();
+        if (parameters == null || parameters.length == 0) {
+            return message;
+        }
+        if (record instanceof ExtLogRecord
+                && ((ExtLogRecord) record).getFormatStyle() == ExtLogRecord.FormatStyle.NO_FORMAT) {
+            return message;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the formatted message of the record. The formatted message of an {@link ExtLogRecord} is cached on the
+     * record, so it is only formatted once even when several filters and the formatter of the handler need it.
+     *
+     * @param record the record
+     *
+     * @return the formatted message, may be {@code null}
+     */
+    @SuppressWarnings("deprecation") // ExtLogRecord.getFormattedMessage()
+    static String formattedMessage(final LogRecord record) {
+        if (record instanceof ExtLogRecord) {
+            return ((ExtLogRecord) record).getFormattedMessage();
+        }
+        final String message = record.getMessage();
+        final Object[] parameters = record.getParameters();
+        if (message == null || parameters == null || parameters.length == 0) {
+            return message;
+        }
+        return MessageFormat.format(message, parameters);
+    }
+
+    /**
+     * Finds the longest literal which every match of the pattern must contain. Only the simple parts of the expression
+     * are inspected, anything which could make a literal optional or change how it matches either ends the search or
+     * disables the literal.
+     *
+     * @param pattern the pattern
+     *
+     * @return the literal or {@code null} if there isn't one
+     */
+    static String requiredLiteral(final Pattern pattern) {
+        final String regex = pattern.pattern();
+        final int flags = pattern.flags();
+        if ((flags & Pattern.LITERAL) != 0) {
+            return (flags & ~(Pattern.LITERAL | LITERAL_SAFE_FLAGS)) == 0 && !regex.isEmpty() ? regex : null;
+        }
+        // an alternation could make any literal optional
+        if ((flags & ~LITERAL_SAFE_FLAGS) != 0 || regex.indexOf('|') >= 0) {
+            return null;
+        }
+        final StringBuilder run = new StringBuilder();
+        String longest = null;
+        int i = 0;
+        scan: while (i < regex.length()) {
+            final char c = regex.charAt(i++);
+            switch (c) {
+                case '*':
+                case '?':
+                case '{':
+                case '+': {
+                    // the quantifier applies to the last character of the run, which is optional unless it's a '+'
+                    if (c != '+' && run.length() > 0) {
+                        run.setLength(run.length() - 1);
+                    }
+                    longest = longest(longest, run);
+                    if (c == '{') {
+                        final int end = regex.indexOf('}', i);
+                        if (end == -1) {
+                            break scan;
+                        }
+                        i = end + 1;
+                    }
+                    // a lazy or possessive quantifier
+                    if (i < regex.length() && (regex.charAt(i) == '?' || regex.charAt(i) == '+')) {
+                        i++;
+                    }
+                    break;
+                }
+                case '.':
+                case '^':
+                case '$': {
+                    longest = longest(longest, run);
+                    if (i < regex.length() && isQuantifier(regex.charAt(i))) {
+                        // the quantifier applies to this token, not the run
+                        i++;
+                        if (regex.charAt(i - 1) == '{') {
+                            final int end = regex.indexOf('}', i);
+                            if (end == -1) {
+                                break scan;
+                            }
+                            i = end + 1;
+                        }
+                        if (i < regex.length() && (regex.charAt(i) == '?' || regex.charAt(i) == '+')) {
+                            i++;
+                        }
+                    }
+                    break;
+                }
+                case '\\': {
+                    // only escaped punctuation is a literal, everything else is a character class, a back reference,
+                    // a quotation or similar
+                    if (i == regex.length() || Character.isLetterOrDigit(regex.charAt(i))) {
+                        break scan;
+                    }
+                    run.append(regex.charAt(i++));
+                    break;
+                }
+                case '(':
+                case ')':
+                case '[':
+                case ']':
+                case '}': {
+                    break scan;
+                }
+                default: {
+                    if (Character.isSurrogate(c)) {
+                        // a quantifier would apply to the whole code point, keep it simple
+                        break scan;
+                    }
+                    run.append(c);
+                    break;
+                }
+            }
+        }
+        return longest(longest, run);
+    }
+
+    private static boolean isQuantifier(final char c) {
+        return c == '*' || c == '?' || c == '+' || c == '{';
+    }
+
+    /**
+     * Returns the longer of the current longest literal and the run, and clears the run.
+     */
+    private static String longest(final String longest, final StringBuilder run) {
+        String result = longest;
+        if (run.length() > 0 && (longest == null || run.length() > longest.length())) {
+            result = run.toString();
+        }
+        run.setLength(0);
+        return result;
+    }
+}
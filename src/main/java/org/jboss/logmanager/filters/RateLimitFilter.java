@@ -0,0 +1,321 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ *
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.logmanager.filters;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Filter;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+
+import org.jboss.logmanager.LogContext;
+
+/**
+ * A filter which limits the rate of log records. Records are grouped by their logger name, level and raw message, and
+ * each group gets a token bucket. A record takes a token from the bucket of its group, and is dropped if the bucket is
+ * empty. The bucket holds up to {@linkplain #setBurst(int) burst} tokens, and is refilled at the
+ * {@linkplain #setRate(double) rate} tokens per second.
+ * <p>
+ * The buckets are lock free, a record only updates a single atomic value. The number of groups tracked is bounded, once
+ * the limit is reached the buckets which are full are discarded, as they are the same as new buckets. If that is not
+ * enough, the buckets which will be full again the soonest are discarded, and start full again.
+ * </p>
+ * <p>
+ * The number of dropped records is periodically reported with a {@code WARN} message to the
+ * {@value #REPORT_LOGGER_NAME} logger, once a record is filtered after the {@linkplain #setReportInterval(long) report
+ * interval} has elapsed. The reports themselves are never dropped.
+ * </p>
+ */
+public final class RateLimitFilter implements Filter {
+
+    /**
+     * The name of the logger the number of dropped records is reported to.
+     */
+    public static final String REPORT_LOGGER_NAME = "org.jboss.logmanager.filters.RateLimitFilter";
+
+    private static final int MAX_BUCKETS = 1024;
+    private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1L);
+
+    private final LogContext logContext;
+    private final ConcurrentHashMap<Key, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder unreported = new LongAdder();
+    private final AtomicLong nextReport;
+    private final ThreadLocal<Boolean> reporting = new ThreadLocal<>();
+
+    private volatile int burst;
+    private volatile double rate;
+    // the time a single token takes to refill
+    private volatile long refillNanos;
+    // how far from full the bucket may be and still hold a token
+    private volatile long tolerance;
+    private volatile long reportInterval = 60L;
+    private volatile long reportIntervalNanos = TimeUnit.SECONDS.toNanos(reportInterval);
+
+    /**
+     * Creates a new filter which allows bursts of 100 records, and 10 records per second on average, for each group.
+     */
+    public RateLimitFilter() {
+        this(100, 10.0);
+    }
+
+    /**
+     * Creates a new filter.
+     *
+     * @param burst the number of records allowed in a burst
+     * @param rate  the number of records allowed per second on average
+     */
+    public RateLimitFilter(final int burst, final double rate) {
+        this(null, burst, rate);
+    }
+
+    /**
+     * Creates a new filter.
+     *
+     * @param logContext the log context to report the dropped records to, or {@code null} for the
+     *                   {@linkplain LogContext#getLogContext() current log context}
+     * @param burst      the number of records allowed in a burst
+     * @param rate       the number of records allowed per second on average
+     */
+    public RateLimitFilter(final LogContext logContext, final int burst, final double rate) {
+        this.logContext = logContext;
+        setBurst(burst);
+        setRate(rate);
+        nextReport = new AtomicLong(System.nanoTime() + reportIntervalNanos);
+    }
+
+    @Override
+    public boolean isLoggable(final LogRecord record) {
+        if (reporting.get() == Boolean.TRUE) {
+            return true;
+        }
+        final long now = System.nanoTime();
+        final boolean loggable = tryAcquire(getBucket(record), now);
+        if (!loggable) {
+            dropped.increment();
+            unreported.increment();
+        }
+        final long nextReport = this.nextReport.get();
+        if (now - nextReport >= 0L && this.nextReport.compareAndSet(nextReport, now + reportIntervalNanos)) {
+            report();
+        }
+        return loggable;
+    }
+
+    /**
+     * Returns the number of records allowed in a burst.
+     *
+     * @return the number of records allowed in a burst
+     */
+    public int getBurst() {
+        return burst;
+    }
+
+    /**
+     * Sets the number of records allowed in a burst, which is the size of each token bucket.
+     *
+     * @param burst the number of records allowed in a burst
+     */
+    public void setBurst(final int burst) {
+        if (burst < 1) {
+            throw new IllegalArgumentException(String.format("The burst must be at least 1 (%d)", burst));
+        }
+        this.burst = burst;
+        updateTolerance();
+    }
+
+    /**
+     * Returns the number of records allowed per second on average.
+     *
+     * @return the number of records allowed per second
+     */
+    public double getRate() {
+        return rate;
+    }
+
+    /**
+     * Sets the number of records allowed per second on average, which is the rate the token buckets are refilled at.
+     *
+     * @param rate the number of records allowed per second
+     */
+    public void setRate(final double rate) {
+        if (!(rate > 0.0)) {
+            throw new IllegalArgumentException(String.format("The rate must be greater than 0 (%s)", rate));
+        }
+        this.rate = rate;
+        refillNanos = Math.max(1L, (long) (NANOS_PER_SECOND / rate));
+        updateTolerance();
+    }
+
+    private void updateTolerance() {
+        final long refillNanos = this.refillNanos;
+        final long tokens = burst - 1L;
+        // saturate rather than overflow for large bursts at low rates
+        tolerance = refillNanos == 0L || tokens <= Long.MAX_VALUE / refillNanos ? refillNanos * tokens : Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns the interval, in seconds, the number of dropped records is reported at.
+     *
+     * @return the report interval in seconds
+     */
+    public long getReportInterval() {
+        return reportInterval;
+    }
+
+    /**
+     * Sets the interval, in seconds, the number of dropped records is reported at. No reports are made if the interval
+     * is 0.
+     *
+     * @param reportInterval the report interval in seconds
+     */
+    public void setReportInterval(final long reportInterval) {
+        if (reportInterval < 0L) {
+            throw new IllegalArgumentException(
+                    String.format("The report interval must not be negative (%d)", reportInterval));
+        }
+        this.reportInterval = reportInterval;
+        reportIntervalNanos = reportInterval == 0L ? Long.MAX_VALUE : TimeUnit.SECONDS.toNanos(reportInterval);
+        nextReport.set(System.nanoTime() + reportIntervalNanos);
+    }
+
+    /**
+     * Returns the total number of records dropped by this filter.
+     *
+     * @return the number of dropped records
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    private AtomicLong getBucket(final LogRecord record) {
+        final Key key = new Key(record.getLoggerName(), record.getLevel(), record.getMessage());
+        AtomicLong bucket = buckets.get(key);
+        if (bucket == null) {
+            if (buckets.size() >= MAX_BUCKETS) {
+                evict();
+            }
+            // a new bucket is full
+            bucket = buckets.computeIfAbsent(key, k -> new AtomicLong(Long.MIN_VALUE));
+        }
+        return bucket;
+    }
+
+    /**
+     * Discards at least a quarter of the buckets, so that the cost of the eviction is spread over the groups added
+     * after it. The full buckets are discarded first, and then the ones which will be full again the soonest.
+     */
+    private void evict() {
+        synchronized (buckets) {
+            if (buckets.size() < MAX_BUCKETS) {
+                // another thread evicted already
+                return;
+            }
+            final long now = System.nanoTime();
+            // the time until each bucket is full, which is 0 for full buckets
+            final long[] remaining = new long[buckets.size()];
+            int count = 0;
+            for (AtomicLong bucket : buckets.values()) {
+                if (count == remaining.length) {
+                    break;
+                }
+                remaining[count++] = remaining(bucket, now);
+            }
+            Arrays.sort(remaining, 0, count);
+            final long cutoff = remaining[Math.min(count, MAX_BUCKETS) / 4];
+            buckets.values().removeIf(bucket -> remaining(bucket, now) <= cutoff);
+        }
+    }
+
+    private static long remaining(final AtomicLong bucket, final long now) {
+        final long full = bucket.get();
+        return full == Long.MIN_VALUE ? 0L : Math.max(0L, full - now);
+    }
+
+    /**
+     * Takes a token from the bucket. The bucket holds the time at which it will be full again, so that taking a token
+     * is a single compare and set (the generic cell rate algorithm).
+     */
+    private boolean tryAcquire(final AtomicLong bucket, final long now) {
+        final long refillNanos = this.refillNanos;
+        final long tolerance = this.tolerance;
+        for (;;) {
+            final long full = bucket.get();
+            final long start = full == Long.MIN_VALUE || full - now < 0L ? now : full;
+            if (start - now > tolerance) {
+                return false;
+            }
+            if (bucket.compareAndSet(full, start + refillNanos)) {
+                return true;
+            }
+        }
+    }
+
+    private void report() {
+        final long count = unreported.sumThenReset();
+        if (count == 0L) {
+            return;
+        }
+        reporting.set(Boolean.TRUE);
+        try {
+            final LogContext logContext = this.logContext == null ? LogContext.getLogContext() : this.logContext;
+            logContext.getLogger(REPORT_LOGGER_NAME).log(org.jboss.logmanager.Level.WARN,
+                    "Dropped {0} log record(s) which exceeded the rate limit of {1} per second", new Object[] { count, rate });
+        } finally {
+            reporting.remove();
+        }
+    }
+
+    private static final class Key {
+        private final String loggerName;
+        private final Level level;
+        private final String message;
+        private final int hashCode;
+
+        private Key(final String loggerName, final Level level, final String message) {
+            this.loggerName = loggerName;
+            this.level = level;
+            this.message = message;
+            hashCode = Objects.hash(loggerName, level, message);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof Key)) {
+                return false;
+            }
+            final Key other = (Key) obj;
+            return hashCode == other.hashCode && Objects.equals(loggerName, other.loggerName)
+                    && Objects.equals(level, other.level) && Objects.equals(message, other.message);
+        }
+    }
+}
@@ -19,19 +19,22 @@
 
 package org.jboss.logmanager.filters;
 
-import java.text.MessageFormat;
 import java.util.logging.Filter;
 import java.util.logging.LogRecord;
 import java.util.regex.Pattern;
 
-import org.jboss.logmanager.ExtLogRecord;
-
 /**
  * A regular-expression-based filter. Used to exclude log records which match or don't match the expression. The
- * regular expression is checked against the raw (unformatted) message.
+ * regular expression is checked against the formatted message.
+ * <p>
+ * Messages which don't need to be formatted are first checked for a literal which every match of the expression
+ * contains, and are rejected without running the expression if it's missing. The formatted message of an
+ * {@link org.jboss.logmanager.ExtLogRecord ExtLogRecord} is cached on the record, so it's shared with other filters
+ * and the formatter of the handler.
+ * </p>
  */
 public final class RegexFilter implements Filter {
-    private final Pattern pattern;
+    private final MessagePattern pattern;
 
     /**
      * Create a new instance.
@@ -39,7 +42,7 @@ public final class RegexFilter implements Filter {
      * @param pattern the pattern to match
      */
     public RegexFilter(final Pattern pattern) {
-        this.pattern = pattern;
+        this.pattern = new MessagePattern(pattern);
     }
 
     /**
@@ -59,12 +62,6 @@ public final class RegexFilter implements Filter {
      */
     @Override
     public boolean isLoggable(final LogRecord record) {
-        final String msg;
-        if (record instanceof ExtLogRecord) {
-            msg = ((ExtLogRecord) record).getFormattedMessage();
-        } else {
-            msg = MessageFormat.format(record.getMessage(), record.getParameters());
-        }
-        return pattern.matcher(String.valueOf(msg)).find();
+        return pattern.find(record);
     }
 }
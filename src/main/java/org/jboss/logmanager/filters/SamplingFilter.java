@@ -0,0 +1,171 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ *
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.logmanager.filters;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.logging.Filter;
+import java.util.logging.LogRecord;
+
+import org.jboss.logmanager.ExtLogRecord;
+import org.jboss.logmanager.MDC;
+
+/**
+ * A filter which logs a fraction of the log records.
+ * <p>
+ * If an {@linkplain #setKey(String) MDC key} is set, such as a trace id, the decision is made from the hash of the MDC
+ * value. All the records with the same value are either logged or not, so a sampled request keeps all its lines. The
+ * hash only depends on the string value, so processes sampling with the same rate make the same decision for the same
+ * value. Records without the MDC value, or all records if no key is set, are sampled randomly.
+ * </p>
+ * <p>
+ * The number of sampled and skipped records is counted.
+ * </p>
+ */
+public final class SamplingFilter implements Filter {
+    // the sampling range of the 32 bit hash or random value
+    private static final long RANGE = 1L << 32;
+
+    private final LongAdder sampled = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+
+    private volatile String key;
+    private volatile double rate;
+    // values below the threshold are sampled
+    private volatile long threshold;
+
+    /**
+     * Creates a new filter which samples all records, until the {@linkplain #setRate(double) rate} is set.
+     */
+    public SamplingFilter() {
+        this(1.0);
+    }
+
+    /**
+     * Creates a new filter which samples records randomly.
+     *
+     * @param rate the fraction of records to log, between 0 and 1
+     */
+    public SamplingFilter(final double rate) {
+        this(null, rate);
+    }
+
+    /**
+     * Creates a new filter which samples records by the value of an MDC key.
+     *
+     * @param key  the MDC key, or {@code null} to sample records randomly
+     * @param rate the fraction of records to log, between 0 and 1
+     */
+    public SamplingFilter(final String key, final double rate) {
+        this.key = key;
+        setRate(rate);
+    }
+
+    @Override
+    public boolean isLoggable(final LogRecord record) {
+        final String key = this.key;
+        final String value;
+        if (key == null) {
+            value = null;
+        } else if (record instanceof ExtLogRecord) {
+            value = ((ExtLogRecord) record).getMdc(key);
+        } else {
+            value = MDC.get(key);
+        }
+        final int hash = value == null ? ThreadLocalRandom.current().nextInt() : mix(value.hashCode());
+        if ((hash & 0xFFFFFFFFL) < threshold) {
+            sampled.increment();
+            return true;
+        }
+        skipped.increment();
+        return false;
+    }
+
+    /**
+     * Returns the MDC key records are sampled by.
+     *
+     * @return the MDC key or {@code null} if records are sampled randomly
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Sets the MDC key records are sampled by.
+     *
+     * @param key the MDC key, or {@code null} to sample records randomly
+     */
+    public void setKey(final String key) {
+        this.key = key;
+    }
+
+    /**
+     * Returns the fraction of records which are logged.
+     *
+     * @return the sampling rate
+     */
+    public double getRate() {
+        return rate;
+    }
+
+    /**
+     * Sets the fraction of records which are logged.
+     *
+     * @param rate the sampling rate, between 0 and 1
+     */
+    public void setRate(final double rate) {
+        if (!(rate >= 0.0 && rate <= 1.0)) {
+            throw new IllegalArgumentException(String.format("The rate must be between 0 and 1 (%s)", rate));
+        }
+        this.rate = rate;
+        threshold = (long) (rate * RANGE);
+    }
+
+    /**
+     * Returns the number of records which were logged.
+     *
+     * @return the number of sampled records
+     */
+    public long getSampledCount() {
+        return sampled.sum();
+    }
+
+    /**
+     * Returns the number of records which were not logged.
+     *
+     * @return the number of skipped records
+     */
+    public long getSkippedCount() {
+        return skipped.sum();
+    }
+
+    /**
+     * Spreads the bits of a string hash code, which are poorly distributed for similar strings (the finalizer of
+     * MurmurHash3).
+     */
+    private static int mix(int hash) {
+        hash ^= hash >>> 16;
+        hash *= 0x85ebca6b;
+        hash ^= hash >>> 13;
+        hash *= 0xc2b2ae35;
+        hash ^= hash >>> 16;
+        return hash;
+    }
+}
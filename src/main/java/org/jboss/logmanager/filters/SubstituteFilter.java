@@ -19,7 +19,6 @@
 
 package org.jboss.logmanager.filters;
 
-import java.text.MessageFormat;
 import java.util.logging.Filter;
 import java.util.logging.LogRecord;
 import java.util.regex.Matcher;
@@ -33,7 +32,7 @@ import org.jboss.logmanager.ExtLogRecord.FormatStyle;
  */
 public final class SubstituteFilter implements Filter {
 
-    private final Pattern pattern;
+    private final MessagePattern pattern;
     private final String replacement;
     private final boolean replaceAll;
 
@@ -45,7 +44,7 @@ public final class SubstituteFilter implements Filter {
      * @param replaceAll  {@code true} if all occurrences should be replaced; {@code false} if only the first occurrence
      */
     public SubstituteFilter(final Pattern pattern, final String replacement, final boolean replaceAll) {
-        this.pattern = pattern;
+        this.pattern = new MessagePattern(pattern);
         this.replacement = replacement;
         this.replaceAll = replaceAll;
     }
@@ -65,7 +64,8 @@ public final class SubstituteFilter implements Filter {
      * Apply the filter to the given log record.
      * <p/>
      * The {@link FormatStyle format style} will always be set to {@link FormatStyle#NO_FORMAT} as the formatted
-     * message will be the one used in the replacement.
+     * message will be the one used in the replacement. A record whose message does not need to be formatted, and
+     * which can't contain a match, is left unchanged.
      *
      * @param record the log record to inspect and modify
      *
@@ -73,13 +73,13 @@ public final class SubstituteFilter implements Filter {
      */
     @Override
     public boolean isLoggable(final LogRecord record) {
-        final String currentMsg;
-        if (record instanceof ExtLogRecord) {
-            currentMsg = ((ExtLogRecord) record).getFormattedMessage();
-        } else {
-            currentMsg = MessageFormat.format(record.getMessage(), record.getParameters());
+        final String unformattedMsg = MessagePattern.unformattedMessage(record);
+        if (unformattedMsg != null && !pattern.mayFind(unformattedMsg)) {
+            // nothing to replace, and the message is the same whether it's formatted or not
+            return true;
         }
-        final Matcher matcher = pattern.matcher(String.valueOf(currentMsg));
+        final String currentMsg = unformattedMsg != null ? unformattedMsg : MessagePattern.formattedMessage(record);
+        final Matcher matcher = pattern.getPattern().matcher(String.valueOf(currentMsg));
         final String msg;
         if (replaceAll) {
             msg = matcher.replaceAll(replacement);
@@ -0,0 +1,193 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ *
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.logmanager.filters;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.logging.Filter;
+import java.util.logging.LogRecord;
+
+/**
+ * A filter which accepts log records whose formatted message contains any of a set of literal strings.
+ * <p>
+ * All the strings are compiled into a single automaton (Aho-Corasick), so the message is scanned once, in time
+ * proportional to its length no matter how many strings there are. This is much faster than an {@link AnyFilter} of
+ * {@link RegexFilter}s when there are many strings. The automaton holds a transition for each state and each distinct
+ * character of the strings, so its size grows with the total length of the strings times the number of distinct
+ * characters.
+ * </p>
+ */
+public final class SubstringFilter implements Filter {
+    private final int classCount;
+    // the character class of each ASCII character, 0 for characters which are not part of any string
+    private final int[] asciiClasses;
+    // the other characters which are part of a string, sorted, and their classes
+    private final char[] otherChars;
+    private final int[] otherClasses;
+    // the next state for each state and character class
+    private final int[] transitions;
+    // whether a string ends in the state
+    private final boolean[] matches;
+
+    /**
+     * Create a new instance.
+     *
+     * @param strings the strings to look for, at least one is required
+     */
+    public SubstringFilter(final String... strings) {
+        this(Arrays.asList(strings));
+    }
+
+    /**
+     * Create a new instance.
+     *
+     * @param strings the strings to look for, at least one is required
+     */
+    public SubstringFilter(final Collection<String> strings) {
+        if (strings.isEmpty()) {
+            throw new IllegalArgumentException("At least one string is required");
+        }
+        // Assign a class to each distinct character
+        asciiClasses = new int[128];
+        final StringBuilder others = new StringBuilder();
+        int classCount = 1;
+        int totalLength = 0;
+        for (String string : strings) {
+            if (string == null) {
+                throw new NullPointerException("string is null");
+            }
+            totalLength += string.length();
+            for (int i = 0; i < string.length(); i++) {
+                final char c = string.charAt(i);
+                if (c < 128) {
+                    if (asciiClasses[c] == 0) {
+                        asciiClasses[c] = classCount++;
+                    }
+                } else if (others.indexOf(String.valueOf(c)) == -1) {
+                    others.append(c);
+                }
+            }
+        }
+        otherChars = others.toString().toCharArray();
+        Arrays.sort(otherChars);
+        otherClasses = new int[otherChars.length];
+        for (int i = 0; i < otherChars.length; i++) {
+            otherClasses[i] = classCount++;
+        }
+        this.classCount = classCount;
+
+        // Build the trie of the strings, -1 is a missing transition
+        final int[] transitions = new int[(totalLength + 1) * classCount];
+        Arrays.fill(transitions, -1);
+        final boolean[] matches = new boolean[totalLength + 1];
+        int stateCount = 1;
+        for (String string : strings) {
+            int state = 0;
+            for (int i = 0; i < string.length(); i++) {
+                final int index = state * classCount + classOf(string.charAt(i));
+                if (transitions[index] == -1) {
+                    transitions[index] = stateCount++;
+                }
+                state = transitions[index];
+            }
+            matches[state] = true;
+        }
+
+        // Turn the trie into an automaton, breadth first so the failure state of each state is done before it
+        final int[] failures = new int[stateCount];
+        final Deque<Integer> queue = new ArrayDeque<>();
+        for (int c = 0; c < classCount; c++) {
+            final int next = transitions[c];
+            if (next == -1) {
+                transitions[c] = 0;
+            } else {
+                failures[next] = 0;
+                queue.add(next);
+            }
+        }
+        while (!queue.isEmpty()) {
+            final int state = queue.remove();
+            final int failure = failures[state];
+            matches[state] |= matches[failure];
+            for (int c = 0; c < classCount; c++) {
+                final int index = state * classCount + c;
+                final int next = transitions[index];
+                final int fallback = transitions[failure * classCount + c];
+                if (next == -1) {
+                    transitions[index] = fallback;
+                } else {
+                    failures[next] = fallback;
+                    queue.add(next);
+                }
+            }
+        }
+        this.transitions = Arrays.copyOf(transitions, stateCount * classCount);
+        this.matches = Arrays.copyOf(matches, stateCount);
+    }
+
+    /**
+     * Determine if this log record is loggable.
+     *
+     * @param record the log record
+     * @return {@code true} if the formatted message contains any of the strings
+     */
+    @Override
+    public boolean isLoggable(final LogRecord record) {
+        String message = MessagePattern.unformattedMessage(record);
+        if (message == null) {
+            message = String.valueOf(MessagePattern.formattedMessage(record));
+        }
+        return find(message);
+    }
+
+    /**
+     * Checks whether the text contains any of the strings.
+     *
+     * @param text the text to check
+     *
+     * @return {@code true} if the text contains any of the strings
+     */
+    boolean find(final String text) {
+        if (matches[0]) {
+            // the empty string
+            return true;
+        }
+        final int[] transitions = this.transitions;
+        final int classCount = this.classCount;
+        int state = 0;
+        for (int i = 0; i < text.length(); i++) {
+            state = transitions[state * classCount + classOf(text.charAt(i))];
+            if (matches[state]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private int classOf(final char c) {
+        if (c < 128) {
+            return asciiClasses[c];
+        }
+        final int index = Arrays.binarySearch(otherChars, c);
+        return index < 0 ? 0 : otherClasses[index];
+    }
+}
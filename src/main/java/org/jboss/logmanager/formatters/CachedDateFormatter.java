@@ -0,0 +1,159 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ *
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.logmanager.formatters;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * A date formatter which keeps the text of the last formatted second. Records logged within the same second only have
+ * the fraction of the second, if any, patched into the cached text.
+ * <p>
+ * Patterns which print a sub-second field other than a single run of {@code S}, or which use optional sections or
+ * padding, can't be split and are always formatted in full.
+ * </p>
+ */
+final class CachedDateFormatter {
+    private static final int[] POWERS_OF_TEN = { 1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000,
+            100_000_000, 1_000_000_000 };
+
+    private final DateTimeFormatter formatter;
+    // formats the pattern up to the fraction of the second, or null if the fraction is not patched
+    private final DateTimeFormatter prefixFormatter;
+    private final int fractionDigits;
+    private final ZoneId zoneId;
+    private final boolean cacheable;
+    private volatile Entry entry;
+
+    /**
+     * Creates a new formatter.
+     *
+     * @param pattern the {@link DateTimeFormatter} pattern
+     * @param zoneId  the zone to format to
+     *
+     * @throws IllegalArgumentException if the pattern is invalid
+     */
+    CachedDateFormatter(final String pattern, final ZoneId zoneId) {
+        formatter = DateTimeFormatter.ofPattern(pattern);
+        this.zoneId = zoneId;
+        boolean cacheable = true;
+        boolean quoted = false;
+        int fractionStart = -1;
+        int fractionDigits = 0;
+        for (int i = 0; i < pattern.length() && cacheable; i++) {
+            final char c = pattern.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            } else if (quoted) {
+                continue;
+            } else if (c == 'S') {
+                if (fractionStart == -1) {
+                    fractionStart = i;
+                    while (i + 1 < pattern.length() && pattern.charAt(i + 1) == 'S') {
+                        i++;
+                    }
+                    fractionDigits = i + 1 - fractionStart;
+                } else {
+                    // more than one fraction of the second
+                    cacheable = false;
+                }
+            } else if (c == 'n' || c == 'N' || c == 'A' || c == 'p' || c == '[' || c == ']') {
+                cacheable = false;
+            }
+        }
+        this.cacheable = cacheable;
+        if (cacheable && fractionDigits > 0) {
+            prefixFormatter = DateTimeFormatter.ofPattern(pattern.substring(0, fractionStart));
+            this.fractionDigits = fractionDigits;
+        } else {
+            prefixFormatter = null;
+            this.fractionDigits = 0;
+        }
+    }
+
+    /**
+     * Formats the instant.
+     *
+     * @param instant the instant to format
+     * @param builder the builder to append to
+     */
+    void formatTo(final Instant instant, final StringBuilder builder) {
+        if (!cacheable) {
+            formatter.formatTo(instant.atZone(zoneId), builder);
+            return;
+        }
+        final long second = instant.getEpochSecond();
+        Entry entry = this.entry;
+        if (entry == null || entry.second != second) {
+            entry = createEntry(second);
+            if (entry == null) {
+                formatter.formatTo(instant.atZone(zoneId), builder);
+                return;
+            }
+            this.entry = entry;
+        }
+        final String text = entry.text;
+        if (prefixFormatter == null) {
+            builder.append(text);
+            return;
+        }
+        final int fractionStart = entry.fractionStart;
+        builder.append(text, 0, fractionStart);
+        // the fraction is truncated, not rounded, in the same way the formatter does it
+        final int fraction = instant.getNano() / POWERS_OF_TEN[9 - fractionDigits];
+        for (int i = fractionDigits - 1; i >= 0; i--) {
+            builder.append((char) ('0' + fraction / POWERS_OF_TEN[i] % 10));
+        }
+        builder.append(text, fractionStart + fractionDigits, text.length());
+    }
+
+    private Entry createEntry(final long second) {
+        final ZonedDateTime dateTime = Instant.ofEpochSecond(second).atZone(zoneId);
+        final String text = formatter.format(dateTime);
+        if (prefixFormatter == null) {
+            return new Entry(second, text, -1);
+        }
+        final int fractionStart = prefixFormatter.format(dateTime).length();
+        // make sure the fraction is where it is expected before caching the text
+        if (fractionStart + fractionDigits > text.length()) {
+            return null;
+        }
+        for (int i = fractionStart; i < fractionStart + fractionDigits; i++) {
+            if (text.charAt(i) != '0') {
+                return null;
+            }
+        }
+        return new Entry(second, text, fractionStart);
+    }
+
+    private static final class Entry {
+        private final long second;
+        private final String text;
+        private final int fractionStart;
+
+        private Entry(final long second, final String text, final int fractionStart) {
+            this.second = second;
+            this.text = text;
+            this.fractionStart = fractionStart;
+        }
+    }
+}
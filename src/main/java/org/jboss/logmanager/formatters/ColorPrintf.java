@@ -38,9 +38,9 @@ class ColorPrintf extends Printf {
         this.darken = darken;
     }
 
-    public StringBuilder formatDirect(final StringBuilder destination, final String format, final Object... params) {
+    protected StringBuilder formatDirect(final StringBuilder destination, final Plan plan, final Object... params) {
         ColorUtil.startFgColor(destination, trueColor, 0f, 0f, 1f, darken);
-        super.formatDirect(destination, format, params);
+        super.formatDirect(destination, plan, params);
         ColorUtil.endFgColor(destination);
         return destination;
     }
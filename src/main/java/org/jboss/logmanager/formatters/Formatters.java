@@ -27,7 +27,6 @@ import java.io.PrintWriter;
 import java.security.PrivilegedAction;
 import java.time.Duration;
 import java.time.Instant;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayDeque;
 import java.util.Collections;
 import java.util.Deque;
@@ -275,16 +274,59 @@ public final class Formatters {
         }
 
         public void renderRaw(Formatter formatter, final StringBuilder builder, final ExtLogRecord record) {
+            builder.append(applySegments(getSegmentedSubject(record)));
+        }
+
+        String applySegments(final String subject) {
             if (precision == null) {
-                builder.append(applySegments(count, getSegmentedSubject(record)));
+                return Formatters.applySegments(count, subject);
             } else {
-                builder.append(applySegments(precision, getSegmentedSubject(record)));
+                return Formatters.applySegments(precision, subject);
             }
         }
 
         public abstract String getSegmentedSubject(final ExtLogRecord record);
     }
 
+    /**
+     * A segmented step for the module name or version of the caller. These are resolved once per class, so every
+     * record from the same module carries the same string instance, and the last segmented result is reused as long
+     * as the subject is identical.
+     */
+    private abstract static class ModuleFormatStep extends SegmentedFormatStep {
+        private volatile SegmentedSubject last;
+
+        protected ModuleFormatStep(final boolean leftJustify, final int minimumWidth, final boolean truncateBeginning,
+                final int maximumWidth, final String precision) {
+            super(leftJustify, minimumWidth, truncateBeginning, maximumWidth, precision);
+        }
+
+        @Override
+        public void renderRaw(final Formatter formatter, final StringBuilder builder, final ExtLogRecord record) {
+            final String subject = getSegmentedSubject(record);
+            SegmentedSubject last = this.last;
+            if (last == null || last.subject != subject) {
+                this.last = last = new SegmentedSubject(subject, applySegments(subject));
+            }
+            builder.append(last.result);
+        }
+
+        @Override
+        public boolean isCallerInformationRequired() {
+            return true;
+        }
+    }
+
+    private static final class SegmentedSubject {
+        private final String subject;
+        private final String result;
+
+        private SegmentedSubject(final String subject, final String result) {
+            this.subject = subject;
+            this.result = result;
+        }
+    }
+
     /**
      * Create a format step which emits the logger name with the given justification rules.
      *
@@ -400,16 +442,11 @@ public final class Formatters {
      */
     public static FormatStep moduleNameFormatStep(final boolean leftJustify, final int minimumWidth,
             final boolean truncateBeginning, final int maximumWidth, final String precision) {
-        return new SegmentedFormatStep(leftJustify, minimumWidth, truncateBeginning, maximumWidth, precision) {
+        return new ModuleFormatStep(leftJustify, minimumWidth, truncateBeginning, maximumWidth, precision) {
             public String getSegmentedSubject(final ExtLogRecord record) {
                 return record.getSourceModuleName();
             }
 
-            @Override
-            public boolean isCallerInformationRequired() {
-                return true;
-            }
-
             public ItemType getItemType() {
                 return ItemType.SOURCE_MODULE_NAME;
             }
@@ -430,16 +467,11 @@ public final class Formatters {
      */
     public static FormatStep moduleVersionFormatStep(final boolean leftJustify, final int minimumWidth, final int maximumWidth,
             final String precision) {
-        return new SegmentedFormatStep(leftJustify, minimumWidth, DEFAULT_TRUNCATE_BEGINNING, maximumWidth, precision) {
+        return new ModuleFormatStep(leftJustify, minimumWidth, DEFAULT_TRUNCATE_BEGINNING, maximumWidth, precision) {
             public String getSegmentedSubject(final ExtLogRecord record) {
                 return record.getSourceModuleVersion();
             }
 
-            @Override
-            public boolean isCallerInformationRequired() {
-                return true;
-            }
-
             public ItemType getItemType() {
                 return ItemType.SOURCE_MODULE_VERSION;
             }
@@ -477,15 +509,15 @@ public final class Formatters {
             final int minimumWidth,
             final boolean truncateBeginning, final int maximumWidth) {
         return new JustifyingFormatStep(leftJustify, minimumWidth, truncateBeginning, maximumWidth) {
-            final DateTimeFormatter dtf = DateTimeFormatter
-                    .ofPattern(formatString == null ? "yyyy-MM-dd HH:mm:ss,SSS" : formatString);
+            final CachedDateFormatter dtf = new CachedDateFormatter(
+                    formatString == null ? "yyyy-MM-dd HH:mm:ss,SSS" : formatString, timeZone.toZoneId());
 
             public ItemType getItemType() {
                 return ItemType.DATE;
             }
 
             public void renderRaw(Formatter formatter, final StringBuilder builder, final ExtLogRecord record) {
-                dtf.formatTo(record.getInstant().atZone(timeZone.toZoneId()), builder);
+                dtf.formatTo(record.getInstant(), builder);
             }
         };
     }
@@ -1307,17 +1339,48 @@ public final class Formatters {
 
             public void renderRaw(Formatter formatter, final StringBuilder builder, final ExtLogRecord record) {
                 if (key == null) {
-                    builder.append(new TreeMap<>(record.getMdcCopy()));
+                    // Same output as TreeMap.toString(), without converting the values to strings first
+                    builder.append('{');
+                    boolean first = true;
+                    for (Map.Entry<String, Object> entry : new TreeMap<>(record.getMdcObjects()).entrySet()) {
+                        if (!first) {
+                            builder.append(", ");
+                        }
+                        first = false;
+                        builder.append(entry.getKey()).append('=');
+                        appendMdcValue(builder, entry.getValue());
+                    }
+                    builder.append('}');
                 } else {
-                    final String value = record.getMdc(key);
+                    final Object value = record.getMdcObject(key);
                     if (value != null) {
-                        builder.append(value);
+                        appendMdcValue(builder, value);
                     }
                 }
             }
         };
     }
 
+    /**
+     * Appends an MDC value. Primitive wrappers and character sequences are appended directly rather than being
+     * converted to a string first.
+     */
+    static void appendMdcValue(final StringBuilder builder, final Object value) {
+        if (value instanceof CharSequence) {
+            builder.append((CharSequence) value);
+        } else if (value instanceof Long) {
+            builder.append(((Long) value).longValue());
+        } else if (value instanceof Integer) {
+            builder.append(((Integer) value).intValue());
+        } else if (value instanceof Boolean) {
+            builder.append(((Boolean) value).booleanValue());
+        } else if (value instanceof Character) {
+            builder.append(((Character) value).charValue());
+        } else {
+            builder.append(value);
+        }
+    }
+
     public static FormatStep formatColor(final ColorMap colors, final String color) {
         return new FormatStep() {
             public void render(final StringBuilder builder, final ExtLogRecord record) {
@@ -41,6 +41,7 @@ import java.time.temporal.TemporalField;
 import java.time.temporal.TemporalQueries;
 import java.time.temporal.TemporalUnit;
 import java.time.temporal.ValueRange;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.Formattable;
@@ -49,11 +50,16 @@ import java.util.Formatter;
 import java.util.IllegalFormatConversionException;
 import java.util.IllegalFormatFlagsException;
 import java.util.IllegalFormatPrecisionException;
+import java.util.List;
 import java.util.Locale;
 import java.util.MissingFormatArgumentException;
 import java.util.Objects;
+import java.util.Queue;
 import java.util.TimeZone;
 import java.util.UnknownFormatConversionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
 
 import io.smallrye.common.constraint.Assert;
 
@@ -65,7 +71,14 @@ class Printf {
     private static final String someSpaces = "                                "; //32 spaces
     private static final String someZeroes = "00000000000000000000000000000000"; //32 zeros
 
+    private static final int MAX_CACHED_PLANS = 256;
+    private static final String TIME_CONVERSIONS = "AaBbhpCdeHIjkLlMmNQSsYyZzcDFRrT";
+    private static final Step[] NO_STEPS = new Step[0];
+
     private final Locale locale;
+    private final ConcurrentMap<String, CachedPlan> plans = new ConcurrentHashMap<>();
+    // The cached plans in the order they are scanned for eviction
+    private final Queue<CachedPlan> evictionQueue = new ConcurrentLinkedQueue<>();
     private volatile DateFormatSymbols dfs;
 
     public static final Printf DEFAULT = new Printf(Locale.getDefault(Locale.Category.FORMAT));
@@ -101,6 +114,21 @@ class Printf {
     }
 
     public StringBuilder formatDirect(StringBuilder destination, String format, Object... params) {
+        return formatDirect(destination, getPlan(format), params);
+    }
+
+    /**
+     * Parse the format string into a plan, which can then be rendered any number of times without parsing the
+     * format string again. The plan is immutable and may be rendered from multiple threads, it uses the conversions of
+     * this instance.
+     *
+     * @param format the format string
+     * @return the plan
+     * @throws java.util.IllegalFormatException if the format string is invalid
+     */
+    public Plan compile(String format) {
+        final List<Step> steps = new ArrayList<>();
+        final StringBuilder literal = new StringBuilder();
         int cp;
         int state = ST_INITIAL;
         GeneralFlags genFlags = GeneralFlags.NONE;
@@ -111,7 +139,7 @@ class Printf {
         int lastArgIdx = -1;
         int crs = 0; // current argument cursor
         int start = -1; // for diagnostics
-        Object argVal = null; // argument value
+        int convCp = 0; // the conversion, while parsing a time conversion
         for (int i = 0; i < format.length(); i = format.offsetByCodePoints(i, 1)) {
             cp = format.codePointAt(i);
             if (state == ST_INITIAL) {
@@ -126,7 +154,7 @@ class Printf {
                     argIdx = -1;
                     continue;
                 } else {
-                    destination.appendCodePoint(cp);
+                    literal.appendCodePoint(cp);
                     continue;
                 }
             } else if (state == ST_PCT || state == ST_DOLLAR) {
@@ -193,214 +221,12 @@ class Printf {
                 genFlags.forbid(GeneralFlag.ALTERNATE);
                 if (precision != -1)
                     throw precisionException(precision);
-                if (argVal == null) {
-                    formatPlainString(destination, null, genFlags, width, -1);
-                    continue;
-                }
-                TemporalAccessor ta;
-                if (argVal instanceof Long) {
-                    ta = ZonedDateTime.ofInstant(Instant.ofEpochMilli(((Long) argVal).longValue()), ZoneId.systemDefault());
-                } else if (argVal instanceof Date) {
-                    ta = ZonedDateTime.ofInstant(Instant.ofEpochMilli(((Date) argVal).getTime()), ZoneId.systemDefault());
-                } else if (argVal instanceof Calendar) {
-                    final Calendar calendar = (Calendar) argVal;
-                    final TimeZone timeZone = calendar.getTimeZone();
-                    ZoneId zoneId = timeZone == null ? ZoneId.systemDefault() : timeZone.toZoneId();
-                    ta = ZonedDateTime.ofInstant(calendar.toInstant(), zoneId);
-                } else if (argVal instanceof TemporalAccessor) {
-                    ta = (TemporalAccessor) argVal;
-                } else {
-                    throw new IllegalFormatConversionException((char) cp, argVal.getClass());
-                }
-                switch (cp) {
-                    // locale-based names
-                    case 'A': {
-                        formatTimeTextField(destination, ta, ChronoField.DAY_OF_WEEK, getDateFormatSymbols().getWeekdays(),
-                                genFlags, width);
-                        break;
-                    }
-                    case 'a': {
-                        formatTimeTextField(destination, ta, ChronoField.DAY_OF_WEEK, getDateFormatSymbols().getShortWeekdays(),
-                                genFlags, width);
-                        break;
-                    }
-                    case 'B': {
-                        formatTimeTextField(destination, ta, ChronoField.MONTH_OF_YEAR, getDateFormatSymbols().getMonths(),
-                                genFlags, width);
-                        break;
-                    }
-                    case 'h': // synonym for 'b'
-                    case 'b': {
-                        formatTimeTextField(destination, ta, ChronoField.MONTH_OF_YEAR, getDateFormatSymbols().getShortMonths(),
-                                genFlags, width);
-                        break;
-                    }
-                    case 'p': {
-                        formatTimeTextField(destination, ta, ChronoField.AMPM_OF_DAY, getDateFormatSymbols().getAmPmStrings(),
-                                genFlags, width);
-                        break;
-                    }
-
-                    // chrono fields
-                    case 'C': {
-                        formatTimeField(destination, ta, CENTURY_OF_YEAR, genFlags, width, 2);
-                        break;
-                    }
-                    case 'd': {
-                        formatTimeField(destination, ta, ChronoField.DAY_OF_MONTH, genFlags, width, 2);
-                        break;
-                    }
-                    case 'e': {
-                        formatTimeField(destination, ta, ChronoField.DAY_OF_MONTH, genFlags, width, 1);
-                        break;
-                    }
-                    case 'H': {
-                        formatTimeField(destination, ta, ChronoField.HOUR_OF_DAY, genFlags, width, 2);
-                        break;
-                    }
-                    case 'I': {
-                        formatTimeField(destination, ta, ChronoField.CLOCK_HOUR_OF_AMPM, genFlags, width, 2);
-                        break;
-                    }
-                    case 'j': {
-                        formatTimeField(destination, ta, ChronoField.DAY_OF_YEAR, genFlags, width, 3);
-                        break;
-                    }
-                    case 'k': {
-                        formatTimeField(destination, ta, ChronoField.HOUR_OF_DAY, genFlags, width, 1);
-                        break;
-                    }
-                    case 'L': {
-                        formatTimeField(destination, ta, ChronoField.MILLI_OF_SECOND, genFlags, width, 3);
-                        break;
-                    }
-                    case 'l': {
-                        formatTimeField(destination, ta, ChronoField.CLOCK_HOUR_OF_AMPM, genFlags, width, 1);
-                        break;
-                    }
-                    case 'M': {
-                        formatTimeField(destination, ta, ChronoField.MINUTE_OF_HOUR, genFlags, width, 2);
-                        break;
-                    }
-                    case 'm': {
-                        formatTimeField(destination, ta, ChronoField.MONTH_OF_YEAR, genFlags, width, 2);
-                        break;
-                    }
-                    case 'N': {
-                        formatTimeField(destination, ta, ChronoField.NANO_OF_SECOND, genFlags, width, 9);
-                        break;
-                    }
-                    case 'Q': {
-                        formatTimeField(destination, ta, MILLIS_OF_INSTANT, genFlags, width, 1);
-                        break;
-                    }
-                    case 'S': {
-                        formatTimeField(destination, ta, ChronoField.SECOND_OF_MINUTE, genFlags, width, 2);
-                        break;
-                    }
-                    case 's': {
-                        formatTimeField(destination, ta, ChronoField.INSTANT_SECONDS, genFlags, width, 2);
-                        break;
-                    }
-                    case 'Y': {
-                        formatTimeField(destination, ta, ChronoField.YEAR_OF_ERA, genFlags, width, 4);
-                        break;
-                    }
-                    case 'y': {
-                        formatTimeField(destination, ta, YEAR_OF_CENTURY, genFlags, width, 2);
-                        break;
-                    }
-
-                    // zone strings
-                    case 'Z': {
-                        formatTimeZoneId(destination, ta, genFlags, width);
-                        break;
-                    }
-                    case 'z': {
-                        formatTimeZoneOffset(destination, ta, genFlags, width);
-                        break;
-                    }
-
-                    // compositions
-                    case 'c': {
-                        final StringBuilder b = new StringBuilder();
-                        formatTimeTextField(b, ta, ChronoField.DAY_OF_WEEK, getDateFormatSymbols().getShortWeekdays(), genFlags,
-                                -1);
-                        b.append(' ');
-                        formatTimeTextField(b, ta, ChronoField.MONTH_OF_YEAR, getDateFormatSymbols().getShortMonths(), genFlags,
-                                -1);
-                        b.append(' ');
-                        formatTimeField(b, ta, ChronoField.DAY_OF_MONTH, genFlags, -1, 2);
-                        b.append(' ');
-                        formatTimeField(b, ta, ChronoField.HOUR_OF_DAY, genFlags, -1, 2);
-                        b.append(':');
-                        formatTimeField(b, ta, ChronoField.MINUTE_OF_HOUR, genFlags, -1, 2);
-                        b.append(':');
-                        formatTimeField(b, ta, ChronoField.SECOND_OF_MINUTE, genFlags, -1, 2);
-                        b.append(' ');
-                        formatTimeZoneId(b, ta, genFlags.with(GeneralFlag.UPPERCASE), width);
-                        b.append(' ');
-                        formatTimeField(b, ta, ChronoField.YEAR_OF_ERA, genFlags, -1, 4);
-                        appendStr(destination, genFlags, width, -1, b.toString());
-                        break;
-                    }
-                    case 'D': {
-                        final StringBuilder b = new StringBuilder();
-                        formatTimeField(b, ta, ChronoField.MONTH_OF_YEAR, genFlags, -1, 2);
-                        b.append('/');
-                        formatTimeField(b, ta, ChronoField.DAY_OF_MONTH, genFlags, -1, 2);
-                        b.append('/');
-                        formatTimeField(b, ta, YEAR_OF_CENTURY, genFlags, -1, 2);
-                        appendStr(destination, genFlags, width, -1, b.toString());
-                        break;
-                    }
-                    case 'F': {
-                        final StringBuilder b = new StringBuilder();
-                        formatTimeField(b, ta, ChronoField.YEAR_OF_ERA, genFlags, -1, 4);
-                        b.append('-');
-                        formatTimeField(b, ta, ChronoField.MONTH_OF_YEAR, genFlags, -1, 2);
-                        b.append('-');
-                        formatTimeField(b, ta, ChronoField.DAY_OF_MONTH, genFlags, -1, 2);
-                        appendStr(destination, genFlags, width, -1, b.toString());
-                        break;
-                    }
-                    case 'R': {
-                        final StringBuilder b = new StringBuilder();
-                        formatTimeField(b, ta, ChronoField.HOUR_OF_DAY, genFlags, -1, 2);
-                        b.append(':');
-                        formatTimeField(b, ta, ChronoField.MINUTE_OF_HOUR, genFlags, -1, 2);
-                        b.append(':');
-                        formatTimeField(b, ta, ChronoField.SECOND_OF_MINUTE, genFlags, -1, 2);
-                        appendStr(destination, genFlags, width, -1, b.toString());
-                        break;
-                    }
-                    case 'r': {
-                        final StringBuilder b = new StringBuilder();
-                        formatTimeField(b, ta, ChronoField.HOUR_OF_DAY, genFlags, -1, 2);
-                        b.append(':');
-                        formatTimeField(b, ta, ChronoField.MINUTE_OF_HOUR, genFlags, -1, 2);
-                        b.append(':');
-                        formatTimeField(b, ta, ChronoField.SECOND_OF_MINUTE, genFlags, -1, 2);
-                        b.append(' ');
-                        formatTimeTextField(b, ta, ChronoField.AMPM_OF_DAY, getDateFormatSymbols().getAmPmStrings(),
-                                genFlags.with(GeneralFlag.UPPERCASE), width);
-                        appendStr(destination, genFlags, width, -1, b.toString());
-                        break;
-                    }
-                    case 'T': {
-                        final StringBuilder b = new StringBuilder();
-                        formatTimeField(b, ta, ChronoField.HOUR_OF_DAY, genFlags, -1, 2);
-                        b.append(':');
-                        formatTimeField(b, ta, ChronoField.MINUTE_OF_HOUR, genFlags, -1, 2);
-                        b.append(':');
-                        formatTimeField(b, ta, ChronoField.SECOND_OF_MINUTE, genFlags, -1, 2);
-                        appendStr(destination, genFlags, width, -1, b.toString());
-                        break;
-                    }
-                    default: {
-                        throw unknownFormat(format, i);
-                    }
+                if (cp > 'z' || TIME_CONVERSIONS.indexOf(cp) == -1) {
+                    throw unknownFormat(format, i);
                 }
+                addLiteral(steps, literal);
+                steps.add(new Conversion(convCp, cp, genFlags, numFlags, width, precision, argIdx,
+                        format.substring(start, format.offsetByCodePoints(i, 1))));
                 state = ST_INITIAL;
                 continue;
             } else if (state == ST_WIDTH) {
@@ -451,30 +277,17 @@ class Printf {
                 throw unknownFormat(format, i);
             }
             // basic format specifiers
-            if (cp != 'n' && cp != '%') {
-                // capture argument
-                if (argIdx != -1) {
-                    if (argIdx - 1 >= params.length) {
-                        throw new MissingFormatArgumentException(
-                                format.substring(start, cp == 't' || cp == 'T' ? i + 2 : i + 1));
-                    }
-                    argVal = params[argIdx - 1];
-                } else {
-                    if (crs >= params.length) {
-                        throw new MissingFormatArgumentException(
-                                format.substring(start, cp == 't' || cp == 'T' ? i + 2 : i + 1));
-                    }
-                    argVal = params[crs++];
-                    argIdx = crs; // crs is 0-based, argIdx & lastArgIdx are 1-based
-                }
+            if (cp != 'n' && cp != '%' && argIdx == -1) {
+                // select the next argument
+                argIdx = ++crs; // crs is 0-based, argIdx & lastArgIdx are 1-based
             }
+            // check the flags, the argument dependent checks are made when the conversion is rendered
             switch (cp) {
                 case '%': {
                     genFlags.forbidAllBut(GeneralFlag.LEFT_JUSTIFY); // but it's ignored anyway
                     numFlags.forbidAll();
                     if (precision != -1 || state == ST_PREC)
                         throw precisionException(precision);
-                    formatPercent(destination);
                     break;
                 }
                 case 'A':
@@ -488,9 +301,6 @@ class Printf {
                     genFlags.forbid(GeneralFlag.ALTERNATE);
                     if (Character.isUpperCase(cp))
                         genFlags = genFlags.with(GeneralFlag.UPPERCASE);
-                    if (argVal != null && !(argVal instanceof Boolean))
-                        throw new IllegalFormatConversionException((char) cp, argVal.getClass());
-                    formatBoolean(destination, checkType(cp, argVal, Boolean.class), genFlags, width, precision);
                     break;
                 }
                 case 'C':
@@ -501,89 +311,49 @@ class Printf {
                         genFlags = genFlags.with(GeneralFlag.UPPERCASE);
                     if (precision != -1 || state == ST_PREC)
                         throw precisionException(precision);
-                    int cpa;
-                    if (argVal == null) {
-                        appendStr(destination, genFlags, width, precision, "null");
-                        break;
-                    } else if (argVal instanceof Character) {
-                        cpa = ((Character) argVal).charValue();
-                    } else if (argVal instanceof Integer) {
-                        cpa = ((Integer) argVal).intValue();
-                    } else {
-                        throw new IllegalFormatConversionException((char) cp, argVal.getClass());
-                    }
-                    formatCharacter(destination, cpa, genFlags, width, precision);
                     break;
                 }
                 case 'd': {
                     genFlags.forbid(GeneralFlag.ALTERNATE);
                     if (precision != -1 || state == ST_PREC)
                         throw precisionException(precision);
-                    formatDecimalInteger(destination, checkType(cp, argVal, Number.class, Byte.class, Short.class,
-                            Integer.class, Long.class, BigInteger.class), genFlags, numFlags, width);
                     break;
                 }
                 case 'E':
                 case 'e':
                 case 'f':
                 case 'G':
-                case 'g': {
+                case 'g':
+                case 'S':
+                case 's': {
+                    if (cp == 's' || cp == 'S')
+                        numFlags.forbidAll();
                     if (Character.isUpperCase(cp))
                         genFlags = genFlags.with(GeneralFlag.UPPERCASE);
-                    if (argVal != null && !(argVal instanceof Float) && !(argVal instanceof Double)
-                            && !(argVal instanceof BigDecimal)) {
-                        throw new IllegalFormatConversionException((char) cp, argVal.getClass());
-                    }
-                    Number item = checkType(cp, argVal, Number.class, Float.class, Double.class, BigDecimal.class);
-                    if (cp == 'e' || cp == 'E') {
-                        formatFloatingPointSci(destination, item, genFlags, numFlags, width, precision);
-                        break;
-                    } else if (cp == 'f') {
-                        formatFloatingPointDecimal(destination, item, genFlags, numFlags, width, precision);
-                        break;
-                    } else {
-                        assert cp == 'g' || cp == 'G';
-                        formatFloatingPointGeneral(destination, item, genFlags, numFlags, width, precision);
-                        break;
-                    }
+                    break;
                 }
                 case 'H':
                 case 'h': {
                     genFlags.forbid(GeneralFlag.ALTERNATE);
                     numFlags.forbidAll();
-                    formatHashCode(destination, argVal, genFlags, width, precision);
                     break;
                 }
                 case 'n': {
                     numFlags.forbidAll();
                     genFlags.forbidAll();
-                    formatLineSeparator(destination);
                     break;
                 }
                 case 'o': {
                     numFlags.forbidAllBut(NumericFlag.ZERO_PAD);
                     if (precision != -1 || state == ST_PREC)
                         throw precisionException(precision);
-                    formatOctalInteger(destination, checkType(cp, argVal, Number.class, Byte.class, Short.class, Integer.class,
-                            Long.class, BigInteger.class), genFlags, numFlags, width);
-                    break;
-                }
-                case 's':
-                case 'S': {
-                    numFlags.forbidAll();
-                    if (Character.isUpperCase(cp))
-                        genFlags = genFlags.with(GeneralFlag.UPPERCASE);
-                    if (argVal instanceof Formattable) {
-                        formatFormattableString(destination, (Formattable) argVal, genFlags, width, precision);
-                    } else {
-                        formatPlainString(destination, argVal, genFlags, width, precision);
-                    }
                     break;
                 }
                 case 'T':
                 case 't': {
                     if (Character.isUpperCase(cp))
                         genFlags = genFlags.with(GeneralFlag.UPPERCASE);
+                    convCp = cp;
                     state = ST_TIME;
                     continue;
                 }
@@ -594,20 +364,408 @@ class Printf {
                         genFlags = genFlags.with(GeneralFlag.UPPERCASE);
                     if (precision != -1 || state == ST_PREC)
                         throw precisionException(precision);
-                    formatHexInteger(destination, checkType(cp, argVal, Number.class, Byte.class, Short.class, Integer.class,
-                            Long.class, BigInteger.class), genFlags, numFlags, width);
                     break;
                 }
                 default: {
                     throw unknownFormat(format, i);
                 }
             }
+            addLiteral(steps, literal);
+            // the line separator and percent conversions take no argument, even if one was selected
+            final int convArgIdx = cp == 'n' || cp == '%' ? -1 : argIdx;
+            steps.add(new Conversion(cp, 0, genFlags, numFlags, width, precision, convArgIdx,
+                    format.substring(start, format.offsetByCodePoints(i, 1))));
             state = ST_INITIAL;
             //continue;
         }
+        addLiteral(steps, literal);
+        return new Plan(this, format, steps.toArray(NO_STEPS));
+    }
+
+    /**
+     * Render a plan compiled by this instance.
+     *
+     * @param destination the builder to append to
+     * @param plan        the plan
+     * @param params      the parameters
+     * @return the destination
+     */
+    protected StringBuilder formatDirect(StringBuilder destination, Plan plan, Object... params) {
+        for (Step step : plan.steps) {
+            step.render(this, destination, params);
+        }
         return destination;
     }
 
+    Plan getPlan(final String format) {
+        CachedPlan cached = plans.get(format);
+        if (cached != null) {
+            // Only write the flag when it was cleared, so that hits do not keep writing to shared memory
+            if (!cached.used) {
+                cached.used = true;
+            }
+            return cached.plan;
+        }
+        final Plan plan = compile(format);
+        cached = new CachedPlan(plan);
+        if (plans.putIfAbsent(format, cached) == null) {
+            evictionQueue.offer(cached);
+            while (plans.size() > MAX_CACHED_PLANS && evictPlan()) {
+                // keep evicting until the cache is back to its size
+            }
+        }
+        return plan;
+    }
+
+    /**
+     * Evicts one plan from the cache. Plans which were used since they were last scanned get a second chance and are
+     * moved to the end of the queue.
+     *
+     * @return {@code true} if a plan was evicted
+     */
+    private boolean evictPlan() {
+        CachedPlan cached;
+        // Bound the scan in case other threads keep using the plans
+        int secondChances = MAX_CACHED_PLANS;
+        while ((cached = evictionQueue.poll()) != null) {
+            if (cached.used && secondChances-- > 0) {
+                cached.used = false;
+                evictionQueue.offer(cached);
+            } else {
+                plans.remove(cached.plan.format, cached);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static void addLiteral(final List<Step> steps, final StringBuilder literal) {
+        if (literal.length() > 0) {
+            steps.add(new Literal(literal.toString()));
+            literal.setLength(0);
+        }
+    }
+
+    private void formatConversion(final StringBuilder destination, final Conversion conversion, final Object[] params) {
+        final int cp = conversion.cp;
+        final GeneralFlags genFlags = conversion.genFlags;
+        final NumericFlags numFlags = conversion.numFlags;
+        final int width = conversion.width;
+        final int precision = conversion.precision;
+        Object argVal = null; // argument value
+        if (conversion.argIdx != -1) {
+            if (conversion.argIdx - 1 >= params.length) {
+                throw new MissingFormatArgumentException(conversion.spec);
+            }
+            argVal = params[conversion.argIdx - 1];
+        }
+        switch (cp) {
+            case '%': {
+                formatPercent(destination);
+                break;
+            }
+            case 'B':
+            case 'b': {
+                if (argVal != null && !(argVal instanceof Boolean))
+                    throw new IllegalFormatConversionException((char) cp, argVal.getClass());
+                formatBoolean(destination, checkType(cp, argVal, Boolean.class), genFlags, width, precision);
+                break;
+            }
+            case 'C':
+            case 'c': {
+                int cpa;
+                if (argVal == null) {
+                    appendStr(destination, genFlags, width, precision, "null");
+                    break;
+                } else if (argVal instanceof Character) {
+                    cpa = ((Character) argVal).charValue();
+                } else if (argVal instanceof Integer) {
+                    cpa = ((Integer) argVal).intValue();
+                } else {
+                    throw new IllegalFormatConversionException((char) cp, argVal.getClass());
+                }
+                formatCharacter(destination, cpa, genFlags, width, precision);
+                break;
+            }
+            case 'd': {
+                formatDecimalInteger(destination, checkType(cp, argVal, Number.class, Byte.class, Short.class, Integer.class,
+                        Long.class, BigInteger.class), genFlags, numFlags, width);
+                break;
+            }
+            case 'E':
+            case 'e':
+            case 'f':
+            case 'G':
+            case 'g': {
+                if (argVal != null && !(argVal instanceof Float) && !(argVal instanceof Double)
+                        && !(argVal instanceof BigDecimal)) {
+                    throw new IllegalFormatConversionException((char) cp, argVal.getClass());
+                }
+                Number item = checkType(cp, argVal, Number.class, Float.class, Double.class, BigDecimal.class);
+                if (cp == 'e' || cp == 'E') {
+                    formatFloatingPointSci(destination, item, genFlags, numFlags, width, precision);
+                    break;
+                } else if (cp == 'f') {
+                    formatFloatingPointDecimal(destination, item, genFlags, numFlags, width, precision);
+                    break;
+                } else {
+                    assert cp == 'g' || cp == 'G';
+                    formatFloatingPointGeneral(destination, item, genFlags, numFlags, width, precision);
+                    break;
+                }
+            }
+            case 'H':
+            case 'h': {
+                formatHashCode(destination, argVal, genFlags, width, precision);
+                break;
+            }
+            case 'n': {
+                formatLineSeparator(destination);
+                break;
+            }
+            case 'o': {
+                formatOctalInteger(destination, checkType(cp, argVal, Number.class, Byte.class, Short.class, Integer.class,
+                        Long.class, BigInteger.class), genFlags, numFlags, width);
+                break;
+            }
+            case 's':
+            case 'S': {
+                if (argVal instanceof Formattable) {
+                    formatFormattableString(destination, (Formattable) argVal, genFlags, width, precision);
+                } else {
+                    formatPlainString(destination, argVal, genFlags, width, precision);
+                }
+                break;
+            }
+            case 'T':
+            case 't': {
+                if (argVal == null) {
+                    formatPlainString(destination, null, genFlags, width, -1);
+                    break;
+                }
+                formatTime(destination, conversion.timeCp, argVal, genFlags, width);
+                break;
+            }
+            case 'X':
+            case 'x': {
+                formatHexInteger(destination, checkType(cp, argVal, Number.class, Byte.class, Short.class, Integer.class,
+                        Long.class, BigInteger.class), genFlags, numFlags, width);
+                break;
+            }
+            default: {
+                throw Assert.impossibleSwitchCase(cp);
+            }
+        }
+    }
+
+    private void formatTime(final StringBuilder destination, final int cp, final Object argVal,
+            final GeneralFlags genFlags, final int width) {
+        TemporalAccessor ta;
+        if (argVal instanceof Long) {
+            ta = ZonedDateTime.ofInstant(Instant.ofEpochMilli(((Long) argVal).longValue()), ZoneId.systemDefault());
+        } else if (argVal instanceof Date) {
+            ta = ZonedDateTime.ofInstant(Instant.ofEpochMilli(((Date) argVal).getTime()), ZoneId.systemDefault());
+        } else if (argVal instanceof Calendar) {
+            final Calendar calendar = (Calendar) argVal;
+            final TimeZone timeZone = calendar.getTimeZone();
+            ZoneId zoneId = timeZone == null ? ZoneId.systemDefault() : timeZone.toZoneId();
+            ta = ZonedDateTime.ofInstant(calendar.toInstant(), zoneId);
+        } else if (argVal instanceof TemporalAccessor) {
+            ta = (TemporalAccessor) argVal;
+        } else {
+            throw new IllegalFormatConversionException((char) cp, argVal.getClass());
+        }
+        switch (cp) {
+            // locale-based names
+            case 'A': {
+                formatTimeTextField(destination, ta, ChronoField.DAY_OF_WEEK, getDateFormatSymbols().getWeekdays(),
+                        genFlags, width);
+                break;
+            }
+            case 'a': {
+                formatTimeTextField(destination, ta, ChronoField.DAY_OF_WEEK, getDateFormatSymbols().getShortWeekdays(),
+                        genFlags, width);
+                break;
+            }
+            case 'B': {
+                formatTimeTextField(destination, ta, ChronoField.MONTH_OF_YEAR, getDateFormatSymbols().getMonths(),
+                        genFlags, width);
+                break;
+            }
+            case 'h': // synonym for 'b'
+            case 'b': {
+                formatTimeTextField(destination, ta, ChronoField.MONTH_OF_YEAR, getDateFormatSymbols().getShortMonths(),
+                        genFlags, width);
+                break;
+            }
+            case 'p': {
+                formatTimeTextField(destination, ta, ChronoField.AMPM_OF_DAY, getDateFormatSymbols().getAmPmStrings(),
+                        genFlags, width);
+                break;
+            }
+
+            // chrono fields
+            case 'C': {
+                formatTimeField(destination, ta, CENTURY_OF_YEAR, genFlags, width, 2);
+                break;
+            }
+            case 'd': {
+                formatTimeField(destination, ta, ChronoField.DAY_OF_MONTH, genFlags, width, 2);
+                break;
+            }
+            case 'e': {
+                formatTimeField(destination, ta, ChronoField.DAY_OF_MONTH, genFlags, width, 1);
+                break;
+            }
+            case 'H': {
+                formatTimeField(destination, ta, ChronoField.HOUR_OF_DAY, genFlags, width, 2);
+                break;
+            }
+            case 'I': {
+                formatTimeField(destination, ta, ChronoField.CLOCK_HOUR_OF_AMPM, genFlags, width, 2);
+                break;
+            }
+            case 'j': {
+                formatTimeField(destination, ta, ChronoField.DAY_OF_YEAR, genFlags, width, 3);
+                break;
+            }
+            case 'k': {
+                formatTimeField(destination, ta, ChronoField.HOUR_OF_DAY, genFlags, width, 1);
+                break;
+            }
+            case 'L': {
+                formatTimeField(destination, ta, ChronoField.MILLI_OF_SECOND, genFlags, width, 3);
+                break;
+            }
+            case 'l': {
+                formatTimeField(destination, ta, ChronoField.CLOCK_HOUR_OF_AMPM, genFlags, width, 1);
+                break;
+            }
+            case 'M': {
+                formatTimeField(destination, ta, ChronoField.MINUTE_OF_HOUR, genFlags, width, 2);
+                break;
+            }
+            case 'm': {
+                formatTimeField(destination, ta, ChronoField.MONTH_OF_YEAR, genFlags, width, 2);
+                break;
+            }
+            case 'N': {
+                formatTimeField(destination, ta, ChronoField.NANO_OF_SECOND, genFlags, width, 9);
+                break;
+            }
+            case 'Q': {
+                formatTimeField(destination, ta, MILLIS_OF_INSTANT, genFlags, width, 1);
+                break;
+            }
+            case 'S': {
+                formatTimeField(destination, ta, ChronoField.SECOND_OF_MINUTE, genFlags, width, 2);
+                break;
+            }
+            case 's': {
+                formatTimeField(destination, ta, ChronoField.INSTANT_SECONDS, genFlags, width, 2);
+                break;
+            }
+            case 'Y': {
+                formatTimeField(destination, ta, ChronoField.YEAR_OF_ERA, genFlags, width, 4);
+                break;
+            }
+            case 'y': {
+                formatTimeField(destination, ta, YEAR_OF_CENTURY, genFlags, width, 2);
+                break;
+            }
+
+            // zone strings
+            case 'Z': {
+                formatTimeZoneId(destination, ta, genFlags, width);
+                break;
+            }
+            case 'z': {
+                formatTimeZoneOffset(destination, ta, genFlags, width);
+                break;
+            }
+
+            // compositions
+            case 'c': {
+                final StringBuilder b = new StringBuilder();
+                formatTimeTextField(b, ta, ChronoField.DAY_OF_WEEK, getDateFormatSymbols().getShortWeekdays(), genFlags,
+                        -1);
+                b.append(' ');
+                formatTimeTextField(b, ta, ChronoField.MONTH_OF_YEAR, getDateFormatSymbols().getShortMonths(), genFlags,
+                        -1);
+                b.append(' ');
+                formatTimeField(b, ta, ChronoField.DAY_OF_MONTH, genFlags, -1, 2);
+                b.append(' ');
+                formatTimeField(b, ta, ChronoField.HOUR_OF_DAY, genFlags, -1, 2);
+                b.append(':');
+                formatTimeField(b, ta, ChronoField.MINUTE_OF_HOUR, genFlags, -1, 2);
+                b.append(':');
+                formatTimeField(b, ta, ChronoField.SECOND_OF_MINUTE, genFlags, -1, 2);
+                b.append(' ');
+                formatTimeZoneId(b, ta, genFlags.with(GeneralFlag.UPPERCASE), width);
+                b.append(' ');
+                formatTimeField(b, ta, ChronoField.YEAR_OF_ERA, genFlags, -1, 4);
+                appendStr(destination, genFlags, width, -1, b.toString());
+                break;
+            }
+            case 'D': {
+                final StringBuilder b = new StringBuilder();
+                formatTimeField(b, ta, ChronoField.MONTH_OF_YEAR, genFlags, -1, 2);
+                b.append('/');
+                formatTimeField(b, ta, ChronoField.DAY_OF_MONTH, genFlags, -1, 2);
+                b.append('/');
+                formatTimeField(b, ta, YEAR_OF_CENTURY, genFlags, -1, 2);
+                appendStr(destination, genFlags, width, -1, b.toString());
+                break;
+            }
+            case 'F': {
+                final StringBuilder b = new StringBuilder();
+                formatTimeField(b, ta, ChronoField.YEAR_OF_ERA, genFlags, -1, 4);
+                b.append('-');
+                formatTimeField(b, ta, ChronoField.MONTH_OF_YEAR, genFlags, -1, 2);
+                b.append('-');
+                formatTimeField(b, ta, ChronoField.DAY_OF_MONTH, genFlags, -1, 2);
+                appendStr(destination, genFlags, width, -1, b.toString());
+                break;
+            }
+            case 'R': {
+                final StringBuilder b = new StringBuilder();
+                formatTimeField(b, ta, ChronoField.HOUR_OF_DAY, genFlags, -1, 2);
+                b.append(':');
+                formatTimeField(b, ta, ChronoField.MINUTE_OF_HOUR, genFlags, -1, 2);
+                b.append(':');
+                formatTimeField(b, ta, ChronoField.SECOND_OF_MINUTE, genFlags, -1, 2);
+                appendStr(destination, genFlags, width, -1, b.toString());
+                break;
+            }
+            case 'r': {
+                final StringBuilder b = new StringBuilder();
+                formatTimeField(b, ta, ChronoField.HOUR_OF_DAY, genFlags, -1, 2);
+                b.append(':');
+                formatTimeField(b, ta, ChronoField.MINUTE_OF_HOUR, genFlags, -1, 2);
+                b.append(':');
+                formatTimeField(b, ta, ChronoField.SECOND_OF_MINUTE, genFlags, -1, 2);
+                b.append(' ');
+                formatTimeTextField(b, ta, ChronoField.AMPM_OF_DAY, getDateFormatSymbols().getAmPmStrings(),
+                        genFlags.with(GeneralFlag.UPPERCASE), width);
+                appendStr(destination, genFlags, width, -1, b.toString());
+                break;
+            }
+            case 'T': {
+                final StringBuilder b = new StringBuilder();
+                formatTimeField(b, ta, ChronoField.HOUR_OF_DAY, genFlags, -1, 2);
+                b.append(':');
+                formatTimeField(b, ta, ChronoField.MINUTE_OF_HOUR, genFlags, -1, 2);
+                b.append(':');
+                formatTimeField(b, ta, ChronoField.SECOND_OF_MINUTE, genFlags, -1, 2);
+                appendStr(destination, genFlags, width, -1, b.toString());
+                break;
+            }
+            default: {
+                throw Assert.impossibleSwitchCase(cp);
+            }
+        }
+    }
+
     protected static void appendSpaces(StringBuilder target, int cnt) {
         appendFiller(target, someSpaces, cnt);
     }
@@ -1229,4 +1387,104 @@ class Printf {
             return (R) temporal.with(ChronoField.YEAR, (temporal.get(ChronoField.YEAR) % 100) + 100 * newValue);
         }
     };
+
+    /**
+     * A parsed format string. A plan is immutable and can be rendered from multiple threads.
+     */
+    private static final class CachedPlan {
+        private final Plan plan;
+        // Set when the plan is used, and cleared when the eviction scan passes over it
+        private volatile boolean used;
+
+        private CachedPlan(final Plan plan) {
+            this.plan = plan;
+        }
+    }
+
+    static final class Plan {
+        private final Printf printf;
+        private final String format;
+        private final Step[] steps;
+
+        Plan(final Printf printf, final String format, final Step[] steps) {
+            this.printf = printf;
+            this.format = format;
+            this.steps = steps;
+        }
+
+        /**
+         * Returns the format string this plan was compiled from.
+         *
+         * @return the format string
+         */
+        String getFormat() {
+            return format;
+        }
+
+        /**
+         * Renders the plan with the parameters.
+         *
+         * @param params the parameters
+         * @return the formatted string
+         */
+        String format(final Object... params) {
+            return render(new StringBuilder(), params).toString();
+        }
+
+        /**
+         * Renders the plan with the parameters into the builder.
+         *
+         * @param destination the builder to append to
+         * @param params      the parameters
+         * @return the destination
+         */
+        StringBuilder render(final StringBuilder destination, final Object... params) {
+            return printf.formatDirect(destination, this, params);
+        }
+    }
+
+    abstract static class Step {
+        abstract void render(Printf printf, StringBuilder destination, Object[] params);
+    }
+
+    static final class Literal extends Step {
+        private final String text;
+
+        Literal(final String text) {
+            this.text = text;
+        }
+
+        @Override
+        void render(final Printf printf, final StringBuilder destination, final Object[] params) {
+            destination.append(text);
+        }
+    }
+
+    static final class Conversion extends Step {
+        final int cp;
+        final int timeCp;
+        final GeneralFlags genFlags;
+        final NumericFlags numFlags;
+        final int width;
+        final int precision;
+        final int argIdx; // 1-based, -1 if the conversion takes no argument
+        final String spec; // for diagnostics
+
+        Conversion(final int cp, final int timeCp, final GeneralFlags genFlags, final NumericFlags numFlags,
+                final int width, final int precision, final int argIdx, final String spec) {
+            this.cp = cp;
+            this.timeCp = timeCp;
+            this.genFlags = genFlags;
+            this.numFlags = numFlags;
+            this.width = width;
+            this.precision = precision;
+            this.argIdx = argIdx;
+            this.spec = spec;
+        }
+
+        @Override
+        void render(final Printf printf, final StringBuilder destination, final Object[] params) {
+            printf.formatConversion(destination, this, params);
+        }
+    }
 }
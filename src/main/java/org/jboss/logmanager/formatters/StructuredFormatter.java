@@ -23,7 +23,10 @@ import java.io.Writer;
 import java.lang.invoke.ConstantBootstraps;
 import java.lang.invoke.MethodHandles;
 import java.lang.invoke.VarHandle;
+import java.math.BigInteger;
+import java.time.Instant;
 import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.Collections;
 import java.util.EnumMap;
@@ -125,6 +128,42 @@ public abstract class StructuredFormatter extends ExtFormatter {
         DETAILED_AND_FORMATTED
     }
 
+    /**
+     * Defines the way the timestamp of a record will be formatted.
+     */
+    public enum TimestampFormat {
+        /**
+         * The timestamp is formatted with the {@linkplain #setDateFormat(String) date format} in the
+         * {@linkplain #setZoneId(String) zone}.
+         */
+        PATTERN,
+        /**
+         * The timestamp is an ISO-8601 date and time in UTC with milliseconds, for example
+         * {@code 2026-03-04T05:06:07.089Z}. The zone id is ignored.
+         */
+        ISO_UTC_MILLIS,
+        /**
+         * The timestamp is an ISO-8601 date and time in UTC with nanoseconds, for example
+         * {@code 2026-03-04T05:06:07.089012345Z}. The zone id is ignored.
+         */
+        ISO_UTC_NANOS,
+        /**
+         * The timestamp is the number of milliseconds since the epoch. Instants past the range of a {@code long} are
+         * written as a decimal string.
+         */
+        EPOCH_MILLIS,
+        /**
+         * The timestamp is the number of nanoseconds since the epoch. Instants past the range of a {@code long}, from
+         * the year 2262, are written as a decimal string.
+         */
+        EPOCH_NANOS,
+    }
+
+    private static final DateTimeFormatter ISO_UTC_MILLIS_FALLBACK = DateTimeFormatter
+            .ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSS'Z'").withZone(ZoneOffset.UTC);
+    private static final DateTimeFormatter ISO_UTC_NANOS_FALLBACK = DateTimeFormatter
+            .ofPattern("uuuu-MM-dd'T'HH:mm:ss.SSSSSSSSS'Z'").withZone(ZoneOffset.UTC);
+
     private final Map<Key, String> keyOverrides;
     private final String keyOverridesValue;
     // Guarded by this
@@ -132,12 +171,16 @@ public abstract class StructuredFormatter extends ExtFormatter {
     // Guarded by this
     private Map<String, String> metaDataMap;
     private volatile boolean printDetails;
+    private volatile boolean typedMdcValues;
     private volatile String eorDelimiter = "\n";
     @SuppressWarnings("FieldMayBeFinal") // dateTimeFormatterHandle
     private volatile DateTimeFormatter dateTimeFormatter;
     private volatile ExceptionOutputType exceptionOutputType;
+    private volatile TimestampFormat timestampFormat = TimestampFormat.PATTERN;
     private final StringBuilderWriter writer = new StringBuilderWriter();
     // Guarded by this
+    private final char[] timestampBuffer = new char[30];
+    // Guarded by this
     private int refId;
 
     protected StructuredFormatter() {
@@ -211,15 +254,15 @@ public abstract class StructuredFormatter extends ExtFormatter {
             before(generator, record);
 
             // Add the default structure
-            generator.add(getKey(Key.TIMESTAMP), dateTimeFormatter.format(record.getInstant()))
-                    .add(getKey(Key.SEQUENCE), record.getSequenceNumber())
+            addTimestamp(generator, record.getInstant());
+            generator.add(getKey(Key.SEQUENCE), record.getSequenceNumber())
                     .add(getKey(Key.LOGGER_CLASS_NAME), record.getLoggerClassName())
                     .add(getKey(Key.LOGGER_NAME), record.getLoggerName())
                     .add(getKey(Key.LEVEL), record.getLevel().getName())
                     .add(getKey(Key.MESSAGE), formatMessage(record))
                     .add(getKey(Key.THREAD_NAME), record.getThreadName())
                     .add(getKey(Key.THREAD_ID), record.getThreadID())
-                    .add(getKey(Key.MDC), record.getMdcCopy())
+                    .add(getKey(Key.MDC), getMdc(record))
                     .add(getKey(Key.NDC), record.getNdc());
 
             if (isNotNullOrEmpty(record.getHostName())) {
@@ -410,6 +453,29 @@ public abstract class StructuredFormatter extends ExtFormatter {
         }
     }
 
+    /**
+     * Returns the way the timestamp of a record is formatted.
+     *
+     * @return the timestamp format
+     */
+    public TimestampFormat getTimestampFormat() {
+        return timestampFormat;
+    }
+
+    /**
+     * Sets the way the timestamp of a record is formatted. The default is {@link TimestampFormat#PATTERN PATTERN},
+     * which uses the {@linkplain #setDateFormat(String) date format}.
+     * <p>
+     * The other formats are written without a {@link DateTimeFormatter} and are considerably cheaper. The epoch
+     * formats are written as numbers.
+     * </p>
+     *
+     * @param timestampFormat the timestamp format, if {@code null} {@link TimestampFormat#PATTERN} is used
+     */
+    public void setTimestampFormat(final TimestampFormat timestampFormat) {
+        this.timestampFormat = timestampFormat == null ? TimestampFormat.PATTERN : timestampFormat;
+    }
+
     /**
      * Indicates whether or not details should be printed.
      *
@@ -432,6 +498,30 @@ public abstract class StructuredFormatter extends ExtFormatter {
         this.printDetails = printDetails;
     }
 
+    /**
+     * Indicates whether or not MDC values are written with their own type.
+     *
+     * @return {@code true} if MDC values are written with their own type, otherwise {@code false}
+     */
+    public boolean isTypedMdcValues() {
+        return typedMdcValues;
+    }
+
+    /**
+     * Sets whether or not MDC values are written with their own type. By default every MDC value is written as a
+     * string.
+     * <p>
+     * If set to {@code true}, MDC values are passed to the {@link Generator} as they were put in the MDC. For example the
+     * {@link JsonFormatter} then writes numbers and booleans as JSON numbers and booleans, without converting them to a
+     * string first.
+     * </p>
+     *
+     * @param typedMdcValues {@code true} if MDC values should be written with their own type
+     */
+    public void setTypedMdcValues(final boolean typedMdcValues) {
+        this.typedMdcValues = typedMdcValues;
+    }
+
     /**
      * Get the current output type for exceptions.
      *
@@ -454,6 +544,111 @@ public abstract class StructuredFormatter extends ExtFormatter {
         }
     }
 
+    private void addTimestamp(final Generator generator, final Instant instant) throws Exception {
+        final String key = getKey(Key.TIMESTAMP);
+        switch (timestampFormat) {
+            case ISO_UTC_MILLIS:
+                generator.add(key, formatIsoUtc(instant, false));
+                break;
+            case ISO_UTC_NANOS:
+                generator.add(key, formatIsoUtc(instant, true));
+                break;
+            case EPOCH_MILLIS:
+                addEpoch(generator, key, instant, 1_000L, 1_000_000);
+                break;
+            case EPOCH_NANOS:
+                addEpoch(generator, key, instant, 1_000_000_000L, 1);
+                break;
+            default:
+                generator.add(key, dateTimeFormatter.format(instant));
+                break;
+        }
+    }
+
+    /**
+     * Adds the instant as a number of units since the epoch. An instant too far from the epoch for a long, such as past
+     * the year 2262 in nanoseconds, is added as a decimal string instead.
+     */
+    private static void addEpoch(final Generator generator, final String key, final Instant instant,
+            final long unitsPerSecond, final int nanosPerUnit) throws Exception {
+        final long seconds = instant.getEpochSecond();
+        // the fraction of a second is positive, so it can't overflow below the minimum
+        final long units = instant.getNano() / nanosPerUnit;
+        if (seconds >= Long.MIN_VALUE / unitsPerSecond && seconds < Long.MAX_VALUE / unitsPerSecond) {
+            generator.add(key, seconds * unitsPerSecond + units);
+        } else {
+            generator.add(key, BigInteger.valueOf(seconds).multiply(BigInteger.valueOf(unitsPerSecond))
+                    .add(BigInteger.valueOf(units)).toString());
+        }
+    }
+
+    /**
+     * Formats the instant as an ISO-8601 date and time in UTC. Invocations of this method must be synchronized on
+     * this formatter.
+     */
+    private String formatIsoUtc(final Instant instant, final boolean nanos) {
+        final long epochSecond = instant.getEpochSecond();
+        final long epochDay = Math.floorDiv(epochSecond, 86_400L);
+        final int secondOfDay = (int) Math.floorMod(epochSecond, 86_400L);
+        // Convert the day to the proleptic Gregorian calendar, counting in 400 year eras which start on March 1st
+        final long z = epochDay + 719_468L;
+        final long era = Math.floorDiv(z, 146_097L);
+        final int dayOfEra = (int) (z - era * 146_097L);
+        final int yearOfEra = (dayOfEra - dayOfEra / 1_460 + dayOfEra / 36_524 - dayOfEra / 146_096) / 365;
+        final int dayOfYear = dayOfEra - (365 * yearOfEra + yearOfEra / 4 - yearOfEra / 100);
+        final int mp = (5 * dayOfYear + 2) / 153;
+        final int day = dayOfYear - (153 * mp + 2) / 5 + 1;
+        final int month = mp < 10 ? mp + 3 : mp - 9;
+        final long year = yearOfEra + era * 400L + (month <= 2 ? 1 : 0);
+        if (year < 0L || year > 9999L) {
+            return (nanos ? ISO_UTC_NANOS_FALLBACK : ISO_UTC_MILLIS_FALLBACK).format(instant);
+        }
+        final char[] buffer = timestampBuffer;
+        writeDigits(buffer, 0, (int) year, 4);
+        buffer[4] = '-';
+        writeDigits(buffer, 5, month, 2);
+        buffer[7] = '-';
+        writeDigits(buffer, 8, day, 2);
+        buffer[10] = 'T';
+        writeDigits(buffer, 11, secondOfDay / 3_600, 2);
+        buffer[13] = ':';
+        writeDigits(buffer, 14, secondOfDay / 60 % 60, 2);
+        buffer[16] = ':';
+        writeDigits(buffer, 17, secondOfDay % 60, 2);
+        buffer[19] = '.';
+        final int len;
+        if (nanos) {
+            writeDigits(buffer, 20, instant.getNano(), 9);
+            len = 29;
+        } else {
+            writeDigits(buffer, 20, instant.getNano() / 1_000_000, 3);
+            len = 23;
+        }
+        buffer[len] = 'Z';
+        return new String(buffer, 0, len + 1);
+    }
+
+    private static void writeDigits(final char[] buffer, final int offset, final int value, final int digits) {
+        int remaining = value;
+        for (int i = offset + digits - 1; i >= offset; i--) {
+            buffer[i] = (char) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+    }
+
+    private Map<String, ?> getMdc(final ExtLogRecord record) {
+        final Map<String, Object> mdc = record.getMdcObjects();
+        if (!typedMdcValues) {
+            for (Object value : mdc.values()) {
+                if (!(value instanceof String)) {
+                    return record.getMdcCopy();
+                }
+            }
+        }
+        // Either typed values were requested or every value is already a string, no copy is needed
+        return mdc;
+    }
+
     /**
      * Checks the exception output type and determines if detailed output should be written.
      *
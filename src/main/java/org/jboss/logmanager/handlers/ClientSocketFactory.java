@@ -26,6 +26,8 @@ import java.net.InetSocketAddress;
 import java.net.Socket;
 import java.net.SocketAddress;
 import java.net.SocketException;
+import java.nio.channels.DatagramChannel;
+import java.nio.channels.SocketChannel;
 
 import javax.net.SocketFactory;
 
@@ -45,6 +47,20 @@ public interface ClientSocketFactory {
      */
     DatagramSocket createDatagramSocket() throws SocketException;
 
+    /**
+     * Creates a datagram channel for UDP communication.
+     * <p>
+     * The default implementation simply returns {@link DatagramChannel#open()}.
+     * </p>
+     *
+     * @return the newly opened channel
+     *
+     * @throws IOException if opening the channel fails
+     */
+    default DatagramChannel createDatagramChannel() throws IOException {
+        return DatagramChannel.open();
+    }
+
     /**
      * Creates a TCP socket.
      *
@@ -54,6 +70,21 @@ public interface ClientSocketFactory {
      */
     Socket createSocket() throws IOException;
 
+    /**
+     * Creates an unconnected channel for TCP communication. The caller is responsible for connecting the channel to the
+     * {@linkplain #getSocketAddress() socket address}.
+     * <p>
+     * The default implementation simply returns {@link SocketChannel#open()}.
+     * </p>
+     *
+     * @return the newly opened channel
+     *
+     * @throws IOException if opening the channel fails
+     */
+    default SocketChannel createSocketChannel() throws IOException {
+        return SocketChannel.open();
+    }
+
     /**
      * Returns the address being used to create sockets.
      *
@@ -0,0 +1,345 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ *
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.logmanager.handlers;
+
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.DatagramChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * An output stream that sends each write as a single datagram over a non-blocking {@link DatagramChannel}.
+ * <p>
+ * Writes never touch the network. Each write is copied into a slot of a fixed size ring and the calling thread
+ * returns immediately. A background sender thread drains the ring in bursts, copying every message into a single
+ * reused direct buffer before handing it to the channel. Slot buffers are sized on first use and then reused, so once
+ * the stream has warmed up a write does not allocate.
+ * </p>
+ * <p>
+ * Messages are dropped rather than blocking the caller. Drops are counted separately for when the ring is full, see
+ * {@link #getQueueDropCount()}, and for when the kernel send buffer is full, see {@link #getSendDropCount()}.
+ * </p>
+ * <p>
+ * You can optionally get a collection of the errors that occurred in the sender thread.
+ * </p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class DatagramChannelOutputStream extends OutputStream implements AutoCloseable, Flushable {
+    /**
+     * The default number of messages which can be queued before new messages are dropped.
+     */
+    public static final int DEFAULT_QUEUE_LENGTH = 1024;
+
+    /**
+     * The largest payload a UDP datagram can carry over IPv4.
+     */
+    public static final int MAX_DATAGRAM_SIZE = 65507;
+
+    private static final int MIN_SLOT_SIZE = 256;
+    private static final int MAX_BURST = 64;
+    private static final int maxErrors = 10;
+
+    private final DatagramChannel channel;
+    private final SocketAddress socketAddress;
+    private final Slot[] slots;
+    private final int mask;
+    private final Thread sender;
+    private final Deque<Exception> errors = new ArrayDeque<>(maxErrors);
+    private final AtomicLong queueDrops = new AtomicLong();
+    private final AtomicLong sendDrops = new AtomicLong();
+
+    @SuppressWarnings("unused")
+    private volatile long enqueuePos;
+    private static final AtomicLongFieldUpdater<DatagramChannelOutputStream> enqueuePosUpdater = AtomicLongFieldUpdater
+            .newUpdater(DatagramChannelOutputStream.class, "enqueuePos");
+
+    // Only accessed by the sender thread
+    private long dequeuePos;
+    private volatile boolean senderParked;
+    private volatile boolean closed;
+
+    /**
+     * Creates a new datagram channel output stream with the {@linkplain #DEFAULT_QUEUE_LENGTH default queue length}.
+     *
+     * @param socketFactory the factory used to create the channel and determine the target address
+     *
+     * @throws IOException if the channel could not be opened
+     */
+    public DatagramChannelOutputStream(final ClientSocketFactory socketFactory) throws IOException {
+        this(socketFactory, DEFAULT_QUEUE_LENGTH);
+    }
+
+    /**
+     * Creates a new datagram channel output stream.
+     *
+     * @param socketFactory the factory used to create the channel and determine the target address
+     * @param queueLength   the number of messages which can be queued before new messages are dropped, rounded up to
+     *                      the next power of two
+     *
+     * @throws IOException if the channel could not be opened
+     */
+    public DatagramChannelOutputStream(final ClientSocketFactory socketFactory, final int queueLength) throws IOException {
+        if (queueLength < 1) {
+            throw new IllegalArgumentException(String.format("The queue length must be at least 1 (%d)", queueLength));
+        }
+        final int capacity = queueLength == 1 ? 1 : Integer.highestOneBit(queueLength - 1) << 1;
+        slots = new Slot[capacity];
+        for (int i = 0; i < capacity; i++) {
+            slots[i] = new Slot(i);
+        }
+        mask = capacity - 1;
+        socketAddress = socketFactory.getSocketAddress();
+        channel = socketFactory.createDatagramChannel();
+        boolean ok = false;
+        try {
+            channel.configureBlocking(false);
+            ok = true;
+        } finally {
+            if (!ok) {
+                channel.close();
+            }
+        }
+        sender = new Thread(new Sender());
+        sender.setDaemon(true);
+        sender.setName("LogManager Datagram Sender Thread");
+        sender.start();
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        final Slot slot = claim(1);
+        if (slot != null) {
+            slot.data[0] = (byte) b;
+            publish(slot, 1);
+        }
+    }
+
+    @Override
+    public void write(final byte[] b) throws IOException {
+        if (b != null) {
+            write(b, 0, b.length);
+        }
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        if (b != null) {
+            if (len > MAX_DATAGRAM_SIZE) {
+                throw new IOException(String.format("The message length %d exceeds the maximum datagram size of %d", len,
+                        MAX_DATAGRAM_SIZE));
+            }
+            final Slot slot = claim(len);
+            if (slot != null) {
+                System.arraycopy(b, off, slot.data, 0, len);
+                publish(slot, len);
+            }
+        }
+    }
+
+    /**
+     * Does not wait for queued messages to be sent, datagrams have no delivery guarantee to wait on. This only wakes up
+     * the sender thread.
+     */
+    @Override
+    public void flush() {
+        if (senderParked) {
+            LockSupport.unpark(sender);
+        }
+    }
+
+    /**
+     * Closes the channel. Messages which have been queued, but not yet sent, are given a short grace period to be
+     * sent.
+     *
+     * @throws IOException if an error occurs closing the channel
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        LockSupport.unpark(sender);
+        try {
+            sender.join(TimeUnit.SECONDS.toMillis(1L));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            channel.close();
+        }
+    }
+
+    /**
+     * Returns the number of messages dropped because the queue was full.
+     *
+     * @return the number of messages dropped before reaching the channel
+     */
+    public long getQueueDropCount() {
+        return queueDrops.get();
+    }
+
+    /**
+     * Returns the number of messages dropped because the kernel send buffer was full.
+     *
+     * @return the number of messages the channel refused to send
+     */
+    public long getSendDropCount() {
+        return sendDrops.get();
+    }
+
+    /**
+     * Retrieves the errors occurred, if any, in the sender thread.
+     *
+     * @return a collection of errors or an empty list
+     */
+    public Collection<Exception> getErrors() {
+        synchronized (errors) {
+            if (!errors.isEmpty()) {
+                // drain the errors and return a list
+                final List<Exception> result = new ArrayList<>(errors);
+                errors.clear();
+                return result;
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    private void addError(final Exception e) {
+        synchronized (errors) {
+            if (errors.size() < maxErrors) {
+                errors.addLast(e);
+            }
+        }
+    }
+
+    /**
+     * Claims the next free slot, making sure it can hold {@code len} bytes.
+     *
+     * @return the claimed slot or {@code null} if the queue is full or the stream is closed
+     */
+    private Slot claim(final int len) {
+        if (closed) {
+            queueDrops.incrementAndGet();
+            return null;
+        }
+        long pos = enqueuePos;
+        for (;;) {
+            final Slot slot = slots[(int) pos & mask];
+            final long diff = slot.sequence - pos;
+            if (diff == 0L) {
+                if (enqueuePosUpdater.compareAndSet(this, pos, pos + 1L)) {
+                    if (slot.data.length < len) {
+                        slot.data = new byte[Math.max(len, slot.data.length << 1)];
+                    }
+                    slot.pos = pos;
+                    return slot;
+                }
+            } else if (diff < 0L) {
+                // The sender has not caught up, drop the message rather than waiting
+                queueDrops.incrementAndGet();
+                return null;
+            }
+            pos = enqueuePos;
+        }
+    }
+
+    private void publish(final Slot slot, final int len) {
+        slot.length = len;
+        // Publishes the data and length to the sender
+        slot.sequence = slot.pos + 1L;
+        if (senderParked) {
+            LockSupport.unpark(sender);
+        }
+    }
+
+    private static final class Slot {
+        volatile long sequence;
+        // The following fields are published through the sequence
+        long pos;
+        byte[] data = new byte[MIN_SLOT_SIZE];
+        int length;
+
+        Slot(final long sequence) {
+            this.sequence = sequence;
+        }
+    }
+
+    private class Sender implements Runnable {
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(MAX_DATAGRAM_SIZE);
+
+        @Override
+        public void run() {
+            while (true) {
+                final int sent = drain();
+                if (sent == 0) {
+                    if (closed) {
+                        break;
+                    }
+                    senderParked = true;
+                    // Check again in case a write was published before the flag was visible
+                    if (!hasNext()) {
+                        LockSupport.parkNanos(this, TimeUnit.MILLISECONDS.toNanos(100L));
+                    }
+                    senderParked = false;
+                }
+            }
+        }
+
+        private boolean hasNext() {
+            return slots[(int) dequeuePos & mask].sequence == dequeuePos + 1L;
+        }
+
+        private int drain() {
+            int count = 0;
+            while (count < MAX_BURST && hasNext()) {
+                final Slot slot = slots[(int) dequeuePos & mask];
+                buffer.clear();
+                buffer.put(slot.data, 0, slot.length).flip();
+                // Release the slot before the send so producers are not held up by the network
+                slot.sequence = dequeuePos + slots.length;
+                dequeuePos++;
+                count++;
+                try {
+                    if (channel.send(buffer, socketAddress) == 0) {
+                        sendDrops.incrementAndGet();
+                    }
+                } catch (IOException e) {
+                    sendDrops.incrementAndGet();
+                    if (!closed) {
+                        addError(e);
+                    }
+                }
+            }
+            return count;
+        }
+    }
+}
@@ -19,13 +19,15 @@
 
 package org.jboss.logmanager.handlers;
 
-import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Deque;
-import java.util.HashMap;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
-import java.util.function.Supplier;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.ErrorManager;
 import java.util.logging.Formatter;
 import java.util.logging.Handler;
@@ -41,14 +43,23 @@ import org.jboss.logmanager.formatters.PatternFormatter;
  * A handler that queues messages until it's at least one child handler is {@linkplain #addHandler(Handler) added} or
  * {@linkplain #setHandlers(Handler[]) set}. If the children handlers are {@linkplain #clearHandlers() cleared} then
  * the handler is no longer considered activated and messages will once again be queued.
+ * <p>
+ * While the handler is not activated each thread queues its messages in its own buffer, so threads logging
+ * concurrently do not contend with each other. The buffers are merged in the order the records were created when the
+ * handler is activated.
+ * </p>
  *
  * @author <a href="mailto:jperkins@redhat.com">James R. Perkins</a>
  */
 @SuppressWarnings({ "unused", "WeakerAccess" })
 public class DelayedHandler extends ExtHandler {
 
-    private final Map<java.util.logging.Level, Deque<ExtLogRecord>> queues = new HashMap<>();
+    private static final Comparator<ExtLogRecord> SEQUENCE_ORDER = (r1, r2) -> Long
+            .compareUnsigned(r1.getSequenceNumber(), r2.getSequenceNumber());
 
+    private final ThreadLocal<Stage> stages = new ThreadLocal<>();
+    // Only closed while the lock is held, the lock is released with either the handler activated or a new staging
+    private volatile Staging staging = new Staging();
     private volatile boolean activated = false;
     private volatile boolean callerCalculationRequired = false;
 
@@ -120,10 +131,6 @@ public class DelayedHandler extends ExtHandler {
         this.warnThreshold = warnThreshold;
     }
 
-    private static <E> Deque<E> newDeque(Object ignored) {
-        return new ArrayDeque<>();
-    }
-
     @Override
     protected void doPublish(final ExtLogRecord record) {
         // If activated just delegate
@@ -135,108 +142,59 @@ public class DelayedHandler extends ExtHandler {
             if (lock.isHeldByCurrentThread()) {
                 return;
             }
-            lock.lock();
-            try {
-                // Check one more time to see if we've been activated before queuing the messages
-                if (activated) {
-                    publishToNestedHandlers(record);
-                    super.doPublish(record);
-                } else {
-                    // Determine if we need to calculate the caller information before we queue the record
-                    if (isCallerCalculationRequired()) {
-                        // prepare record to move to another thread
-                        record.copyAll();
-                    } else {
-                        // Disable the caller calculation since it's been determined we won't be using it
-                        record.disableCallerCalculation();
-                        // Copy the MDC over
-                        record.copyMdc();
-                    }
-                    Level level = record.getLevel();
-                    Deque<ExtLogRecord> q = queues.computeIfAbsent(level, DelayedHandler::newDeque);
-                    if (q.size() >= queueLimit && level.intValue() >= warnThreshold.intValue()) {
-                        reportError(
-                                "The delayed handler's queue was overrun and log record(s) were lost. Did you forget to configure logging?",
-                                null, ErrorManager.WRITE_FAILURE);
+            // Determine if we need to calculate the caller information before we queue the record
+            if (isCallerCalculationRequired()) {
+                // prepare record to move to another thread
+                record.copyAll();
+            } else {
+                // Disable the caller calculation since it's been determined we won't be using it
+                record.disableCallerCalculation();
+                // Copy the MDC over
+                record.copyMdc();
+            }
+            Stage stage = getStage();
+            // records logged while an overrun is reported are discarded
+            if (stage.reporting) {
+                return;
+            }
+            int queued;
+            while ((queued = stage.add(record)) < 0) {
+                // The queued records are being replayed, wait for the activation to complete
+                lock.lock();
+                try {
+                    if (activated) {
+                        publishToNestedHandlers(record);
+                        super.doPublish(record);
+                        return;
                     }
-                    enqueueOrdered(q, record);
+                } finally {
+                    lock.unlock();
                 }
-            } finally {
-                lock.unlock();
+                // The handler was deactivated again, queue the record in the new staging
+                stage = getStage();
             }
-        }
-    }
-
-    /**
-     * Enqueue the log record such that the queue's order (by sequence number) is maintained.
-     *
-     * @param q      the queue
-     * @param record the record
-     */
-    private void enqueueOrdered(Deque<ExtLogRecord> q, ExtLogRecord record) {
-        assert lock.isHeldByCurrentThread();
-        ExtLogRecord last = q.peekLast();
-        if (last != null) {
-            // check the ordering
-            if (Long.compareUnsigned(last.getSequenceNumber(), record.getSequenceNumber()) > 0) {
-                // out of order; we have to re-sort.. typically, it's only going to be out of order by a couple though
-                q.pollLast();
+            if (queued >= queueLimit && record.getLevel().intValue() >= warnThreshold.intValue()) {
+                stage.reporting = true;
                 try {
-                    enqueueOrdered(q, record);
+                    reportError(
+                            "The delayed handler's queue was overrun and log record(s) were lost. Did you forget to configure logging?",
+                            null, ErrorManager.WRITE_FAILURE);
                 } finally {
-                    q.addLast(last);
+                    stage.reporting = false;
                 }
-                return;
             }
         }
-        // order is OK
-        q.addLast(record);
     }
 
-    private Supplier<ExtLogRecord> drain() {
-        assert lock.isHeldByCurrentThread();
-        if (queues.isEmpty()) {
-            return () -> null;
+    private Stage getStage() {
+        final Staging staging = this.staging;
+        Stage stage = stages.get();
+        if (stage == null || stage.staging != staging) {
+            stage = new Stage(staging);
+            stages.set(stage);
+            staging.stages.add(stage);
         }
-        List<Deque<ExtLogRecord>> values = List.copyOf(queues.values());
-        queues.clear();
-        int size = values.size();
-        List<ExtLogRecord> current = Arrays.asList(new ExtLogRecord[size]);
-        // every queue must have at least one item in it
-        int i = 0;
-        for (Deque<ExtLogRecord> value : values) {
-            current.set(i++, value.removeFirst());
-        }
-        return new Supplier<ExtLogRecord>() {
-            @Override
-            public ExtLogRecord get() {
-                ExtLogRecord min = null;
-                int minIdx = 0;
-                for (int i = 0; i < size; i++) {
-                    ExtLogRecord item = current.get(i);
-                    if (compareSeq(min, item) > 0) {
-                        min = item;
-                        minIdx = i;
-                    }
-                }
-                if (min == null) {
-                    return null;
-                }
-                current.set(minIdx, values.get(minIdx).pollFirst());
-                return min;
-            }
-
-            private int compareSeq(ExtLogRecord min, ExtLogRecord testItem) {
-                if (min == null) {
-                    // null is greater than everything
-                    return testItem == null ? 0 : 1;
-                } else if (testItem == null) {
-                    return -1;
-                } else {
-                    return Long.compareUnsigned(min.getSequenceNumber(), testItem.getSequenceNumber());
-                }
-            }
-        };
+        return stage;
     }
 
     @Override
@@ -244,24 +202,24 @@ public class DelayedHandler extends ExtHandler {
         checkAccess();
         lock.lock();
         try {
-            if (!queues.isEmpty()) {
+            // Always attempt to drain the queue
+            final ExtLogRecord[] records = staging.drain();
+            staging = new Staging();
+            if (records.length > 0) {
                 Formatter formatter = getFormatter();
                 if (formatter == null) {
                     formatter = new PatternFormatter("%d{yyyy-MM-dd HH:mm:ss,SSS} %-5p [%c] (%t) %s%e%n");
                 }
                 StandardOutputStreams.printError("The DelayedHandler was closed before any children handlers were " +
                         "configured. Messages will be written to stderr.");
-                // Always attempt to drain the queue
-                Supplier<ExtLogRecord> drain = drain();
-                ExtLogRecord record;
-                while ((record = drain.get()) != null) {
+                for (ExtLogRecord record : records) {
                     StandardOutputStreams.printError(formatter.format(record));
                 }
             }
+            activated = false;
         } finally {
             lock.unlock();
         }
-        activated = false;
         super.close();
     }
 
@@ -305,7 +263,9 @@ public class DelayedHandler extends ExtHandler {
     @Override
     public void removeHandler(final Handler handler) throws SecurityException {
         super.removeHandler(handler);
-        activated = handlers.length != 0;
+        if (handlers.length == 0) {
+            deactivate();
+        }
     }
 
     /**
@@ -318,7 +278,7 @@ public class DelayedHandler extends ExtHandler {
      */
     @Override
     public Handler[] clearHandlers() throws SecurityException {
-        activated = false;
+        deactivate();
         return super.clearHandlers();
     }
 
@@ -369,10 +329,14 @@ public class DelayedHandler extends ExtHandler {
         lock.lock();
         try {
             // Always attempt to drain the queue
-            ExtLogRecord record;
             final LogContext logContext = this.logContext;
-            Supplier<ExtLogRecord> drain = drain();
-            while ((record = drain.get()) != null) {
+            // this thread's buffer is no longer used, other threads replace theirs when they next log
+            stages.remove();
+            final ExtLogRecord[] records = staging.drain();
+            for (int i = 0; i < records.length; i++) {
+                final ExtLogRecord record = records[i];
+                // release the record as soon as it has been replayed
+                records[i] = null;
                 if (isEnabled() && isLoggable(record)
                         && (logContext == null || logContext.getLogger(record.getLoggerName()).isLoggable(record.getLevel()))) {
                     publishToNestedHandlers(record);
@@ -383,4 +347,84 @@ public class DelayedHandler extends ExtHandler {
             lock.unlock();
         }
     }
+
+    private void deactivate() {
+        lock.lock();
+        try {
+            if (staging.closed) {
+                // the new staging must be visible before the handler is seen as deactivated
+                staging = new Staging();
+            }
+            activated = false;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * The buffers of all threads between two activations of the handler. The stagings and the buffers don't refer to
+     * the handler, so that the buffers left in the thread locals of threads don't keep the handler reachable.
+     */
+    private static final class Staging {
+        private final Queue<Stage> stages = new ConcurrentLinkedQueue<>();
+        private final ConcurrentMap<Level, AtomicInteger> counts = new ConcurrentHashMap<>();
+        private volatile boolean closed;
+
+        /**
+         * Closes the staging and returns the queued records in the order they were created. Invocations of this method
+         * must be locked by the handler lock.
+         */
+        ExtLogRecord[] drain() {
+            // Threads which register a stage after this see the staging as closed
+            closed = true;
+            final List<ExtLogRecord> records = new ArrayList<>();
+            for (Stage stage : stages) {
+                stage.drainTo(records);
+            }
+            stages.clear();
+            counts.clear();
+            final ExtLogRecord[] result = records.toArray(ExtLogRecord[]::new);
+            // the buffers are each mostly in order already, which the sort takes advantage of
+            Arrays.sort(result, SEQUENCE_ORDER);
+            return result;
+        }
+    }
+
+    /**
+     * The buffer of a single thread. Only the owning thread adds to it, the lock of the buffer is only contended while
+     * the handler is activated.
+     */
+    private static final class Stage {
+        private final Staging staging;
+        private final List<ExtLogRecord> records = new ArrayList<>();
+        private boolean closed;
+        // Only accessed by the owning thread
+        private boolean reporting;
+
+        Stage(final Staging staging) {
+            this.staging = staging;
+        }
+
+        /**
+         * Adds the record to this buffer.
+         *
+         * @return the number of records of the same level which were queued before, or -1 if the staging has been
+         *             closed
+         */
+        int add(final ExtLogRecord record) {
+            synchronized (this) {
+                if (closed || staging.closed) {
+                    return -1;
+                }
+                records.add(record);
+            }
+            return staging.counts.computeIfAbsent(record.getLevel(), l -> new AtomicInteger()).getAndIncrement();
+        }
+
+        synchronized void drainTo(final List<ExtLogRecord> target) {
+            closed = true;
+            target.addAll(records);
+            records.clear();
+        }
+    }
 }
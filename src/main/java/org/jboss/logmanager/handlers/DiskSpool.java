@@ -0,0 +1,396 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ *
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.logmanager.handlers;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * An append-only, size capped spool of messages kept on disk.
+ * <p/>
+ * Messages are appended to a set of segment files in the spool directory and are read back in the order they were
+ * appended. A segment is deleted once every message in it has been {@linkplain #remove() removed}. When appending a
+ * message would exceed the maximum size the oldest segments are deleted to make room, and their messages are counted
+ * as {@linkplain #getBytesDropped() dropped}.
+ * <p/>
+ * Segments left behind by a previous spool using the same directory, for example after a restart, are picked up and
+ * read before any new messages. The read position is kept in a cursor file next to the segments, so that messages
+ * which were already removed are not read again.
+ * <p/>
+ * This class is safe to use from multiple threads. Typically one thread appends messages while another reads them.
+ */
+@SuppressWarnings("WeakerAccess")
+public class DiskSpool implements Closeable {
+
+    /**
+     * The default maximum size, in bytes, of the spool.
+     */
+    public static final long DEFAULT_MAX_SIZE = 64L * 1024L * 1024L;
+
+    private static final String SUFFIX = ".spool";
+    private static final int HEADER_SIZE = Integer.BYTES;
+    private static final String CURSOR_FILE_NAME = "cursor";
+    // the sequence of the segment being read and the position in it
+    private static final int CURSOR_SIZE = Long.BYTES * 2;
+
+    private final Path directory;
+    private final long maxSize;
+    private final long segmentSize;
+    private final ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+    private final ByteBuffer cursor = ByteBuffer.allocate(CURSOR_SIZE);
+    private final FileChannel cursorChannel;
+
+    // All the following fields are guarded by this
+    private final Deque<Segment> segments = new ArrayDeque<>();
+    private long nextSequence;
+    private long size;
+    private long bytesDropped;
+    private FileChannel appendChannel;
+    private FileChannel readChannel;
+    private byte[] next;
+    private Segment nextSegment;
+    private boolean closed;
+
+    /**
+     * Creates a new spool with the {@linkplain #DEFAULT_MAX_SIZE default maximum size}.
+     *
+     * @param directory the directory to store the segment files in, created if it does not exist
+     *
+     * @throws IOException if the directory could not be created or read
+     */
+    public DiskSpool(final Path directory) throws IOException {
+        this(directory, DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a new spool.
+     *
+     * @param directory the directory to store the segment files in, created if it does not exist
+     * @param maxSize   the maximum size, in bytes, of all the segment files combined
+     *
+     * @throws IOException if the directory could not be created or read
+     */
+    public DiskSpool(final Path directory, final long maxSize) throws IOException {
+        if (maxSize < 1L) {
+            throw new IllegalArgumentException(String.format("The maximum size must be at least 1 (%d)", maxSize));
+        }
+        this.directory = directory;
+        this.maxSize = maxSize;
+        segmentSize = Math.max(1L, maxSize / 8L);
+        Files.createDirectories(directory);
+        final List<Segment> existing = new ArrayList<>();
+        try (DirectoryStream<Path> paths = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path path : paths) {
+                final String name = path.getFileName().toString();
+                try {
+                    final long sequence = Long.parseLong(name.substring(0, name.length() - SUFFIX.length()));
+                    existing.add(new Segment(sequence, path, Files.size(path)));
+                } catch (NumberFormatException ignore) {
+                    // not one of ours
+                }
+            }
+        }
+        Collections.sort(existing);
+        cursorChannel = FileChannel.open(directory.resolve(CURSOR_FILE_NAME), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        long cursorSequence = -1L;
+        long cursorPosition = 0L;
+        if (cursorChannel.size() >= CURSOR_SIZE) {
+            readFully(cursorChannel, cursor, 0L);
+            cursor.flip();
+            cursorSequence = cursor.getLong();
+            cursorPosition = cursor.getLong();
+        }
+        for (Segment segment : existing) {
+            nextSequence = segment.sequence + 1L;
+            if (segment.sequence < cursorSequence) {
+                // Read completely before the spool was closed
+                Files.deleteIfExists(segment.path);
+                continue;
+            }
+            if (segment.sequence == cursorSequence) {
+                segment.position = Math.max(0L, Math.min(cursorPosition, segment.size));
+            }
+            segments.addLast(segment);
+            size += segment.size;
+        }
+        // The segments up to the cursor may all have been read and deleted, new segments must come after the cursor
+        nextSequence = Math.max(nextSequence, cursorSequence + 1L);
+    }
+
+    /**
+     * Appends a message to the spool.
+     *
+     * @param b   the message data
+     * @param off the offset of the message in the data
+     * @param len the length of the message
+     *
+     * @throws IOException if writing the message fails
+     */
+    public synchronized void append(final byte[] b, final int off, final int len) throws IOException {
+        checkClosed();
+        final long recordSize = HEADER_SIZE + (long) len;
+        if (recordSize > maxSize) {
+            bytesDropped += recordSize;
+            return;
+        }
+        // Make room by discarding the oldest segments
+        while (size + recordSize > maxSize) {
+            final Segment oldest = segments.peekFirst();
+            if (oldest == null || (oldest == segments.peekLast() && appendChannel != null)) {
+                // Only the segment being appended to is left, drop the new message instead
+                bytesDropped += recordSize;
+                return;
+            }
+            deleteFirst(true);
+        }
+        Segment tail = segments.peekLast();
+        if (appendChannel == null || tail.size >= segmentSize) {
+            closeAppendChannel();
+            final long sequence = nextSequence++;
+            tail = new Segment(sequence, directory.resolve(String.format("%019d%s", sequence, SUFFIX)), 0L);
+            appendChannel = FileChannel.open(tail.path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+            segments.addLast(tail);
+        }
+        header.clear();
+        header.putInt(len).flip();
+        writeFully(appendChannel, header);
+        writeFully(appendChannel, ByteBuffer.wrap(b, off, len));
+        tail.size += recordSize;
+        size += recordSize;
+    }
+
+    /**
+     * Returns the oldest message in the spool without removing it.
+     *
+     * @return the oldest message or {@code null} if the spool is empty
+     *
+     * @throws IOException if reading the message fails
+     */
+    public synchronized byte[] peek() throws IOException {
+        checkClosed();
+        while (next == null) {
+            final Segment head = segments.peekFirst();
+            if (head == null) {
+                return null;
+            }
+            if (head.position >= head.size) {
+                if (head == segments.peekLast() && appendChannel != null) {
+                    // Caught up with the writer, start a fresh segment on the next append
+                    closeAppendChannel();
+                }
+                deleteFirst(false);
+                continue;
+            }
+            if (readChannel == null) {
+                readChannel = FileChannel.open(head.path, StandardOpenOption.READ);
+            }
+            header.clear();
+            try {
+                readFully(readChannel, header, head.position);
+                final int len = header.flip().getInt();
+                if (len < 0 || head.position + HEADER_SIZE + len > head.size) {
+                    throw new EOFException();
+                }
+                final byte[] message = new byte[len];
+                readFully(readChannel, ByteBuffer.wrap(message), head.position + HEADER_SIZE);
+                next = message;
+                nextSegment = head;
+            } catch (EOFException e) {
+                // A truncated segment, likely from a crash while appending, skip the remainder
+                bytesDropped += head.size - head.position;
+                head.position = head.size;
+            }
+        }
+        return next;
+    }
+
+    /**
+     * Removes the oldest message from the spool. This should only be invoked after the message returned from
+     * {@link #peek()} has been handled.
+     *
+     * @throws IOException if the read position could not be saved
+     */
+    public synchronized void remove() throws IOException {
+        final Segment segment = nextSegment;
+        final byte[] message = next;
+        next = null;
+        nextSegment = null;
+        // The segment may have been discarded to make room since the message was read
+        if (message != null && segment == segments.peekFirst()) {
+            segment.position += HEADER_SIZE + message.length;
+            saveCursor(segment);
+        }
+    }
+
+    /**
+     * Checks whether there are messages left in the spool.
+     *
+     * @return {@code true} if the spool is empty, otherwise {@code false}
+     */
+    public synchronized boolean isEmpty() {
+        for (Segment segment : segments) {
+            if (segment.position < segment.size) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the size, in bytes, of the segment files in the spool.
+     *
+     * @return the size of the spool
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    /**
+     * Returns the number of bytes which were discarded because the spool was full, including the few bytes of framing
+     * stored with each message.
+     *
+     * @return the number of dropped bytes
+     */
+    public synchronized long getBytesDropped() {
+        return bytesDropped;
+    }
+
+    /**
+     * Returns the directory the segment files are stored in.
+     *
+     * @return the spool directory
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Closes the spool. Messages which have not been removed are left on disk to be picked up by a new spool using the
+     * same directory.
+     *
+     * @throws IOException if closing a segment file fails
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            try {
+                closeAppendChannel();
+            } finally {
+                try {
+                    if (readChannel != null) {
+                        readChannel.close();
+                        readChannel = null;
+                    }
+                } finally {
+                    cursorChannel.close();
+                }
+            }
+        }
+    }
+
+    private void deleteFirst(final boolean dropped) throws IOException {
+        final Segment segment = segments.removeFirst();
+        if (readChannel != null) {
+            readChannel.close();
+            readChannel = null;
+        }
+        if (dropped) {
+            bytesDropped += segment.size - segment.position;
+        }
+        if (segment == nextSegment) {
+            next = null;
+            nextSegment = null;
+        }
+        size -= segment.size;
+        Files.deleteIfExists(segment.path);
+    }
+
+    private void saveCursor(final Segment segment) throws IOException {
+        cursor.clear();
+        cursor.putLong(segment.sequence).putLong(segment.position).flip();
+        while (cursor.hasRemaining()) {
+            cursorChannel.write(cursor, cursor.position());
+        }
+    }
+
+    private void closeAppendChannel() throws IOException {
+        if (appendChannel != null) {
+            final FileChannel channel = appendChannel;
+            appendChannel = null;
+            channel.close();
+        }
+    }
+
+    private void checkClosed() throws IOException {
+        if (closed) {
+            throw new IOException("The spool has been closed");
+        }
+    }
+
+    private static void writeFully(final FileChannel channel, final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void readFully(final FileChannel channel, final ByteBuffer buffer, final long position)
+            throws IOException {
+        long pos = position;
+        while (buffer.hasRemaining()) {
+            final int read = channel.read(buffer, pos);
+            if (read < 0) {
+                throw new EOFException();
+            }
+            pos += read;
+        }
+    }
+
+    private static final class Segment implements Comparable<Segment> {
+        private final long sequence;
+        private final Path path;
+        private long size;
+        private long position;
+
+        private Segment(final long sequence, final Path path, final long size) {
+            this.sequence = sequence;
+            this.path = path;
+            this.size = size;
+        }
+
+        @Override
+        public int compareTo(final Segment o) {
+            return Long.compare(sequence, o.sequence);
+        }
+    }
+}
@@ -0,0 +1,422 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ *
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.logmanager.handlers;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * An output stream which collects writes into batches and writes each batch to the delegate stream as a single,
+ * optionally compressed, length-prefixed frame.
+ * <p>
+ * A frame is a 4 byte big-endian length followed by that many bytes of payload. The payload is the batch compressed
+ * with the configured {@link Compression}. The compression is not recorded in the frame, the receiver is expected to
+ * know it.
+ * </p>
+ * <p>
+ * A batch is written once it reaches the batch size, or once the oldest data in it is older than the maximum delay.
+ * A background thread writes batches which reach the maximum delay without any further writes. Note that
+ * {@link #flush()} does not force a batch to be written early, as it is invoked after every record when the handler
+ * auto flushes.
+ * </p>
+ * <p>
+ * A failure to write a batch from the background thread is thrown from the next {@code write} or {@code flush}, so
+ * that the writer of the stream can report it.
+ * </p>
+ */
+@SuppressWarnings("WeakerAccess")
+public class FramedOutputStream extends OutputStream implements AutoCloseable, Flushable {
+
+    /**
+     * The compression applied to each frame.
+     */
+    public enum Compression {
+        /**
+         * The batch is written as is
+         */
+        NONE,
+        /**
+         * The batch is compressed in the zlib format, see {@link java.util.zip.InflaterInputStream} for reading
+         */
+        DEFLATE,
+        /**
+         * The batch is compressed in the GZIP format, see {@link java.util.zip.GZIPInputStream} for reading
+         */
+        GZIP,
+    }
+
+    /**
+     * The default size, in bytes, a batch is allowed to reach before it is written.
+     */
+    public static final int DEFAULT_BATCH_SIZE = 32 * 1024;
+
+    /**
+     * The default time, in milliseconds, data is held in a batch before it is written.
+     */
+    public static final long DEFAULT_MAX_DELAY = 1000L;
+
+    private static final int FRAME_HEADER_SIZE = Integer.BYTES;
+    private static final byte[] EMPTY_HEADER = new byte[FRAME_HEADER_SIZE];
+    // The GZIP member header, deflate method with no flags, time or extra data, and an unknown OS
+    private static final byte[] GZIP_HEADER = { 0x1f, (byte) 0x8b, Deflater.DEFLATED, 0, 0, 0, 0, 0, 0, (byte) 0xff };
+    private static final int maxErrors = 10;
+
+    private final OutputStream out;
+    private final Compression compression;
+    private final int batchSize;
+    private final long maxDelayNanos;
+    // Reused for every batch, GZIP writes its own header and trailer around the raw deflate data
+    private final Deflater deflater;
+    private final CRC32 crc;
+    private final FrameBuffer frame = new FrameBuffer();
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition batchStarted = lock.newCondition();
+    // Serializes writing the frames, so that new data can be batched while a frame is written. If both locks are
+    // needed, the lock must be acquired first.
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private final Thread flusher;
+
+    // Guarded by writeLock, the batch which is reused once the one being written is done
+    private byte[] spare;
+    private byte[] deflated;
+
+    // All the following fields are guarded by lock
+    private byte[] batch;
+    private int count;
+    private long batchStart;
+    private boolean closed;
+    // The failure of the background thread, thrown from the next write or flush
+    private IOException error;
+
+    /**
+     * Creates a new framed output stream with the {@linkplain #DEFAULT_BATCH_SIZE default batch size} and
+     * {@linkplain #DEFAULT_MAX_DELAY default maximum delay}.
+     *
+     * @param out         the stream to write the frames to
+     * @param compression the compression to apply to each frame
+     */
+    public FramedOutputStream(final OutputStream out, final Compression compression) {
+        this(out, compression, DEFAULT_BATCH_SIZE, DEFAULT_MAX_DELAY);
+    }
+
+    /**
+     * Creates a new framed output stream.
+     *
+     * @param out         the stream to write the frames to
+     * @param compression the compression to apply to each frame, {@code null} for no compression
+     * @param batchSize   the size, in bytes, a batch is allowed to reach before it is written
+     * @param maxDelay    the time, in milliseconds, data is held in a batch before it is written
+     */
+    public FramedOutputStream(final OutputStream out, final Compression compression, final int batchSize,
+            final long maxDelay) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException(String.format("The batch size must be at least 1 (%d)", batchSize));
+        }
+        if (maxDelay < 0L) {
+            throw new IllegalArgumentException(String.format("The maximum delay must not be negative (%d)", maxDelay));
+        }
+        this.out = out;
+        this.compression = compression == null ? Compression.NONE : compression;
+        this.batchSize = batchSize;
+        maxDelayNanos = TimeUnit.MILLISECONDS.toNanos(maxDelay);
+        switch (this.compression) {
+            case DEFLATE:
+                deflater = new Deflater();
+                crc = null;
+                break;
+            case GZIP:
+                deflater = new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+                crc = new CRC32();
+                break;
+            default:
+                deflater = null;
+                crc = null;
+                break;
+        }
+        batch = new byte[Math.min(batchSize, 8192)];
+        flusher = new Thread(new Flusher());
+        flusher.setDaemon(true);
+        flusher.setName("LogManager Frame Flusher Thread");
+        flusher.start();
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] b) throws IOException {
+        if (b != null) {
+            write(b, 0, b.length);
+        }
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        if (b == null || len == 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IOException("The stream has been closed");
+            }
+            if (count == 0) {
+                batchStart = System.nanoTime();
+                batchStarted.signal();
+            }
+            if (count + len > batch.length) {
+                batch = Arrays.copyOf(batch, Math.max(count + len, batch.length << 1));
+            }
+            System.arraycopy(b, off, batch, count, len);
+            count += len;
+            if (count >= batchSize) {
+                writeBatch();
+            }
+            checkError();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the current batch if it has reached the maximum delay. Otherwise the batch is left to grow.
+     *
+     * @throws IOException if writing the batch fails
+     */
+    @Override
+    public void flush() throws IOException {
+        lock.lock();
+        try {
+            if (count > 0 && System.nanoTime() - batchStart >= maxDelayNanos) {
+                writeBatch();
+            }
+            checkError();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes the current batch, if any, and closes the delegate stream. Returns once the background thread has stopped.
+     *
+     * @throws IOException if writing the batch or closing the delegate fails
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            batchStarted.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            // The flusher finishes the frame it may be writing before it stops
+            flusher.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        lock.lock();
+        try {
+            writeLock.lock();
+            try {
+                try {
+                    if (count > 0) {
+                        final int len = count;
+                        count = 0;
+                        writeFrame(batch, len);
+                    }
+                } finally {
+                    try {
+                        if (deflater != null) {
+                            deflater.end();
+                        }
+                    } finally {
+                        out.close();
+                    }
+                }
+            } finally {
+                writeLock.unlock();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Records a failure of the background thread. Invocations of this method must be locked by the {@link #lock}.
+     */
+    private void addError(final IOException e) {
+        if (error == null) {
+            error = e;
+        } else if (error.getSuppressed().length < maxErrors) {
+            error.addSuppressed(e);
+        }
+    }
+
+    /**
+     * Throws the failure of the background thread, if any. Invocations of this method must be locked by the
+     * {@link #lock}.
+     */
+    private void checkError() throws IOException {
+        final IOException error = this.error;
+        if (error != null) {
+            this.error = null;
+            throw new IOException("Failed to write a batch in the background", error);
+        }
+    }
+
+    /**
+     * Takes the current batch and writes it as a frame. Invocations of this method must be locked by the {@link #lock},
+     * which is released while the frame is written so that new data can be batched in the meantime.
+     */
+    private void writeBatch() throws IOException {
+        // Taken before the lock is released, so that the frames are written in the order the batches were taken
+        writeLock.lock();
+        final byte[] full = batch;
+        final int len = count;
+        // The batch is discarded even if the write fails, the delegate is responsible for any retries
+        count = 0;
+        batch = spare == null ? new byte[Math.min(batchSize, 8192)] : spare;
+        spare = null;
+        lock.unlock();
+        try {
+            try {
+                writeFrame(full, len);
+            } finally {
+                spare = full;
+                writeLock.unlock();
+            }
+        } finally {
+            lock.lock();
+        }
+    }
+
+    /**
+     * Compresses the data and writes it as a single frame. Invocations of this method must be locked by the
+     * {@link #writeLock}.
+     */
+    private void writeFrame(final byte[] data, final int len) throws IOException {
+        frame.reset();
+        // Reserve room for the length which is only known once the batch is compressed
+        frame.write(EMPTY_HEADER, 0, FRAME_HEADER_SIZE);
+        switch (compression) {
+            case DEFLATE:
+                deflate(data, len);
+                break;
+            case GZIP:
+                frame.write(GZIP_HEADER, 0, GZIP_HEADER.length);
+                deflate(data, len);
+                crc.reset();
+                crc.update(data, 0, len);
+                writeIntLE((int) crc.getValue());
+                writeIntLE(len);
+                break;
+            default:
+                frame.write(data, 0, len);
+                break;
+        }
+        frame.setLength(frame.size() - FRAME_HEADER_SIZE);
+        // Write the frame in a single call so it is never interleaved or split by the delegate
+        out.write(frame.buffer(), 0, frame.size());
+        out.flush();
+    }
+
+    private void deflate(final byte[] data, final int len) {
+        if (deflated == null) {
+            deflated = new byte[8192];
+        }
+        deflater.reset();
+        deflater.setInput(data, 0, len);
+        deflater.finish();
+        while (!deflater.finished()) {
+            final int n = deflater.deflate(deflated);
+            frame.write(deflated, 0, n);
+        }
+    }
+
+    private void writeIntLE(final int value) {
+        frame.write(value);
+        frame.write(value >>> 8);
+        frame.write(value >>> 16);
+        frame.write(value >>> 24);
+    }
+
+    private static final class FrameBuffer extends ByteArrayOutputStream {
+
+        FrameBuffer() {
+            super(8192);
+        }
+
+        byte[] buffer() {
+            return buf;
+        }
+
+        void setLength(final int length) {
+            buf[0] = (byte) (length >>> 24);
+            buf[1] = (byte) (length >>> 16);
+            buf[2] = (byte) (length >>> 8);
+            buf[3] = (byte) length;
+        }
+    }
+
+    private class Flusher implements Runnable {
+
+        @Override
+        public void run() {
+            lock.lock();
+            try {
+                while (!closed) {
+                    if (count == 0) {
+                        batchStarted.await();
+                        continue;
+                    }
+                    final long remaining = batchStart + maxDelayNanos - System.nanoTime();
+                    if (remaining > 0L) {
+                        batchStarted.awaitNanos(remaining);
+                        continue;
+                    }
+                    try {
+                        writeBatch();
+                    } catch (IOException e) {
+                        addError(e);
+                    }
+                }
+            } catch (InterruptedException ignore) {
+                // exit
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+}
@@ -19,8 +19,11 @@
 
 package org.jboss.logmanager.handlers;
 
-import java.util.ArrayDeque;
-import java.util.Deque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.StampedLock;
 import java.util.logging.ErrorManager;
 import java.util.logging.Formatter;
 import java.util.logging.Handler;
@@ -35,17 +38,24 @@ import io.smallrye.common.constraint.Assert;
  * A queue handler which retains the last few messages logged. The handler can be used as-is to remember recent
  * messages, or one or more handlers may be nested, which allows this handler to "replay" messages to the child
  * handler(s) upon request.
+ * <p>
+ * The retained messages are kept in a ring which overwrites the oldest message, and nested handlers are invoked
+ * without holding the lock of this handler. Threads logging concurrently are therefore not serialized by this handler.
+ * </p>
  *
  * @author <a href="mailto:david.lloyd@redhat.com">David M. Lloyd</a>
  */
 public class QueueHandler extends ExtHandler {
-    private final Deque<ExtLogRecord> buffer = new ArrayDeque<ExtLogRecord>();
-    private int limit = 10;
+    private final ThreadLocal<Boolean> publishing = new ThreadLocal<>();
+    // Held shared while publishing and exclusively while a handler is added with a replay of the queue
+    private final StampedLock replayLock = new StampedLock();
+    private volatile Ring buffer;
 
     /**
      * Construct a new instance with a default queue length.
      */
     public QueueHandler() {
+        buffer = new Ring(10);
     }
 
     /**
@@ -57,7 +67,7 @@ public class QueueHandler extends ExtHandler {
         if (limit < 1) {
             throw badQueueLength();
         }
-        this.limit = limit;
+        buffer = new Ring(limit);
     }
 
     public void publish(final ExtLogRecord record) {
@@ -74,10 +84,11 @@ public class QueueHandler extends ExtHandler {
 
     protected void doPublish(final ExtLogRecord record) {
         // avoid reentrancy, which will generally cause a stack overflow
-        if (lock.isHeldByCurrentThread()) {
+        if (publishing.get() == Boolean.TRUE) {
             return;
         }
-        lock.lock();
+        publishing.set(Boolean.TRUE);
+        final long stamp = replayLock.readLock();
         try {
             if (isLoggable(record)) {
                 // Determine if we need to calculate the caller information before we queue the record
@@ -90,14 +101,12 @@ public class QueueHandler extends ExtHandler {
                     // Copy the MDC over
                     record.copyMdc();
                 }
-                if (buffer.size() == limit) {
-                    buffer.removeFirst();
-                }
-                buffer.addLast(record);
+                buffer.add(record);
             }
             publishToNestedHandlers(record);
         } finally {
-            lock.unlock();
+            replayLock.unlockRead(stamp);
+            publishing.remove();
         }
     }
 
@@ -108,17 +117,16 @@ public class QueueHandler extends ExtHandler {
      * @return the queue length limit
      */
     public int getLimit() {
-        lock.lock();
-        try {
-            return limit;
-        } finally {
-            lock.unlock();
-        }
+        return buffer.capacity;
     }
 
     /**
      * Set the queue length limit. This is the number of messages that will be saved before old messages roll off
      * of the queue.
+     * <p>
+     * The most recent messages are kept. Messages logged while the limit is being changed may be missing from the
+     * queue.
+     * </p>
      *
      * @param limit the queue length limit
      */
@@ -128,7 +136,12 @@ public class QueueHandler extends ExtHandler {
         }
         lock.lock();
         try {
-            this.limit = limit;
+            final Ring newBuffer = new Ring(limit);
+            final ExtLogRecord[] queue = buffer.snapshot();
+            for (int i = Math.max(0, queue.length - limit); i < queue.length; i++) {
+                newBuffer.add(queue[i]);
+            }
+            buffer = newBuffer;
         } finally {
             lock.unlock();
         }
@@ -143,21 +156,34 @@ public class QueueHandler extends ExtHandler {
      * Add the given handler, optionally atomically replaying the queue, allowing the delegate handler to receive
      * all queued messages as well as all subsequent messages with no loss or reorder in between.
      *
+     * <p>
+     * A handler cannot be added with a replay by a nested handler while it publishes a record of this handler, as
+     * publishing would have to complete first.
+     * </p>
+     *
      * @param handler the handler to add (must not be {@code null})
      * @param replay  {@code true} to replay the prior messages, or {@code false} to add the handler without replaying
-     * @throws SecurityException if the handler was not allowed to be added
+     * @throws SecurityException     if the handler was not allowed to be added
+     * @throws IllegalStateException if a replay is requested while the current thread publishes to this handler
      */
     public void addHandler(Handler handler, boolean replay) throws SecurityException {
         Assert.checkNotNullParam("handler", handler);
         if (replay) {
-            lock.lock();
+            // the replay lock is not reentrant, so this thread would wait for itself to stop publishing
+            if (publishing.get() == Boolean.TRUE) {
+                throw new IllegalStateException("Cannot add a handler with a replay while publishing to the queue");
+            }
+            // messages logged to this handler by the replayed handler are dropped, as they are while publishing
+            publishing.set(Boolean.TRUE);
+            final long stamp = replayLock.writeLock();
             try {
                 super.addHandler(handler);
-                for (ExtLogRecord record : buffer) {
+                for (ExtLogRecord record : buffer.snapshot()) {
                     handler.publish(record);
                 }
             } finally {
-                lock.unlock();
+                replayLock.unlockWrite(stamp);
+                publishing.remove();
             }
         } else {
             super.addHandler(handler);
@@ -165,17 +191,13 @@ public class QueueHandler extends ExtHandler {
     }
 
     /**
-     * Get a copy of the queue as it is at an exact moment in time.
+     * Get a copy of the queue as it is at an exact moment in time. The records are in the order they were logged,
+     * records which are still being added to the queue are not included.
      *
      * @return the copy of the queue
      */
     public ExtLogRecord[] getQueue() {
-        lock.lock();
-        try {
-            return buffer.toArray(ExtLogRecord[]::new);
-        } finally {
-            lock.unlock();
-        }
+        return buffer.snapshot();
     }
 
     /**
@@ -218,4 +240,55 @@ public class QueueHandler extends ExtHandler {
     private static IllegalArgumentException badQueueLength() {
         return new IllegalArgumentException("Queue length must be at least 1");
     }
+
+    /**
+     * A bounded ring of records which overwrites the oldest record once it is full. Each record is tagged with its
+     * sequence number, which allows a snapshot to skip slots which have been overwritten or are still being written.
+     */
+    private static final class Ring {
+        private final int capacity;
+        private final AtomicReferenceArray<Entry> slots;
+        private final AtomicLong next = new AtomicLong();
+
+        Ring(final int capacity) {
+            this.capacity = capacity;
+            slots = new AtomicReferenceArray<>(capacity);
+        }
+
+        void add(final ExtLogRecord record) {
+            final long sequence = next.getAndIncrement();
+            final Entry entry = new Entry(sequence, record);
+            final int idx = (int) (sequence % capacity);
+            Entry current = slots.get(idx);
+            // a slow writer must not replace a newer record which was added after it wrapped around
+            while (current == null || current.sequence < sequence) {
+                if (slots.compareAndSet(idx, current, entry)) {
+                    return;
+                }
+                current = slots.get(idx);
+            }
+        }
+
+        ExtLogRecord[] snapshot() {
+            final long end = next.get();
+            final List<ExtLogRecord> records = new ArrayList<>(capacity);
+            for (long sequence = Math.max(0L, end - capacity); sequence < end; sequence++) {
+                final Entry entry = slots.get((int) (sequence % capacity));
+                if (entry != null && entry.sequence == sequence) {
+                    records.add(entry.record);
+                }
+            }
+            return records.toArray(ExtLogRecord[]::new);
+        }
+    }
+
+    private static final class Entry {
+        private final long sequence;
+        private final ExtLogRecord record;
+
+        Entry(final long sequence, final ExtLogRecord record) {
+            this.sequence = sequence;
+            this.record = record;
+        }
+    }
 }
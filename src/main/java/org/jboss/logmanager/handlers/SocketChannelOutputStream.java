@@ -0,0 +1,572 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ *
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.logmanager.handlers;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.SocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedSelectorException;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * An output stream that writes data to a non-blocking {@link SocketChannel socket channel}.
+ * <p/>
+ * Writes are copied into a bounded in-memory send buffer and a background thread, driven by a {@link Selector},
+ * writes the buffered data to the channel. A slow or unreachable collector therefore does not slow down the threads
+ * writing to the stream. Each {@code write} call is treated as one message, which is either buffered whole or dropped
+ * whole. Writers which need the overflow policy to keep the framing of the data intact should therefore write one
+ * complete record per call. When there is not enough room in the send buffer for a message the
+ * {@link OverflowPolicy overflow policy} decides what happens. A message larger than the send buffer is always dropped.
+ * <p/>
+ * If an {@link IOException IOException} occurs while writing to the channel the connection is closed and the stream
+ * will attempt to reconnect indefinitely. Messages continue to be buffered while disconnected. Any data which was
+ * already handed to the channel for the failed connection is discarded and counted as {@linkplain #getBytesDropped()
+ * dropped}.
+ * <p/>
+ * You can optionally get a collection of the errors that occurred during a write or reconnect.
+ */
+@SuppressWarnings("WeakerAccess")
+public class SocketChannelOutputStream extends OutputStream implements AutoCloseable, Flushable {
+
+    /**
+     * What to do when a message does not fit in the send buffer.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Block the writing thread until there is room in the send buffer.
+         */
+        BLOCK,
+        /**
+         * Discard the oldest buffered messages until there is room for the new message.
+         */
+        DROP_OLDEST,
+        /**
+         * Discard the new message.
+         */
+        DROP_NEWEST,
+    }
+
+    /**
+     * The default size, in bytes, of the send buffer.
+     */
+    public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+
+    private static final long retryTimeout = 5L;
+    private static final long maxRetryTimeout = 40L;
+    private static final long closeTimeout = 5L;
+    private static final int maxErrors = 10;
+    // The size of the channel write buffer, larger messages are written from a copy of their own
+    private static final int maxChunkSize = 64 * 1024;
+
+    private final ClientSocketFactory socketFactory;
+    private final SocketAddress socketAddress;
+    private final Selector selector;
+    private final Thread writerThread;
+    private final Deque<Exception> errors = new ArrayDeque<>(maxErrors);
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition notFull = lock.newCondition();
+    // Guarded by lock
+    private final byte[] buffer;
+    // Guarded by lock
+    private int head;
+    // Guarded by lock
+    private int size;
+    // Guarded by lock, the lengths of the buffered messages in order
+    private final int[] lengths;
+    // Guarded by lock
+    private int lengthsHead;
+    // Guarded by lock
+    private int lengthsCount;
+    // Guarded by lock
+    private OverflowPolicy overflowPolicy;
+    // Guarded by lock
+    private long bytesDropped;
+    // Guarded by lock
+    private int inFlight;
+    // Guarded by lock
+    private boolean writerIdle;
+
+    private volatile boolean connected;
+    private volatile boolean closed;
+
+    /**
+     * Creates a new socket channel output stream with a {@linkplain #DEFAULT_BUFFER_SIZE default buffer size} which
+     * {@linkplain OverflowPolicy#BLOCK blocks} when the buffer is full.
+     *
+     * @param socketFactory the factory used to create the channel and determine the address to connect to
+     *
+     * @throws IOException if the selector could not be opened
+     */
+    public SocketChannelOutputStream(final ClientSocketFactory socketFactory) throws IOException {
+        this(socketFactory, DEFAULT_BUFFER_SIZE, OverflowPolicy.BLOCK);
+    }
+
+    /**
+     * Creates a new socket channel output stream.
+     * <p/>
+     * The connection is established asynchronously. A failure to connect does not fail the construction of the
+     * stream, instead the connection is retried in the background.
+     *
+     * @param socketFactory  the factory used to create the channel and determine the address to connect to
+     * @param bufferSize     the size, in bytes, of the send buffer
+     * @param overflowPolicy the policy used when the send buffer is full, {@code null} for
+     *                       {@link OverflowPolicy#BLOCK BLOCK}
+     *
+     * @throws IOException if the selector could not be opened
+     */
+    public SocketChannelOutputStream(final ClientSocketFactory socketFactory, final int bufferSize,
+            final OverflowPolicy overflowPolicy) throws IOException {
+        if (bufferSize < 1) {
+            throw new IllegalArgumentException(String.format("The buffer size must be at least 1 (%d)", bufferSize));
+        }
+        this.socketFactory = socketFactory;
+        this.overflowPolicy = overflowPolicy == null ? OverflowPolicy.BLOCK : overflowPolicy;
+        socketAddress = socketFactory.getSocketAddress();
+        buffer = new byte[bufferSize];
+        // Log messages are rarely shorter than 32 bytes, running out of lengths is handled like running out of space
+        lengths = new int[Math.max(16, bufferSize >>> 5)];
+        selector = Selector.open();
+        writerThread = new Thread(new ChannelWriter());
+        writerThread.setDaemon(true);
+        writerThread.setName("LogManager Socket Channel Writer Thread");
+        writerThread.start();
+    }
+
+    @Override
+    public void write(final int b) throws IOException {
+        write(new byte[] { (byte) b }, 0, 1);
+    }
+
+    @Override
+    public void write(final byte[] b) throws IOException {
+        write(b, 0, b.length);
+    }
+
+    @Override
+    public void write(final byte[] b, final int off, final int len) throws IOException {
+        if (len == 0) {
+            return;
+        }
+        lock.lock();
+        try {
+            // The whole message is reserved at once, so only whole messages are ever dropped
+            if (len > buffer.length || !reserve(len)) {
+                bytesDropped += len;
+                return;
+            }
+            append(b, off, len);
+            if (writerIdle) {
+                writerIdle = false;
+                selector.wakeup();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Does not wait for buffered data to be written, this only wakes up the writer thread. Waiting would make every
+     * write synchronous again for handlers which flush after each record.
+     */
+    @Override
+    public void flush() {
+        selector.wakeup();
+    }
+
+    /**
+     * Closes the stream. Buffered data is given a short grace period to be written if the stream is connected.
+     *
+     * @throws IOException if an error occurs closing the selector
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        selector.wakeup();
+        try {
+            writerThread.join(TimeUnit.SECONDS.toMillis(closeTimeout));
+            if (writerThread.isAlive()) {
+                writerThread.interrupt();
+                writerThread.join(TimeUnit.SECONDS.toMillis(1L));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } finally {
+            selector.close();
+        }
+    }
+
+    /**
+     * Returns the policy used when a message does not fit in the send buffer.
+     *
+     * @return the overflow policy
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        lock.lock();
+        try {
+            return overflowPolicy;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the policy used when a message does not fit in the send buffer.
+     *
+     * @param overflowPolicy the overflow policy, {@code null} for {@link OverflowPolicy#BLOCK BLOCK}
+     */
+    public void setOverflowPolicy(final OverflowPolicy overflowPolicy) {
+        lock.lock();
+        try {
+            this.overflowPolicy = overflowPolicy == null ? OverflowPolicy.BLOCK : overflowPolicy;
+            notFull.signalAll();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of bytes which have been written to this stream, but not yet to the channel.
+     *
+     * @return the number of buffered bytes
+     */
+    public long getBytesBuffered() {
+        lock.lock();
+        try {
+            return (long) size + inFlight;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the total number of bytes which were discarded, either because of the {@link OverflowPolicy overflow
+     * policy} or because the connection failed while they were being written.
+     *
+     * @return the number of dropped bytes
+     */
+    public long getBytesDropped() {
+        lock.lock();
+        try {
+            return bytesDropped;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the connected state of the channel.
+     *
+     * @return {@code true} if the channel is connected, otherwise {@code false}
+     */
+    public boolean isConnected() {
+        return connected;
+    }
+
+    /**
+     * Retrieves the errors occurred, if any, during a write or reconnect.
+     *
+     * @return a collection of errors or an empty list
+     */
+    public Collection<Exception> getErrors() {
+        synchronized (errors) {
+            if (!errors.isEmpty()) {
+                // drain the errors and return a list
+                final List<Exception> result = new ArrayList<>(errors);
+                errors.clear();
+                return result;
+            }
+        }
+        return Collections.emptyList();
+    }
+
+    private void addError(final Exception e) {
+        synchronized (errors) {
+            if (errors.size() < maxErrors) {
+                errors.addLast(e);
+            }
+        }
+    }
+
+    /**
+     * Makes room for a message of the given length according to the overflow policy. Invocations of this method must
+     * be locked by the {@link #lock}.
+     *
+     * @return {@code true} if there is room for the message, {@code false} if the message should be dropped
+     */
+    private boolean reserve(final int len) throws IOException {
+        while (!hasRoom(len)) {
+            if (closed) {
+                return false;
+            }
+            switch (overflowPolicy) {
+                case BLOCK:
+                    try {
+                        if (writerIdle) {
+                            writerIdle = false;
+                            selector.wakeup();
+                        }
+                        notFull.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        return false;
+                    }
+                    break;
+                case DROP_OLDEST:
+                    if (lengthsCount == 0) {
+                        // Nothing left to drop, everything is in flight
+                        return false;
+                    }
+                    final int dropped = removeFirst();
+                    head = (head + dropped) % buffer.length;
+                    size -= dropped;
+                    bytesDropped += dropped;
+                    break;
+                default:
+                    return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean hasRoom(final int len) {
+        return buffer.length - size >= len && lengthsCount < lengths.length;
+    }
+
+    private void append(final byte[] b, final int off, final int len) {
+        final int tail = (head + size) % buffer.length;
+        final int first = Math.min(len, buffer.length - tail);
+        System.arraycopy(b, off, buffer, tail, first);
+        if (first < len) {
+            System.arraycopy(b, off + first, buffer, 0, len - first);
+        }
+        size += len;
+        lengths[(lengthsHead + lengthsCount++) % lengths.length] = len;
+    }
+
+    private int removeFirst() {
+        final int len = lengths[lengthsHead];
+        lengthsHead = (lengthsHead + 1) % lengths.length;
+        lengthsCount--;
+        return len;
+    }
+
+    private static void safeClose(final Closeable closeable) {
+        if (closeable != null)
+            try {
+                closeable.close();
+            } catch (Exception ignore) {
+            }
+    }
+
+    private class ChannelWriter implements Runnable {
+        private final ByteBuffer chunkBuffer = ByteBuffer.allocateDirect(Math.min(maxChunkSize, buffer.length));
+        // the buffer being written, either the chunk buffer or a copy of a single message larger than it
+        private ByteBuffer sendBuffer = chunkBuffer;
+        private SocketChannel channel;
+        private SelectionKey key;
+        private int attempts;
+
+        @Override
+        public void run() {
+            sendBuffer.flip();
+            try {
+                while (!Thread.currentThread().isInterrupted()) {
+                    if (channel == null) {
+                        if (closed || !connect()) {
+                            if (closed) {
+                                break;
+                            }
+                            continue;
+                        }
+                    }
+                    if (!sendBuffer.hasRemaining() && !fill()) {
+                        if (closed) {
+                            break;
+                        }
+                        select(0L);
+                        continue;
+                    }
+                    try {
+                        channel.write(sendBuffer);
+                        if (sendBuffer.hasRemaining()) {
+                            key.interestOps(SelectionKey.OP_WRITE);
+                            select(TimeUnit.SECONDS.toMillis(1L));
+                            key.interestOps(0);
+                        }
+                        updateInFlight();
+                    } catch (IOException e) {
+                        if (!closed) {
+                            addError(e);
+                        }
+                        disconnect();
+                    }
+                }
+            } catch (IOException e) {
+                addError(e);
+            } catch (ClosedSelectorException ignore) {
+                // The stream was forcibly closed
+            } finally {
+                disconnect();
+                lock.lock();
+                try {
+                    // Anything still buffered will never be written
+                    bytesDropped += size;
+                    head = size = 0;
+                    lengthsHead = lengthsCount = 0;
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        /**
+         * Moves whole messages from the send buffer into the channel buffer.
+         *
+         * @return {@code true} if there is data to write, otherwise {@code false}
+         */
+        private boolean fill() {
+            sendBuffer = chunkBuffer;
+            sendBuffer.clear();
+            lock.lock();
+            try {
+                if (lengthsCount > 0 && lengths[lengthsHead] > sendBuffer.capacity()) {
+                    sendBuffer = ByteBuffer.allocate(lengths[lengthsHead]);
+                }
+                while (lengthsCount > 0 && lengths[lengthsHead] <= sendBuffer.remaining()) {
+                    final int len = removeFirst();
+                    final int first = Math.min(len, buffer.length - head);
+                    sendBuffer.put(buffer, head, first);
+                    if (first < len) {
+                        sendBuffer.put(buffer, 0, len - first);
+                    }
+                    head = (head + len) % buffer.length;
+                    size -= len;
+                }
+                inFlight = sendBuffer.position();
+                if (inFlight > 0) {
+                    notFull.signalAll();
+                } else {
+                    writerIdle = true;
+                }
+            } finally {
+                lock.unlock();
+            }
+            sendBuffer.flip();
+            return sendBuffer.hasRemaining();
+        }
+
+        private void updateInFlight() {
+            lock.lock();
+            try {
+                inFlight = sendBuffer.remaining();
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private boolean connect() throws IOException {
+            SocketChannel channel = null;
+            try {
+                channel = socketFactory.createSocketChannel();
+                channel.configureBlocking(false);
+                final SelectionKey key = channel.register(selector, SelectionKey.OP_CONNECT);
+                if (!channel.connect(socketAddress)) {
+                    while (!channel.finishConnect()) {
+                        if (closed) {
+                            safeClose(channel);
+                            return false;
+                        }
+                        select(TimeUnit.SECONDS.toMillis(1L));
+                    }
+                }
+                key.interestOps(0);
+                this.channel = channel;
+                this.key = key;
+                attempts = 0;
+                connected = true;
+                return true;
+            } catch (IOException e) {
+                safeClose(channel);
+                addError(e);
+                final long timeout;
+                if (attempts++ > 0L) {
+                    timeout = (10L * attempts);
+                } else {
+                    timeout = retryTimeout;
+                }
+                // Wait for a bit, then try to reconnect
+                final long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(Math.min(timeout, maxRetryTimeout));
+                long remaining;
+                while (!closed && (remaining = deadline - System.nanoTime()) > 0L) {
+                    select(Math.max(1L, TimeUnit.NANOSECONDS.toMillis(remaining)));
+                }
+                return false;
+            }
+        }
+
+        private void disconnect() {
+            connected = false;
+            if (channel != null) {
+                safeClose(channel);
+                channel = null;
+                key = null;
+            }
+            if (sendBuffer.hasRemaining()) {
+                lock.lock();
+                try {
+                    bytesDropped += sendBuffer.remaining();
+                    inFlight = 0;
+                } finally {
+                    lock.unlock();
+                }
+                sendBuffer.position(sendBuffer.limit());
+            }
+        }
+
+        private void select(final long timeout) throws IOException {
+            selector.select(timeout);
+            selector.selectedKeys().clear();
+        }
+    }
+}
@@ -28,6 +28,11 @@ import java.io.UnsupportedEncodingException;
 import java.io.Writer;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.logging.ErrorManager;
 import java.util.logging.Formatter;
 
@@ -36,9 +41,22 @@ import javax.net.ssl.SSLSocketFactory;
 
 import org.jboss.logmanager.ExtHandler;
 import org.jboss.logmanager.ExtLogRecord;
+import org.jboss.logmanager.handlers.FramedOutputStream.Compression;
+import org.jboss.logmanager.handlers.SocketChannelOutputStream.OverflowPolicy;
 
 /**
  * A handler used to communicate over a socket.
+ * <p>
+ * By default all records are written to a single connection. If the {@linkplain #setConnectionCount(int) connection
+ * count} is greater than 1, that many connections are opened and records are spread across them according to the
+ * {@linkplain #setDistribution(Distribution) distribution}. Each connection is written to and reconnects independently
+ * of the others, so writes to different connections can happen in parallel.
+ * </p>
+ * <p>
+ * If the {@linkplain #setBatchSize(int) batch size} is greater than 0, records sent over {@linkplain Protocol#TCP TCP}
+ * or {@linkplain Protocol#SSL_TCP SSL TCP} are collected into batches and each batch is written as a compressed,
+ * length-prefixed frame. See {@link FramedOutputStream} for the format.
+ * </p>
  *
  * @author <a href="mailto:jperkins@redhat.com">James R. Perkins</a>
  */
@@ -63,9 +81,32 @@ public class SocketHandler extends ExtHandler {
         SSL_TCP,
     }
 
+    /**
+     * How records are spread across the connections when the {@linkplain #setConnectionCount(int) connection count} is
+     * greater than 1.
+     */
+    public enum Distribution {
+        /**
+         * Each record is written to the next connection in turn
+         */
+        ROUND_ROBIN,
+        /**
+         * Records are assigned a connection based on a hash of the logger name. Records from the same logger are always
+         * written to the same connection and therefore stay in order.
+         */
+        LOGGER_NAME,
+        /**
+         * Records are assigned a connection based on the thread which logged them. Records from the same thread are
+         * always written to the same connection and therefore stay in order.
+         */
+        THREAD,
+    }
+
     @SuppressWarnings("WeakerAccess")
     public static final int DEFAULT_PORT = 4560;
 
+    private static final Connection[] NO_CONNECTIONS = new Connection[0];
+
     // All the following fields are guarded by outputLock
     private ClientSocketFactory clientSocketFactory;
     private SocketFactory socketFactory;
@@ -73,7 +114,17 @@ public class SocketHandler extends ExtHandler {
     private int port;
     private Protocol protocol;
     private boolean blockOnReconnect;
-    private Writer writer;
+    private int sendBufferSize;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+    private String spoolDirectory;
+    private long spoolMaxSize = DiskSpool.DEFAULT_MAX_SIZE;
+    private int connectionCount = 1;
+    private Distribution distribution = Distribution.ROUND_ROBIN;
+    private int batchSize;
+    private long batchDelay = FramedOutputStream.DEFAULT_MAX_DELAY;
+    private Compression compression = Compression.GZIP;
+    private volatile Connection[] connections = NO_CONNECTIONS;
+    private final AtomicInteger nextConnection = new AtomicInteger();
     private boolean initialize;
 
     /**
@@ -170,7 +221,6 @@ public class SocketHandler extends ExtHandler {
         this.port = port;
         this.protocol = (protocol == null ? Protocol.TCP : protocol);
         initialize = true;
-        writer = null;
         blockOnReconnect = false;
     }
 
@@ -188,7 +238,6 @@ public class SocketHandler extends ExtHandler {
         }
         this.protocol = (protocol == null ? Protocol.TCP : protocol);
         initialize = true;
-        writer = null;
         blockOnReconnect = false;
     }
 
@@ -211,32 +260,73 @@ public class SocketHandler extends ExtHandler {
             return;
         }
         try {
-            lock.lock();
-            try {
-                if (initialize) {
-                    initialize();
-                    initialize = false;
+            for (;;) {
+                final Connection connection;
+                lock.lock();
+                try {
+                    if (initialize) {
+                        initialize();
+                        initialize = false;
+                    }
+                    connection = selectConnection(record);
+                } finally {
+                    lock.unlock();
                 }
-                if (writer == null) {
+                if (connection == null || connection.lock.isHeldByCurrentThread()) {
                     return;
                 }
-                writer.write(formatted);
-                super.doPublish(record);
-            } finally {
-                lock.unlock();
+                // Only the selected connection is locked for the write, other connections can be written to in parallel
+                connection.lock.lock();
+                try {
+                    if (connection.closed) {
+                        // The connections were replaced after this one was selected, select again
+                        continue;
+                    }
+                    if (connection.recordStream != null) {
+                        // One write per record, so that the overflow policy only ever drops whole records
+                        connection.recordStream.write(formatted.getBytes(connection.charset));
+                    } else {
+                        connection.writer.write(formatted);
+                    }
+                    if (isAutoFlush()) {
+                        flushConnection(connection.writer);
+                    }
+                } finally {
+                    connection.lock.unlock();
+                }
+                break;
+            }
+            if (isAutoFlush()) {
+                // The other connections are left alone, only the nested handlers are flushed
+                super.flush();
             }
         } catch (Exception e) {
             reportError("Error writing log message", e, ErrorManager.WRITE_FAILURE);
         }
     }
 
+    /**
+     * Flushes the connection a record was just written to, if {@linkplain #setAutoFlush(boolean) auto flush} is
+     * enabled. This is invoked while only that connection is locked, so that records can be written to and flushed on
+     * the other connections in parallel.
+     *
+     * @param writer the writer of the connection
+     */
+    protected void flushConnection(final Writer writer) {
+        safeFlush(writer);
+    }
+
     @Override
     public void flush() {
-        lock.lock();
-        try {
-            safeFlush(writer);
-        } finally {
-            lock.unlock();
+        for (Connection connection : connections) {
+            connection.lock.lock();
+            try {
+                if (!connection.closed) {
+                    safeFlush(connection.writer);
+                }
+            } finally {
+                connection.lock.unlock();
+            }
         }
         super.flush();
     }
@@ -246,8 +336,7 @@ public class SocketHandler extends ExtHandler {
         checkAccess();
         lock.lock();
         try {
-            safeClose(writer);
-            writer = null;
+            closeConnections(false);
             initialize = true;
         } finally {
             lock.unlock();
@@ -336,6 +425,365 @@ public class SocketHandler extends ExtHandler {
         }
     }
 
+    /**
+     * Returns the size, in bytes, of the in-memory send buffer used for {@linkplain Protocol#TCP TCP} connections.
+     *
+     * @return the send buffer size or 0 if TCP connections are written to directly
+     */
+    public int getSendBufferSize() {
+        lock.lock();
+        try {
+            return sendBufferSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the size, in bytes, of the in-memory send buffer used for {@linkplain Protocol#TCP TCP} connections.
+     * <p>
+     * If greater than 0, records are written to a {@link SocketChannelOutputStream} which buffers the data and writes it
+     * to a non-blocking channel from a background thread. What happens when the buffer is full is determined by the
+     * {@linkplain #setOverflowPolicy(OverflowPolicy) overflow policy}. The
+     * {@linkplain #setBlockOnReconnect(boolean) block on reconnect} setting does not apply to buffered connections.
+     * {@linkplain Protocol#SSL_TCP SSL TCP} connections are always written to directly.
+     * </p>
+     *
+     * @param sendBufferSize the send buffer size or 0 to write to TCP connections directly
+     */
+    public void setSendBufferSize(final int sendBufferSize) {
+        checkAccess();
+        lock.lock();
+        try {
+            final int size = Math.max(0, sendBufferSize);
+            if (this.sendBufferSize != size) {
+                initialize = true;
+            }
+            this.sendBufferSize = size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the policy used when the {@linkplain #setSendBufferSize(int) send buffer} is full.
+     *
+     * @return the overflow policy
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        lock.lock();
+        try {
+            return overflowPolicy;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the policy used when the {@linkplain #setSendBufferSize(int) send buffer} is full. If the value is
+     * {@code null} the policy will be set to {@linkplain OverflowPolicy#BLOCK BLOCK}.
+     *
+     * @param overflowPolicy the overflow policy
+     */
+    public void setOverflowPolicy(final OverflowPolicy overflowPolicy) {
+        checkAccess();
+        lock.lock();
+        try {
+            this.overflowPolicy = overflowPolicy == null ? OverflowPolicy.BLOCK : overflowPolicy;
+            for (Connection connection : connections) {
+                if (connection.channelOutputStream != null) {
+                    connection.channelOutputStream.setOverflowPolicy(this.overflowPolicy);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of bytes waiting in the {@linkplain #setSendBufferSize(int) send buffers} of all connections.
+     *
+     * @return the number of buffered bytes or 0 if no send buffer is in use
+     */
+    public long getBytesBuffered() {
+        long result = 0L;
+        for (Connection connection : connections) {
+            if (connection.channelOutputStream != null) {
+                result += connection.channelOutputStream.getBytesBuffered();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of bytes the {@linkplain #setSendBufferSize(int) send buffers} have discarded for the current
+     * connections.
+     *
+     * @return the number of dropped bytes or 0 if no send buffer is in use
+     */
+    public long getBytesDropped() {
+        long result = 0L;
+        for (Connection connection : connections) {
+            if (connection.channelOutputStream != null) {
+                result += connection.channelOutputStream.getBytesDropped();
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the directory used to spool records while a TCP connection is down.
+     *
+     * @return the spool directory or {@code null} if records written while reconnecting are discarded
+     */
+    public String getSpoolDirectory() {
+        lock.lock();
+        try {
+            return spoolDirectory;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the directory used to spool records while a TCP connection is down.
+     * <p>
+     * If set, records written while the connection is being re-established are appended to a {@link DiskSpool} in this
+     * directory instead of being discarded. Once reconnected the spooled records are sent, in order, before any new
+     * records. Records left in the directory from a previous run are sent as well. If there is more than one
+     * {@linkplain #setConnectionCount(int) connection}, each connection is given its own numbered subdirectory. The
+     * spool is only used for
+     * {@linkplain Protocol#TCP TCP} and {@linkplain Protocol#SSL_TCP SSL TCP} connections which are written to directly,
+     * that is when the {@linkplain #setSendBufferSize(int) send buffer size} is 0.
+     * </p>
+     *
+     * @param spoolDirectory the spool directory or {@code null} to discard records written while reconnecting
+     */
+    public void setSpoolDirectory(final String spoolDirectory) {
+        checkAccess();
+        lock.lock();
+        try {
+            this.spoolDirectory = spoolDirectory;
+            initialize = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the maximum size, in bytes, of the {@linkplain #setSpoolDirectory(String) spool}.
+     *
+     * @return the maximum spool size
+     */
+    public long getSpoolMaxSize() {
+        lock.lock();
+        try {
+            return spoolMaxSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the maximum size, in bytes, of the {@linkplain #setSpoolDirectory(String) spool}. Once reached the oldest
+     * spooled records are discarded to make room for new ones.
+     *
+     * @param spoolMaxSize the maximum spool size
+     */
+    public void setSpoolMaxSize(final long spoolMaxSize) {
+        checkAccess();
+        lock.lock();
+        try {
+            if (this.spoolMaxSize != spoolMaxSize) {
+                initialize = true;
+            }
+            this.spoolMaxSize = spoolMaxSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of connections records are spread across.
+     *
+     * @return the number of connections
+     */
+    public int getConnectionCount() {
+        lock.lock();
+        try {
+            return connectionCount;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the number of connections records are spread across. Each connection writes to its own socket and reconnects
+     * independently of the others. Values less than 1 are treated as 1.
+     * <p>
+     * Note that records are only guaranteed to be received in the order they were written when there is a single
+     * connection, or within a logger or thread if the {@linkplain #setDistribution(Distribution) distribution} is
+     * {@link Distribution#LOGGER_NAME LOGGER_NAME} or {@link Distribution#THREAD THREAD} respectively.
+     * </p>
+     *
+     * @param connectionCount the number of connections
+     */
+    public void setConnectionCount(final int connectionCount) {
+        checkAccess();
+        lock.lock();
+        try {
+            final int count = Math.max(1, connectionCount);
+            if (this.connectionCount != count) {
+                initialize = true;
+            }
+            this.connectionCount = count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns how records are spread across the {@linkplain #setConnectionCount(int) connections}.
+     *
+     * @return the distribution
+     */
+    public Distribution getDistribution() {
+        lock.lock();
+        try {
+            return distribution;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets how records are spread across the {@linkplain #setConnectionCount(int) connections}. If the value is
+     * {@code null} the distribution will be set to {@link Distribution#ROUND_ROBIN ROUND_ROBIN}.
+     *
+     * @param distribution the distribution
+     */
+    public void setDistribution(final Distribution distribution) {
+        checkAccess();
+        lock.lock();
+        try {
+            this.distribution = distribution == null ? Distribution.ROUND_ROBIN : distribution;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the size, in bytes, a batch of records is allowed to reach before it is written as a frame.
+     *
+     * @return the batch size or 0 if records are not batched
+     */
+    public int getBatchSize() {
+        lock.lock();
+        try {
+            return batchSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the size, in bytes, a batch of records is allowed to reach before it is written as a frame.
+     * <p>
+     * If greater than 0, records sent over {@linkplain Protocol#TCP TCP} or {@linkplain Protocol#SSL_TCP SSL TCP} are
+     * written to a {@link FramedOutputStream}. Each batch is {@linkplain #setCompression(Compression) compressed} and
+     * written as a single length-prefixed frame once it reaches this size or the {@linkplain #setBatchDelay(long) batch
+     * delay} has passed. The receiver must understand the framed format. {@linkplain Protocol#UDP UDP} records are never
+     * batched.
+     * </p>
+     * <p>
+     * When used with a {@linkplain #setSendBufferSize(int) send buffer} the batch size should be kept well below the
+     * send buffer size, as a frame which does not fit in the buffer is dropped as a whole.
+     * </p>
+     *
+     * @param batchSize the batch size or 0 to write records as plain text
+     */
+    public void setBatchSize(final int batchSize) {
+        checkAccess();
+        lock.lock();
+        try {
+            final int size = Math.max(0, batchSize);
+            if (this.batchSize != size) {
+                initialize = true;
+            }
+            this.batchSize = size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the time, in milliseconds, records are held in a batch before it is written.
+     *
+     * @return the batch delay
+     */
+    public long getBatchDelay() {
+        lock.lock();
+        try {
+            return batchDelay;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the time, in milliseconds, records are held in a {@linkplain #setBatchSize(int) batch} before it is written,
+     * even if the batch size has not been reached.
+     *
+     * @param batchDelay the batch delay
+     */
+    public void setBatchDelay(final long batchDelay) {
+        checkAccess();
+        lock.lock();
+        try {
+            final long delay = Math.max(0L, batchDelay);
+            if (this.batchDelay != delay) {
+                initialize = true;
+            }
+            this.batchDelay = delay;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the compression applied to each {@linkplain #setBatchSize(int) batch}.
+     *
+     * @return the compression
+     */
+    public Compression getCompression() {
+        lock.lock();
+        try {
+            return compression;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the compression applied to each {@linkplain #setBatchSize(int) batch}. If the value is {@code null} the
+     * compression will be set to {@link Compression#NONE NONE}.
+     *
+     * @param compression the compression
+     */
+    public void setCompression(final Compression compression) {
+        checkAccess();
+        lock.lock();
+        try {
+            final Compression value = compression == null ? Compression.NONE : compression;
+            if (this.compression != value) {
+                initialize = true;
+            }
+            this.compression = value;
+        } finally {
+            lock.unlock();
+        }
+    }
+
     /**
      * Returns the protocol being used.
      *
@@ -445,47 +893,125 @@ public class SocketHandler extends ExtHandler {
     }
 
     private void initialize() {
-        final Writer current = this.writer;
-        boolean okay = false;
+        // Close the current connections before we attempt to create new ones
+        closeConnections(true);
+        final Connection[] connections = new Connection[connectionCount];
+        int created = 0;
         try {
-            if (current != null) {
-                writeTail(current);
-                safeFlush(current);
-            }
-            // Close the current writer before we attempt to create a new connection
-            safeClose(current);
-            final OutputStream out = createOutputStream();
-            if (out == null) {
-                return;
-            }
             final String encoding = getEncoding();
-            final UninterruptibleOutputStream outputStream = new UninterruptibleOutputStream(out);
-            if (encoding == null) {
-                writer = new OutputStreamWriter(outputStream);
-            } else {
-                writer = new OutputStreamWriter(outputStream, encoding);
+            while (created < connections.length) {
+                final OutputStream out = createOutputStream(created);
+                if (out == null) {
+                    return;
+                }
+                final OutputStream target = batchSize > 0 && protocol != Protocol.UDP
+                        ? new FramedOutputStream(out, compression, batchSize, batchDelay)
+                        : out;
+                final UninterruptibleOutputStream outputStream = new UninterruptibleOutputStream(target);
+                final Writer writer;
+                if (encoding == null) {
+                    writer = new OutputStreamWriter(outputStream);
+                } else {
+                    try {
+                        writer = new OutputStreamWriter(outputStream, encoding);
+                    } catch (UnsupportedEncodingException e) {
+                        safeClose(outputStream);
+                        throw e;
+                    }
+                }
+                writeHead(writer);
+                final Connection connection;
+                if (target instanceof SocketChannelOutputStream) {
+                    // Records bypass the writer, the head must be written out before them
+                    safeFlush(writer);
+                    connection = new Connection(writer, (SocketChannelOutputStream) out, outputStream, getCharset());
+                } else {
+                    connection = new Connection(writer,
+                            out instanceof SocketChannelOutputStream ? (SocketChannelOutputStream) out : null, null, null);
+                }
+                connections[created++] = connection;
             }
-            writeHead(writer);
-            okay = true;
         } catch (UnsupportedEncodingException e) {
             reportError("Error opening", e, ErrorManager.OPEN_FAILURE);
         } finally {
-            safeClose(current);
-            if (!okay) {
-                safeClose(writer);
+            if (created == connections.length) {
+                this.connections = connections;
+            } else {
+                for (int i = 0; i < created; i++) {
+                    safeClose(connections[i].writer);
+                }
+            }
+        }
+    }
+
+    /**
+     * Closes the current connections. Invocations of this method must be locked by the {@link #lock}.
+     *
+     * @param writeTail {@code true} if the formatters tail should be written before closing
+     */
+    private void closeConnections(final boolean writeTail) {
+        final Connection[] connections = this.connections;
+        this.connections = NO_CONNECTIONS;
+        for (Connection connection : connections) {
+            connection.lock.lock();
+            try {
+                connection.closed = true;
+                if (writeTail) {
+                    writeTail(connection.writer);
+                    safeFlush(connection.writer);
+                }
+                safeClose(connection.writer);
+            } finally {
+                connection.lock.unlock();
             }
         }
+    }
 
+    /**
+     * Selects the connection to write the record to. Invocations of this method must be locked by the {@link #lock}.
+     *
+     * @return the connection or {@code null} if there are no connections
+     */
+    private Connection selectConnection(final ExtLogRecord record) {
+        final Connection[] connections = this.connections;
+        final int length = connections.length;
+        if (length <= 1) {
+            return length == 0 ? null : connections[0];
+        }
+        final int hash;
+        switch (distribution) {
+            case LOGGER_NAME:
+                final String loggerName = record.getLoggerName();
+                hash = loggerName == null ? 0 : loggerName.hashCode();
+                break;
+            case THREAD:
+                hash = Long.hashCode(record.getLongThreadID());
+                break;
+            default:
+                hash = nextConnection.getAndIncrement();
+                break;
+        }
+        return connections[Math.floorMod(hash, length)];
     }
 
-    private OutputStream createOutputStream() {
+    private OutputStream createOutputStream(final int index) {
         if (address != null || port >= 0) {
             try {
                 final ClientSocketFactory socketFactory = getClientSocketFactory();
                 if (protocol == Protocol.UDP) {
                     return new UdpOutputStream(socketFactory);
                 }
-                return new TcpOutputStream(socketFactory, blockOnReconnect);
+                if (protocol == Protocol.TCP && sendBufferSize > 0) {
+                    return new SocketChannelOutputStream(socketFactory, sendBufferSize, overflowPolicy);
+                }
+                DiskSpool spool = null;
+                if (spoolDirectory != null) {
+                    final Path dir = Paths.get(spoolDirectory);
+                    spool = new DiskSpool(connectionCount == 1 ? dir : dir.resolve(Integer.toString(index)), spoolMaxSize);
+                }
+                final TcpOutputStream out = new TcpOutputStream(socketFactory, blockOnReconnect);
+                out.setSpool(spool);
+                return out;
             } catch (IOException e) {
                 reportError("Failed to create socket output stream", e, ErrorManager.OPEN_FAILURE);
             }
@@ -557,4 +1083,23 @@ public class SocketHandler extends ExtHandler {
         } catch (Throwable ignored) {
         }
     }
+
+    private static final class Connection {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Writer writer;
+        private final SocketChannelOutputStream channelOutputStream;
+        // The stream records are written to directly, one write per record, or null to use the writer
+        private final OutputStream recordStream;
+        private final Charset charset;
+        // Guarded by lock
+        private boolean closed;
+
+        private Connection(final Writer writer, final SocketChannelOutputStream channelOutputStream,
+                final OutputStream recordStream, final Charset charset) {
+            this.writer = writer;
+            this.channelOutputStream = channelOutputStream;
+            this.recordStream = recordStream;
+            this.charset = charset;
+        }
+    }
 }
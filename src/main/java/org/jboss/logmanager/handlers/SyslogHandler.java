@@ -35,6 +35,7 @@ import java.io.OutputStream;
 import java.net.InetAddress;
 import java.net.UnknownHostException;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
 import java.security.PrivilegedAction;
 import java.text.Normalizer;
 import java.text.Normalizer.Form;
@@ -54,6 +55,7 @@ import javax.net.ssl.SSLSocketFactory;
 
 import org.jboss.logmanager.ExtHandler;
 import org.jboss.logmanager.ExtLogRecord;
+import org.jboss.logmanager.handlers.SocketChannelOutputStream.OverflowPolicy;
 
 /**
  * A syslog handler for logging to syslogd.
@@ -177,6 +179,43 @@ import org.jboss.logmanager.ExtLogRecord;
  *          <td>For {@link SyslogType#RFC3164 RFC3164} 1024 (1k) - For {@link SyslogType#RFC5424 RFC5424} 2048
  * (2k)</td>
  *      </tr>
+ *      <tr>
+ *          <td>sendBufferSize</td>
+ *          <td>If greater than 0, {@link Protocol#TCP TCP} messages are buffered in memory and written from a background
+ * thread over a non-blocking channel. See {@link SocketChannelOutputStream} for details.</td>
+ *          <td>{@code int}</td>
+ *          <td>{@code
+ * 0
+ * }</td>
+ *      </tr>
+ *      <tr>
+ *          <td>overflowPolicy</td>
+ *          <td>What to do when the {@link #setSendBufferSize(int) send buffer} is full</td>
+ *          <td>{@link OverflowPolicy OverflowPolicy}</td>
+ *          <td>{@link OverflowPolicy#BLOCK BLOCK}</td>
+ *      </tr>
+ *      <tr>
+ *          <td>useDatagramChannel</td>
+ *          <td>Whether or not {@link Protocol#UDP UDP} messages should be queued and sent from a background thread over
+ * a non-blocking channel. See {@link DatagramChannelOutputStream} for details.</td>
+ *          <td>{@code boolean}</td>
+ *          <td>{@code
+ * false
+ * }</td>
+ *      </tr>
+ *      <tr>
+ *          <td>spoolDirectory</td>
+ *          <td>If set, {@link Protocol#TCP TCP} messages written while reconnecting are kept in a {@link DiskSpool} in
+ * this directory and sent once reconnected. Does not apply when a send buffer is used.</td>
+ *          <td>{@link String}</td>
+ *          <td>{@code null}</td>
+ *      </tr>
+ *      <tr>
+ *          <td>spoolMaxSize</td>
+ *          <td>The maximum size, in bytes, of the spool</td>
+ *          <td>{@code long}</td>
+ *          <td>{@link DiskSpool#DEFAULT_MAX_SIZE 64 MiB}</td>
+ *      </tr>
  *  </tbody>
  * </table>
  * </pre>
@@ -361,6 +400,11 @@ public class SyslogHandler extends ExtHandler {
     private boolean truncate;
     private int maxLen;
     private boolean blockOnReconnect;
+    private boolean useDatagramChannel;
+    private int sendBufferSize;
+    private OverflowPolicy overflowPolicy = OverflowPolicy.BLOCK;
+    private String spoolDirectory;
+    private long spoolMaxSize = DiskSpool.DEFAULT_MAX_SIZE;
     private ClientSocketFactory clientSocketFactory;
 
     /**
@@ -635,6 +679,16 @@ public class SyslogHandler extends ExtHandler {
             for (Exception error : errors) {
                 reportError("Error writing to TCP stream", error, ErrorManager.WRITE_FAILURE);
             }
+        } else if (out instanceof SocketChannelOutputStream) {
+            final Collection<Exception> errors = ((SocketChannelOutputStream) out).getErrors();
+            for (Exception error : errors) {
+                reportError("Error writing to TCP channel", error, ErrorManager.WRITE_FAILURE);
+            }
+        } else if (out instanceof DatagramChannelOutputStream) {
+            final Collection<Exception> errors = ((DatagramChannelOutputStream) out).getErrors();
+            for (Exception error : errors) {
+                reportError("Error writing to UDP channel", error, ErrorManager.WRITE_FAILURE);
+            }
         }
     }
 
@@ -733,6 +787,233 @@ public class SyslogHandler extends ExtHandler {
         }
     }
 
+    /**
+     * Returns the size, in bytes, of the in-memory send buffer used for {@link Protocol#TCP TCP} connections.
+     *
+     * @return the send buffer size or 0 if TCP connections are written to directly
+     */
+    public int getSendBufferSize() {
+        lock.lock();
+        try {
+            return sendBufferSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the size, in bytes, of the in-memory send buffer used for {@link Protocol#TCP TCP} connections.
+     * <p/>
+     * If greater than 0, messages are written to a {@link SocketChannelOutputStream} which buffers the data and writes it
+     * to a non-blocking channel from a background thread. What happens when the buffer is full is determined by the
+     * {@linkplain #setOverflowPolicy(OverflowPolicy) overflow policy}. The
+     * {@linkplain #setBlockOnReconnect(boolean) block on reconnect} setting does not apply to buffered connections.
+     * {@link Protocol#SSL_TCP SSL TCP} connections are always written to directly.
+     *
+     * @param sendBufferSize the send buffer size or 0 to write to TCP connections directly
+     */
+    public void setSendBufferSize(final int sendBufferSize) {
+        checkAccess();
+        lock.lock();
+        try {
+            final int size = Math.max(0, sendBufferSize);
+            if (this.sendBufferSize != size) {
+                initializeConnection = true;
+            }
+            this.sendBufferSize = size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the policy used when the {@linkplain #setSendBufferSize(int) send buffer} is full.
+     *
+     * @return the overflow policy
+     */
+    public OverflowPolicy getOverflowPolicy() {
+        lock.lock();
+        try {
+            return overflowPolicy;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the policy used when the {@linkplain #setSendBufferSize(int) send buffer} is full. If the value is
+     * {@code null} the policy will be set to {@link OverflowPolicy#BLOCK BLOCK}.
+     *
+     * @param overflowPolicy the overflow policy
+     */
+    public void setOverflowPolicy(final OverflowPolicy overflowPolicy) {
+        checkAccess();
+        lock.lock();
+        try {
+            this.overflowPolicy = overflowPolicy == null ? OverflowPolicy.BLOCK : overflowPolicy;
+            if (out instanceof SocketChannelOutputStream) {
+                ((SocketChannelOutputStream) out).setOverflowPolicy(this.overflowPolicy);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of bytes waiting in the {@linkplain #setSendBufferSize(int) send buffer}.
+     *
+     * @return the number of buffered bytes or 0 if no send buffer is in use
+     */
+    public long getBytesBuffered() {
+        lock.lock();
+        try {
+            return out instanceof SocketChannelOutputStream ? ((SocketChannelOutputStream) out).getBytesBuffered() : 0L;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of bytes the {@linkplain #setSendBufferSize(int) send buffer} has discarded for the current
+     * connection.
+     *
+     * @return the number of dropped bytes or 0 if no send buffer is in use
+     */
+    public long getBytesDropped() {
+        lock.lock();
+        try {
+            return out instanceof SocketChannelOutputStream ? ((SocketChannelOutputStream) out).getBytesDropped() : 0L;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the directory used to spool messages while a TCP connection is down.
+     *
+     * @return the spool directory or {@code null} if messages written while reconnecting are discarded
+     */
+    public String getSpoolDirectory() {
+        lock.lock();
+        try {
+            return spoolDirectory;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the directory used to spool messages while a TCP connection is down.
+     * <p/>
+     * If set, messages written while the connection is being re-established are appended to a {@link DiskSpool} in this
+     * directory instead of being discarded. Once reconnected the spooled messages are sent, in order, before any new
+     * messages. Records left in the directory from a previous run are sent as well. The spool is only used for
+     * {@link Protocol#TCP TCP} and {@link Protocol#SSL_TCP SSL TCP} connections which are written to directly,
+     * that is when the {@linkplain #setSendBufferSize(int) send buffer size} is 0.
+     *
+     * @param spoolDirectory the spool directory or {@code null} to discard messages written while reconnecting
+     */
+    public void setSpoolDirectory(final String spoolDirectory) {
+        checkAccess();
+        lock.lock();
+        try {
+            this.spoolDirectory = spoolDirectory;
+            initializeConnection = true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the maximum size, in bytes, of the {@linkplain #setSpoolDirectory(String) spool}.
+     *
+     * @return the maximum spool size
+     */
+    public long getSpoolMaxSize() {
+        lock.lock();
+        try {
+            return spoolMaxSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Sets the maximum size, in bytes, of the {@linkplain #setSpoolDirectory(String) spool}. Once reached the oldest
+     * spooled messages are discarded to make room for new ones.
+     *
+     * @param spoolMaxSize the maximum spool size
+     */
+    public void setSpoolMaxSize(final long spoolMaxSize) {
+        checkAccess();
+        lock.lock();
+        try {
+            if (this.spoolMaxSize != spoolMaxSize) {
+                initializeConnection = true;
+            }
+            this.spoolMaxSize = spoolMaxSize;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Indicates whether or not {@link Protocol#UDP UDP} messages are sent from a background thread over a non-blocking
+     * channel.
+     *
+     * @return {@code true} if a {@link DatagramChannelOutputStream} is used, otherwise {@code false}
+     */
+    public boolean isUseDatagramChannel() {
+        lock.lock();
+        try {
+            return useDatagramChannel;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Enables or disables sending {@link Protocol#UDP UDP} messages from a background thread over a non-blocking
+     * channel.
+     * <p/>
+     * If set to {@code true} the {@code publish} methods only queue the message and never wait on the network. Messages
+     * are dropped, not delayed, if the queue or the kernel send buffer is full. See {@link #getDroppedMessageCount()}.
+     *
+     * @param useDatagramChannel {@code true} to send over a {@link DatagramChannelOutputStream}, otherwise
+     *                           {@code false} to send each message directly from the publishing thread
+     */
+    public void setUseDatagramChannel(final boolean useDatagramChannel) {
+        checkAccess();
+        lock.lock();
+        try {
+            if (this.useDatagramChannel != useDatagramChannel) {
+                this.useDatagramChannel = useDatagramChannel;
+                initializeConnection = true;
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of messages which were dropped without being sent. This is only tracked when
+     * {@linkplain #setUseDatagramChannel(boolean) sending over a datagram channel}.
+     *
+     * @return the number of dropped messages or 0 if drops are not being tracked
+     */
+    public long getDroppedMessageCount() {
+        lock.lock();
+        try {
+            if (out instanceof DatagramChannelOutputStream) {
+                final DatagramChannelOutputStream stream = (DatagramChannelOutputStream) out;
+                return stream.getQueueDropCount() + stream.getSendDropCount();
+            }
+            return 0L;
+        } finally {
+            lock.unlock();
+        }
+    }
+
     /**
      * Sets the client socket factory used to create sockets.
      *
@@ -1243,9 +1524,19 @@ public class SyslogHandler extends ExtHandler {
             try {
                 final ClientSocketFactory clientSocketFactory = getClientSocketFactory();
                 if (protocol == Protocol.UDP) {
-                    out = new UdpOutputStream(clientSocketFactory);
+                    if (useDatagramChannel) {
+                        out = new DatagramChannelOutputStream(clientSocketFactory);
+                    } else {
+                        out = new UdpOutputStream(clientSocketFactory);
+                    }
+                } else if (protocol == Protocol.TCP && sendBufferSize > 0) {
+                    out = new SocketChannelOutputStream(clientSocketFactory, sendBufferSize, overflowPolicy);
                 } else {
-                    out = new TcpOutputStream(clientSocketFactory, blockOnReconnect);
+                    final DiskSpool spool = spoolDirectory == null ? null
+                            : new DiskSpool(Paths.get(spoolDirectory), spoolMaxSize);
+                    final TcpOutputStream tcpOut = new TcpOutputStream(clientSocketFactory, blockOnReconnect);
+                    tcpOut.setSpool(spool);
+                    out = tcpOut;
                 }
                 setOutputStream(out, false);
             } catch (IOException e) {
@@ -45,6 +45,11 @@ import javax.net.SocketFactory;
  * additional writes are discarded when reconnecting. If you set the {@link #setBlockOnReconnect(boolean) block on
  * reconnect} to {@code true}, then the reconnect will indefinitely block until the TCP stream is reconnected.
  * <p/>
+ * If a {@linkplain #setSpool(DiskSpool) spool} is set, writes are appended to the spool instead of being discarded
+ * while reconnecting. Once the socket is reconnected the spooled data is written, in order, before any new data. When
+ * a write fails part way, only the data from the small chunk which failed onwards is spooled. The socket does not
+ * report how much of that chunk was sent, so part of it may be sent twice.
+ * <p/>
  * You can optionally get a collection of the errors that occurred during a write or reconnect.
  *
  * @author <a href="mailto:jperkins@redhat.com">James R. Perkins</a>
@@ -54,6 +59,9 @@ public class TcpOutputStream extends OutputStream implements AutoCloseable, Flus
     private static final long retryTimeout = 5L;
     private static final long maxRetryTimeout = 40L;
     private static final int maxErrors = 10;
+    // With a spool, data is written to the socket in chunks of this size so that only the chunk which failed and the
+    // data after it are spooled
+    private static final int spoolChunkSize = 1024;
 
     protected final ReentrantLock outputLock = new ReentrantLock();
 
@@ -68,6 +76,7 @@ public class TcpOutputStream extends OutputStream implements AutoCloseable, Flus
     private Socket socket;
     // Guarded by outputLock
     private boolean connected;
+    private volatile DiskSpool spool;
 
     /**
      * Creates a TCP output stream.
@@ -185,11 +194,23 @@ public class TcpOutputStream extends OutputStream implements AutoCloseable, Flus
 
     @Override
     public void write(final byte[] b, final int off, final int len) throws IOException {
+        int written = 0;
         outputLock.lock();
         try {
             checkReconnect();
             if (connected) {
-                socket.getOutputStream().write(b, off, len);
+                final OutputStream out = socket.getOutputStream();
+                if (spool == null) {
+                    out.write(b, off, len);
+                } else {
+                    while (written < len) {
+                        final int chunk = Math.min(len - written, spoolChunkSize);
+                        out.write(b, off + written, chunk);
+                        written += chunk;
+                    }
+                }
+            } else {
+                spool(b, off, len);
             }
         } catch (SocketException e) {
             if (isReconnectAllowed()) {
@@ -197,12 +218,16 @@ public class TcpOutputStream extends OutputStream implements AutoCloseable, Flus
                 safeClose(socket);
                 connected = false;
                 addError(e);
+                if (!blockOnReconnect) {
+                    // Only what was not written before the failure
+                    spool(b, off + written, len - written);
+                }
                 // Handle the reconnection
                 reconnectThread = createThread();
                 if (blockOnReconnect) {
                     reconnectThread.run();
-                    // We should be reconnected, try to write again
-                    write(b, off, len);
+                    // We should be reconnected, try to write the rest again
+                    write(b, off + written, len - written);
                 } else {
                     reconnectThread.start();
                 }
@@ -247,6 +272,44 @@ public class TcpOutputStream extends OutputStream implements AutoCloseable, Flus
             if (socket != null) {
                 socket.close();
             }
+        } finally {
+            try {
+                safeClose(spool);
+            } finally {
+                outputLock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Returns the spool used to keep data written while reconnecting.
+     *
+     * @return the spool or {@code null} if data written while reconnecting is discarded
+     */
+    public DiskSpool getSpool() {
+        return spool;
+    }
+
+    /**
+     * Sets the spool used to keep data written while reconnecting. The spool is closed when this stream is closed.
+     * <p/>
+     * Any data already in the spool, for example left from a previous run, is written once the stream is connected.
+     *
+     * @param spool the spool or {@code null} to discard data written while reconnecting
+     */
+    public void setSpool(final DiskSpool spool) {
+        outputLock.lock();
+        try {
+            this.spool = spool;
+            if (connected) {
+                replay(socket);
+            }
+        } catch (IOException e) {
+            addError(e);
+            if (isReconnectAllowed()) {
+                safeClose(socket);
+                connected = false;
+            }
         } finally {
             outputLock.unlock();
         }
@@ -349,6 +412,38 @@ public class TcpOutputStream extends OutputStream implements AutoCloseable, Flus
         }
     }
 
+    /**
+     * Appends the data to the spool, if one is set. Invocations of this method must be locked by the
+     * {@link #outputLock}.
+     */
+    private void spool(final byte[] b, final int off, final int len) {
+        final DiskSpool spool = this.spool;
+        if (spool != null) {
+            try {
+                spool.append(b, off, len);
+            } catch (IOException e) {
+                addError(e);
+            }
+        }
+    }
+
+    /**
+     * Writes the spooled data to the socket. If the {@code outputLock} is not held new data may be spooled while this
+     * is running.
+     */
+    private void replay(final Socket socket) throws IOException {
+        final DiskSpool spool = this.spool;
+        if (spool != null) {
+            final OutputStream out = socket.getOutputStream();
+            byte[] data;
+            while ((data = spool.peek()) != null) {
+                out.write(data);
+                spool.remove();
+            }
+            out.flush();
+        }
+    }
+
     private Thread createThread() {
         final Thread thread = new Thread(new RetryConnector());
         thread.setDaemon(true);
@@ -374,6 +469,8 @@ public class TcpOutputStream extends OutputStream implements AutoCloseable, Flus
                 Socket socket = null;
                 try {
                     socket = socketFactory.createSocket();
+                    // Write the bulk of the spooled data while new writes are still being spooled
+                    replay(socket);
                     outputLock.lock();
                     try {
                         // Unlikely but if we've been interrupted due to a close, we should shutdown
@@ -381,6 +478,8 @@ public class TcpOutputStream extends OutputStream implements AutoCloseable, Flus
                             safeClose(socket);
                             break;
                         } else {
+                            // Anything spooled since the replay started, new writes are blocked until connected
+                            replay(socket);
                             TcpOutputStream.this.socket = socket;
                             TcpOutputStream.this.connected = true;
                             TcpOutputStream.this.reconnectThread = null;
@@ -1,5 +1,10 @@
 package org.jboss.logmanager;
 
+import java.text.MessageFormat;
+import java.util.Date;
+import java.util.Locale;
+
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 /**
@@ -13,4 +18,98 @@ public final class ExtLogRecordTests {
         // expect this to not blow up on 11 or 17
         rec.setLongThreadID(1234);
     }
+
+    @Test
+    public void checkNdcSnapshot() {
+        // Other tests may have left values on the stack
+        final String prefix = NDC.getDepth() == 0 ? "" : NDC.get() + ".";
+        final int depth = NDC.push("outer");
+        try {
+            NDC.push("inner");
+            final ExtLogRecord rec = new ExtLogRecord(Level.INFO, "Hello world!", ExtLogRecordTests.class.getName());
+            // Changes after the record was created should not be seen by the record
+            NDC.pop();
+            NDC.push("changed");
+            Assertions.assertEquals(prefix + "outer.inner", rec.getNdc());
+            Assertions.assertEquals(prefix + "outer.changed", NDC.get());
+            Assertions.assertEquals("outer", NDC.get(depth));
+            Assertions.assertEquals("changed", NDC.get(depth + 1));
+            Assertions.assertNull(NDC.get(depth + 2));
+            Assertions.assertEquals(depth + 2, NDC.getDepth());
+
+            rec.setNdc(null);
+            Assertions.assertNull(rec.getNdc());
+        } finally {
+            NDC.trimTo(depth);
+        }
+        Assertions.assertEquals(depth, NDC.getDepth());
+    }
+
+    @Test
+    public void checkDeepNdc() {
+        final int depth = NDC.getDepth();
+        try {
+            for (int i = 0; i < 100_000; i++) {
+                NDC.push("x");
+            }
+            // Should render without recursing once per frame
+            final String value = NDC.get();
+            Assertions.assertTrue(value.endsWith(".x.x"));
+            Assertions.assertEquals(depth + 100_000, NDC.getDepth());
+        } finally {
+            NDC.trimTo(depth);
+        }
+    }
+
+    @Test
+    @SuppressWarnings("deprecation")
+    public void checkMessageTemplates() {
+        final String pattern = "Value {0} at {1,number,#.##} on {2,date,yyyy}";
+        final MessageTemplate template = MessageTemplate.of(pattern, ExtLogRecord.FormatStyle.MESSAGE_FORMAT);
+        Assertions.assertSame(template, MessageTemplate.of(pattern, ExtLogRecord.FormatStyle.MESSAGE_FORMAT));
+        Assertions.assertNotSame(template, MessageTemplate.of(pattern, ExtLogRecord.FormatStyle.PRINTF));
+
+        final Object[] params = { "test", 1.2345, new Date(200L * 86_400_000L) };
+        Assertions.assertEquals(MessageFormat.format(pattern, params), template.format(params));
+        Assertions.assertEquals(pattern, template.format(null));
+
+        final ExtLogRecord rec = new ExtLogRecord(Level.INFO, pattern, ExtLogRecordTests.class.getName());
+        rec.setParameters(params);
+        Assertions.assertEquals(MessageFormat.format(pattern, params), rec.getFormattedMessage());
+        rec.setMessage("Value %s at %.2f", ExtLogRecord.FormatStyle.PRINTF);
+        Assertions.assertEquals(String.format("Value %s at %.2f", params), rec.getFormattedMessage());
+
+        // A template parsed for another default locale is not used
+        final Locale locale = Locale.getDefault(Locale.Category.FORMAT);
+        try {
+            Locale.setDefault(Locale.Category.FORMAT, Locale.GERMANY);
+            Assertions.assertEquals("Value test at 1,23 on 1970", template.format(params));
+        } finally {
+            Locale.setDefault(Locale.Category.FORMAT, locale);
+        }
+    }
+
+    @Test
+    public void checkFormatMessageWithoutParameters() {
+        final ExtFormatter formatter = new ExtFormatter() {
+            @Override
+            public String format(final ExtLogRecord record) {
+                return formatMessageLegacy(record) + "|" + formatMessagePrintf(record);
+            }
+        };
+        final ExtLogRecord rec = new ExtLogRecord(Level.INFO, "It''s 100%% '{0}'", ExtLogRecordTests.class.getName());
+        // The pattern is processed even without parameters, as MessageFormat.format and String.format do
+        Assertions.assertEquals("It's 100%% {0}|It''s 100% '{0}'", formatter.format(rec));
+    }
+
+    @Test
+    public void checkMessageTemplateEviction() {
+        final String hot = "Hot {0}";
+        final MessageTemplate template = MessageTemplate.of(hot, ExtLogRecord.FormatStyle.MESSAGE_FORMAT);
+        for (int i = 0; i < 5_000; i++) {
+            MessageTemplate.of("Cold " + i + " {0}", ExtLogRecord.FormatStyle.MESSAGE_FORMAT);
+            // The pattern in use stays cached while the others are evicted
+            Assertions.assertSame(template, MessageTemplate.of(hot, ExtLogRecord.FormatStyle.MESSAGE_FORMAT));
+        }
+    }
 }
@@ -21,7 +21,11 @@ package org.jboss.logmanager;
 
 import static org.junit.jupiter.api.Assertions.*;
 
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.Random;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Filter;
 import java.util.logging.Handler;
@@ -37,8 +41,12 @@ import org.jboss.logmanager.filters.InvertFilter;
 import org.jboss.logmanager.filters.LevelChangingFilter;
 import org.jboss.logmanager.filters.LevelFilter;
 import org.jboss.logmanager.filters.LevelRangeFilter;
+import org.jboss.logmanager.filters.RateLimitFilter;
 import org.jboss.logmanager.filters.RegexFilter;
+import org.jboss.logmanager.filters.SamplingFilter;
 import org.jboss.logmanager.filters.SubstituteFilter;
+import org.jboss.logmanager.filters.SubstringFilter;
+import org.jboss.logmanager.formatters.PatternFormatter;
 import org.junit.jupiter.api.Disabled;
 import org.junit.jupiter.api.Test;
 
@@ -528,6 +536,257 @@ public final class FilterTests {
         assertEquals("lunch", result.get(), "The substitution was not correctly applied");
     }
 
+    @Test
+    public void testRegexFilterLiteral() {
+        final Pattern[] patterns = {
+                Pattern.compile("test"),
+                Pattern.compile("te+st"),
+                Pattern.compile("tes?t\\."),
+                Pattern.compile("is.*t{2}"),
+                Pattern.compile("^This is a\\s"),
+                Pattern.compile("(pest|test)"),
+                Pattern.compile("pest|test"),
+                Pattern.compile("[tp]est"),
+                Pattern.compile("TEST", Pattern.CASE_INSENSITIVE),
+                Pattern.compile("a.test", Pattern.LITERAL),
+        };
+        final String[] messages = {
+                "This is a test.",
+                "This is a tet.",
+                "This is a tesst",
+                "This is a pest.",
+                "This is a.test",
+        };
+        for (Pattern pattern : patterns) {
+            final Filter filter = new RegexFilter(pattern);
+            for (String message : messages) {
+                final ExtLogRecord record = new ExtLogRecord(Level.INFO, message, FilterTests.class.getName());
+                assertEquals(pattern.matcher(message).find(), filter.isLoggable(record),
+                        () -> String.format("Pattern %s on message %s", pattern, message));
+                // The literal may be supplied by a parameter
+                final ExtLogRecord parameterized = new ExtLogRecord(Level.INFO, "{0}", FilterTests.class.getName());
+                parameterized.setParameters(new Object[] { message });
+                assertEquals(pattern.matcher(message).find(), filter.isLoggable(parameterized),
+                        () -> String.format("Pattern %s on parameter %s", pattern, message));
+            }
+        }
+    }
+
+    @Test
+    public void testFormattedMessageShared() {
+        final AtomicInteger rendered = new AtomicInteger();
+        final Object parameter = new Object() {
+            @Override
+            public String toString() {
+                rendered.incrementAndGet();
+                return "test";
+            }
+        };
+        final ExtLogRecord record = new ExtLogRecord(Level.INFO, "This is a {0}.", FilterTests.class.getName());
+        record.setParameters(new Object[] { parameter });
+        assertTrue(new RegexFilter("is a test").isLoggable(record));
+        assertTrue(new RegexFilter("test\\.$").isLoggable(record));
+        assertEquals("This is a test.", new PatternFormatter("%s").format(record));
+        assertEquals(1, rendered.get());
+
+        // Changing the parameters discards the formatted message
+        record.setParameters(new Object[] { "pest" });
+        assertFalse(new RegexFilter("is a test").isLoggable(record));
+        assertEquals("This is a pest.", record.getFormattedMessage());
+
+        // A message which can't match is left as is by the substitution
+        final ExtLogRecord unchanged = new ExtLogRecord(Level.INFO, "This is a pest.", FilterTests.class.getName());
+        assertTrue(new SubstituteFilter("test", "lunch", true).isLoggable(unchanged));
+        assertEquals(FormatStyle.MESSAGE_FORMAT, unchanged.getFormatStyle());
+        assertEquals("This is a pest.", unchanged.getFormattedMessage());
+    }
+
+    @Test
+    public void testSubstringFilter() {
+        final Random random = new Random(3L);
+        for (int i = 0; i < 500; i++) {
+            final String[] strings = new String[1 + random.nextInt(20)];
+            for (int j = 0; j < strings.length; j++) {
+                strings[j] = randomString(random, 1 + random.nextInt(5));
+            }
+            final Filter filter = new SubstringFilter(strings);
+            for (int j = 0; j < 20; j++) {
+                final String message = randomString(random, random.nextInt(40));
+                boolean expected = false;
+                for (String string : strings) {
+                    expected |= message.contains(string);
+                }
+                final ExtLogRecord record = new ExtLogRecord(Level.INFO, message, FilterTests.class.getName());
+                assertEquals(expected, filter.isLoggable(record),
+                        () -> String.format("Strings %s on message %s", Arrays.toString(strings), message));
+            }
+        }
+        assertTrue(new SubstringFilter("").isLoggable(new ExtLogRecord(Level.INFO, "", FilterTests.class.getName())));
+        assertThrows(IllegalArgumentException.class, SubstringFilter::new);
+    }
+
+    @Test
+    public void testRateLimitFilter() {
+        // a rate low enough that no token is refilled during the test
+        final RateLimitFilter filter = new RateLimitFilter(3, 0.001);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(filter.isLoggable(new ExtLogRecord(Level.INFO, "Repeated", FilterTests.class.getName())));
+        }
+        assertFalse(filter.isLoggable(new ExtLogRecord(Level.INFO, "Repeated", FilterTests.class.getName())));
+        assertFalse(filter.isLoggable(new ExtLogRecord(Level.INFO, "Repeated", FilterTests.class.getName())));
+        assertEquals(2L, filter.getDroppedCount());
+
+        // Each logger, level and message has its own bucket
+        assertTrue(filter.isLoggable(new ExtLogRecord(Level.WARN, "Repeated", FilterTests.class.getName())));
+        assertTrue(filter.isLoggable(new ExtLogRecord(Level.INFO, "Other", FilterTests.class.getName())));
+        final ExtLogRecord otherLogger = new ExtLogRecord(Level.INFO, "Repeated", FilterTests.class.getName());
+        otherLogger.setLoggerName("other");
+        assertTrue(filter.isLoggable(otherLogger));
+        assertEquals(2L, filter.getDroppedCount());
+
+        assertThrows(IllegalArgumentException.class, () -> filter.setBurst(0));
+        assertThrows(IllegalArgumentException.class, () -> filter.setRate(0.0));
+
+        // Tracking more groups than the limit keeps the exhausted bucket
+        for (int i = 0; i < 5_000; i++) {
+            assertTrue(filter.isLoggable(new ExtLogRecord(Level.INFO, "Group " + i, FilterTests.class.getName())));
+        }
+        assertFalse(filter.isLoggable(new ExtLogRecord(Level.INFO, "Repeated", FilterTests.class.getName())));
+        assertEquals(3L, filter.getDroppedCount());
+
+        // A large burst at a low rate must not overflow
+        final RateLimitFilter unlimited = new RateLimitFilter(Integer.MAX_VALUE, 0.001);
+        for (int i = 0; i < 3; i++) {
+            assertTrue(unlimited.isLoggable(new ExtLogRecord(Level.INFO, "Repeated", FilterTests.class.getName())));
+        }
+    }
+
+    @Test
+    public void testRateLimitFilterReport() throws Exception {
+        try (LogContext logContext = LogContext.create()) {
+            final RateLimitFilter filter = new RateLimitFilter(logContext, 1, 0.001);
+            filter.setReportInterval(1L);
+            final AtomicReference<String> reported = new AtomicReference<>();
+            final Handler handler = new Handler() {
+                @Override
+                public void publish(final LogRecord record) {
+                    if (isLoggable(record) && RateLimitFilter.REPORT_LOGGER_NAME.equals(record.getLoggerName())) {
+                        reported.set(MessageFormat.format(record.getMessage(), record.getParameters()));
+                    }
+                }
+
+                @Override
+                public void flush() {
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+            // The report goes through the same filter
+            handler.setFilter(filter);
+            logContext.getLogger("").addHandler(handler);
+            final Logger logger = logContext.getLogger("rateLimit");
+            for (int i = 0; i < 4; i++) {
+                logger.info("Repeated");
+            }
+            assertNull(reported.get());
+            Thread.sleep(1_100L);
+            logger.info("Repeated");
+            assertEquals("Dropped 4 log record(s) which exceeded the rate limit of 0.001 per second", reported.get());
+            assertEquals(4L, filter.getDroppedCount());
+        }
+    }
+
+    @Test
+    public void testSamplingFilter() {
+        final SamplingFilter random = new SamplingFilter(0.1);
+        for (int i = 0; i < 10_000; i++) {
+            random.isLoggable(new ExtLogRecord(Level.DEBUG, "Sampled", FilterTests.class.getName()));
+        }
+        assertEquals(10_000L, random.getSampledCount() + random.getSkippedCount());
+        assertTrue(random.getSampledCount() > 800L && random.getSampledCount() < 1_200L,
+                () -> "Unexpected number of sampled records " + random.getSampledCount());
+
+        // Every record of a trace gets the same decision
+        final SamplingFilter filter = new SamplingFilter("traceId", 0.1);
+        int sampledTraces = 0;
+        for (int i = 0; i < 10_000; i++) {
+            final String traceId = Integer.toHexString(i * 7919);
+            final ExtLogRecord first = new ExtLogRecord(Level.DEBUG, "First", FilterTests.class.getName());
+            first.putMdc("traceId", traceId);
+            final ExtLogRecord second = new ExtLogRecord(Level.DEBUG, "Second", FilterTests.class.getName());
+            second.putMdc("traceId", traceId);
+            final boolean sampled = filter.isLoggable(first);
+            assertEquals(sampled, filter.isLoggable(second), traceId);
+            if (sampled) {
+                sampledTraces++;
+            }
+        }
+        assertEquals(2L * sampledTraces, filter.getSampledCount());
+        assertEquals(20_000L - 2L * sampledTraces, filter.getSkippedCount());
+        final int traces = sampledTraces;
+        assertTrue(traces > 800 && traces < 1_200, () -> "Unexpected number of sampled traces " + traces);
+
+        final ExtLogRecord record = new ExtLogRecord(Level.DEBUG, "Sampled", FilterTests.class.getName());
+        record.putMdc("traceId", "abc");
+        assertFalse(new SamplingFilter("traceId", 0.0).isLoggable(record));
+        assertTrue(new SamplingFilter("traceId", 1.0).isLoggable(record));
+        assertThrows(IllegalArgumentException.class, () -> new SamplingFilter(1.5));
+    }
+
+    @Test
+    public void testSamplingFilterOnLogger() {
+        final AtomicInteger published = new AtomicInteger();
+        final Handler handler = new Handler() {
+            @Override
+            public void publish(final LogRecord record) {
+                published.incrementAndGet();
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+        final Logger logger = Logger.getLogger("filterTest");
+        logger.setUseParentHandlers(false);
+        logger.addHandler(handler);
+        logger.setLevel(Level.DEBUG);
+        final SamplingFilter filter = new SamplingFilter("traceId", 0.5);
+        logger.setFilter(filter);
+        try {
+            for (int i = 0; i < 100; i++) {
+                MDC.put("traceId", "trace-" + i);
+                final int before = published.get();
+                logger.log(Level.DEBUG, "First");
+                logger.log(Level.DEBUG, "Second");
+                logger.log(Level.DEBUG, "Third");
+                final int count = published.get() - before;
+                assertTrue(count == 0 || count == 3, () -> "Unexpected number of records " + count);
+            }
+        } finally {
+            MDC.remove("traceId");
+            logger.setFilter(null);
+            logger.removeHandler(handler);
+        }
+        assertTrue(published.get() > 0);
+        assertEquals(published.get(), filter.getSampledCount());
+        assertEquals(300L, filter.getSampledCount() + filter.getSkippedCount());
+    }
+
+    private static String randomString(final Random random, final int length) {
+        final StringBuilder b = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            // a small alphabet so that strings overlap, and a character outside of ASCII
+            b.append("abc\u00e9".charAt(random.nextInt(4)));
+        }
+        return b.toString();
+    }
+
     private static final class MessageCheckingHandler extends Handler {
         private final AtomicReference<String> msg;
 
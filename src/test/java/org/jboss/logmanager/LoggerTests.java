@@ -29,13 +29,17 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Handler;
 import java.util.logging.LogRecord;
 
+import org.jboss.logmanager.filters.LevelChangingFilter;
 import org.jboss.logmanager.filters.RegexFilter;
 import org.jboss.logmanager.formatters.PatternFormatter;
+import org.jboss.logmanager.handlers.QueueHandler;
 import org.junit.jupiter.api.Test;
 
 public final class LoggerTests {
@@ -253,8 +257,211 @@ public final class LoggerTests {
         assertEquals(5, handler.messages.size(), "Handler should have only contained five messages");
     }
 
-    private static final class ListHandler extends ExtHandler {
+    @Test
+    public void testLogSite() {
+        final ListHandler handler = new ListHandler();
+        final Logger logger = Logger.getLogger("testLogSite");
+        logger.setUseParentHandlers(false);
+        logger.addHandler(handler);
+        logger.setLevel(Level.INFO);
+        final LogSite info = logger.logSite(Level.INFO, "Value {0} of {1}", ExtLogRecord.FormatStyle.MESSAGE_FORMAT);
+        final LogSite debug = logger.logSite(Level.DEBUG, "Value %d", ExtLogRecord.FormatStyle.PRINTF);
+        assertTrue(info.isEnabled());
+        assertFalse(debug.isEnabled());
+
+        info.log(1, "test");
+        info.log(2, "test");
+        debug.log(3);
+        assertEquals(List.of("Value 1 of test", "Value 2 of test"), handler.messages);
+        assertEquals(getClass().getName(), handler.records.get(0).getSourceClassName());
+        assertEquals("testLogSite", handler.records.get(0).getSourceMethodName());
+
+        // The level change is seen by the statement
+        logger.setLevel(Level.DEBUG);
+        assertTrue(debug.isEnabled());
+        final IllegalStateException thrown = new IllegalStateException();
+        debug.log(thrown, 4);
+        assertEquals("Value 4", handler.messages.get(2));
+        assertSame(thrown, handler.records.get(2).getThrown());
+
+        // The message is looked up in the resource bundle of the logger
+        final Logger rbLogger = Logger.getLogger("testLogSite.rb", getClass().getName());
+        final LogSite localized = rbLogger.logSite(Level.INFO, "test", ExtLogRecord.FormatStyle.MESSAGE_FORMAT);
+        localized.log();
+        assertEquals("Test message", handler.messages.get(3));
+        assertEquals("test", handler.records.get(3).getMessage());
+    }
+
+    @Test
+    public void testCallerLocation() {
+        final ListHandler handler = new ListHandler();
+        final Logger logger = Logger.getLogger("testCallerLocation");
+        logger.setUseParentHandlers(false);
+        logger.addHandler(handler);
+        logger.setLevel(Level.INFO);
+        for (int i = 0; i < 2; i++) {
+            logCaller(logger, i);
+            logCaller(logger, "value");
+        }
+        assertEquals(4, handler.records.size());
+        final ExtLogRecord first = handler.records.get(0);
+        final ExtLogRecord second = handler.records.get(1);
+        // both overloads log from the same byte code index, but from different lines
+        assertEquals("logCaller", first.getSourceMethodName());
+        assertEquals("logCaller", second.getSourceMethodName());
+        assertEquals(first.getSourceLineNumber() + 4, second.getSourceLineNumber());
+        assertEquals("LoggerTests.java", first.getSourceFileName());
+        for (int i = 2; i < 4; i++) {
+            final ExtLogRecord record = handler.records.get(i);
+            final ExtLogRecord expected = handler.records.get(i - 2);
+            assertEquals(expected.getSourceClassName(), record.getSourceClassName());
+            assertEquals(expected.getSourceLineNumber(), record.getSourceLineNumber());
+            assertEquals(expected.getSourceFileName(), record.getSourceFileName());
+            assertEquals(expected.getSourceModuleName(), record.getSourceModuleName());
+        }
+    }
+
+    private static void logCaller(final Logger logger, final int value) {
+        logger.info("int");
+    }
+
+    private static void logCaller(final Logger logger, final String value) {
+        logger.info("string");
+    }
+
+    @Test
+    public void testSetLevels() throws Exception {
+        try (LogContext context = LogContext.create()) {
+            final Logger root = context.getLogger("");
+            final Logger parent = context.getLogger("org.jboss");
+            final Logger child = context.getLogger("org.jboss.child");
+            final Logger other = context.getLogger("org.other");
+            child.setLevel(Level.ERROR);
+
+            final Map<String, Level> levels = new HashMap<>();
+            levels.put("", Level.WARN);
+            levels.put("org.jboss", Level.DEBUG);
+            // Reset the child to inherit from the parent
+            levels.put("org.jboss.child", null);
+            levels.put("org.jboss.child.created", Level.TRACE);
+            context.setLevels(levels);
+
+            assertEquals(Level.WARN, root.getLevel());
+            assertEquals(Level.DEBUG, parent.getLevel());
+            assertNull(child.getLevel());
+            assertNull(other.getLevel());
+            assertEquals(Level.WARN.intValue(), root.getEffectiveLevel());
+            assertEquals(Level.DEBUG.intValue(), parent.getEffectiveLevel());
+            assertEquals(Level.DEBUG.intValue(), child.getEffectiveLevel());
+            assertEquals(Level.WARN.intValue(), other.getEffectiveLevel());
+            assertTrue(child.isLoggable(Level.DEBUG));
+            assertFalse(other.isLoggable(Level.INFO));
+
+            final Logger created = context.getLoggerIfExists("org.jboss.child.created");
+            assertNotNull(created);
+            assertEquals(Level.TRACE.intValue(), created.getEffectiveLevel());
+
+            // Changing only the root updates the loggers inheriting from it
+            context.setLevels(Map.of("", Level.INFO));
+            assertEquals(Level.INFO.intValue(), other.getEffectiveLevel());
+            assertEquals(Level.DEBUG.intValue(), child.getEffectiveLevel());
+        }
+    }
+
+    @Test
+    public void testLevelDispatch() throws Exception {
+        try (LogContext context = LogContext.create()) {
+            final Logger logger = context.getLogger("org.jboss.dispatch");
+            logger.setUseParentHandlers(false);
+            logger.setLevel(Level.ALL);
+            final ListHandler debug = new ListHandler();
+            debug.setLevel(Level.DEBUG);
+            final ListHandler warn = new ListHandler();
+            warn.setLevel(Level.WARN);
+            final ListHandler off = new ListHandler();
+            off.setLevel(Level.OFF);
+            // a handler which doesn't check its level
+            final ListHandler unchecked = new ListHandler() {
+                @Override
+                public boolean isLoggable(final LogRecord record) {
+                    return true;
+                }
+            };
+            unchecked.setLevel(Level.FATAL);
+            final List<String> legacy = Collections.synchronizedList(new ArrayList<>());
+            final Handler legacyHandler = new Handler() {
+                @Override
+                public void publish(final LogRecord record) {
+                    if (isLoggable(record)) {
+                        legacy.add(record.getMessage());
+                    }
+                }
+
+                @Override
+                public void flush() {
+                }
+
+                @Override
+                public void close() {
+                }
+            };
+            legacyHandler.setLevel(Level.ERROR);
+            logger.setHandlers(new Handler[] { debug, warn, off, unchecked, legacyHandler });
+
+            logger.log(Level.TRACE, "trace");
+            logger.log(Level.DEBUG, "debug");
+            logger.info("info");
+            logger.log(Level.WARN, "warn");
+            logger.log(Level.ERROR, "error");
+            assertEquals(List.of("debug", "info", "warn", "error"), debug.messages);
+            assertEquals(List.of("warn", "error"), warn.messages);
+            assertEquals(List.of(), off.messages);
+            assertEquals(List.of("trace", "debug", "info", "warn", "error"), unchecked.messages);
+            assertEquals(List.of("error"), legacy);
+
+            // Changing the level of a handler takes effect for the next record
+            warn.setLevel(Level.INFO);
+            off.setLevel(Level.ALL);
+            logger.info("changed");
+            assertEquals(List.of("warn", "error", "changed"), warn.messages);
+            assertEquals(List.of("changed"), off.messages);
+
+            // A handler filter which changes the level affects the handlers after it
+            final ListHandler raising = new ListHandler();
+            raising.setFilter(new LevelChangingFilter(Level.ERROR));
+            final ListHandler error = new ListHandler();
+            error.setLevel(Level.ERROR);
+            logger.setHandlers(new Handler[] { error, raising, warn, error });
+            logger.info("raised");
+            assertEquals(List.of("raised"), raising.messages);
+            assertEquals(List.of("raised"), error.messages);
+            assertEquals(List.of("warn", "error", "changed", "raised"), warn.messages);
+        }
+    }
+
+    @Test
+    public void testLevelDispatchNestedHandlers() throws Exception {
+        try (LogContext context = LogContext.create()) {
+            final Logger logger = context.getLogger("org.jboss.dispatch.nested");
+            logger.setUseParentHandlers(false);
+            logger.setLevel(Level.ALL);
+            // the queue only keeps errors, but passes every record on to its nested handlers
+            final QueueHandler queue = new QueueHandler();
+            queue.setLevel(Level.ERROR);
+            final ListHandler nested = new ListHandler();
+            queue.addHandler(nested);
+            logger.addHandler(queue);
+
+            logger.log(Level.DEBUG, "debug");
+            logger.log(Level.ERROR, "error");
+            assertEquals(List.of("debug", "error"), nested.messages);
+            assertEquals(1, queue.getQueue().length);
+        }
+    }
+
+    private static class ListHandler extends ExtHandler {
         final List<String> messages = Collections.synchronizedList(new ArrayList<String>());
+        final List<ExtLogRecord> records = Collections.synchronizedList(new ArrayList<ExtLogRecord>());
 
         ListHandler() {
             super();
@@ -265,6 +472,9 @@ public final class LoggerTests {
         protected void doPublish(final ExtLogRecord record) {
             super.doPublish(record);
             messages.add(record.getFormattedMessage());
+            // Calculate the caller while the logging thread is still in the log method
+            record.copyAll();
+            records.add(record);
         }
     }
 
@@ -0,0 +1,84 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ *
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.logmanager;
+
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class MDCTests {
+
+    @Test
+    public void testThreadLocalCopyOnWrite() throws Exception {
+        final ThreadLocalMDC threadLocalMdc = new ThreadLocalMDC();
+        try {
+            threadLocalMdc.put("parent", "value");
+            final AtomicReference<Map<String, Object>> childMdc = new AtomicReference<>();
+            final Thread thread = new Thread(() -> {
+                threadLocalMdc.put("child", "value");
+                childMdc.set(threadLocalMdc.copyObject());
+            });
+            thread.start();
+            thread.join();
+            // The parent changes the shared map after the child has copied it
+            threadLocalMdc.put("parent2", "value");
+            MapTestUtils.compareMaps(Map.of("parent", "value", "child", "value"), childMdc.get());
+            MapTestUtils.compareMaps(Map.of("parent", "value", "parent2", "value"), threadLocalMdc.copyObject());
+
+            // A captured map is unaffected by later changes
+            final Map<String, Object> captured = threadLocalMdc.capture();
+            threadLocalMdc.remove("parent");
+            final Map<String, Object> previous = threadLocalMdc.replace(captured);
+            threadLocalMdc.put("replaced", "value");
+            MapTestUtils.compareMaps(Map.of("parent", "value", "parent2", "value"), captured);
+            threadLocalMdc.replace(previous);
+            MapTestUtils.compareMaps(Map.of("parent2", "value"), threadLocalMdc.copyObject());
+        } finally {
+            threadLocalMdc.clear();
+        }
+    }
+
+    @Test
+    public void testWrap() throws Exception {
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            // Start the worker before the MDC is set so it does not inherit it
+            executor.submit(() -> MDC.put("worker", "value")).get();
+            MDC.put("submitter", "first");
+            final AtomicReference<Map<String, Object>> taskMdc = new AtomicReference<>();
+            MDC.wrap(executor).execute(() -> taskMdc.set(MDC.copyObject()));
+            MDC.put("submitter", "second");
+            Assertions.assertEquals("second", executor.submit(MDC.wrap(() -> MDC.get("submitter"))).get());
+            MapTestUtils.compareMaps(Map.of("submitter", "first"), taskMdc.get());
+
+            // The MDC of the worker is restored after each task
+            Assertions.assertEquals(Map.of("worker", "value"), executor.submit(MDC::copyObject).get());
+        } finally {
+            MDC.remove("submitter");
+            executor.shutdown();
+            Assertions.assertTrue(executor.awaitTermination(10, TimeUnit.SECONDS));
+        }
+    }
+}
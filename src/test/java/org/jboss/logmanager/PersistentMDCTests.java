@@ -0,0 +1,150 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ *
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.logmanager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class PersistentMDCTests {
+
+    private final PersistentMDC mdc = new PersistentMDC();
+
+    @AfterEach
+    public void clear() {
+        mdc.clear();
+    }
+
+    @Test
+    public void testSnapshot() {
+        mdc.put("key1", "value1");
+        mdc.putObject("key2", 2);
+        final Map<String, Object> snapshot = mdc.copyObject();
+        Assertions.assertSame(snapshot, mdc.copyObject());
+
+        Assertions.assertEquals("value1", mdc.put("key1", "changed"));
+        Assertions.assertEquals(2, mdc.removeObject("key2"));
+        mdc.put("key3", "value3");
+
+        // The snapshot is not affected by later changes
+        MapTestUtils.compareMaps(Map.of("key1", "value1", "key2", 2), snapshot);
+        MapTestUtils.compareMaps(Map.of("key1", "changed", "key3", "value3"), mdc.copyObject());
+        MapTestUtils.compareMaps(Map.of("key1", "changed", "key3", "value3"), mdc.copy());
+        Assertions.assertThrows(UnsupportedOperationException.class, () -> snapshot.put("key4", "value4"));
+
+        mdc.clear();
+        Assertions.assertTrue(mdc.isEmpty());
+        Assertions.assertNull(mdc.get("key1"));
+        Assertions.assertEquals(2, snapshot.size());
+    }
+
+    @Test
+    public void testInheritance() throws Exception {
+        mdc.put("parent", "value");
+        final AtomicReference<Map<String, Object>> childMdc = new AtomicReference<>();
+        final Thread thread = new Thread(() -> {
+            mdc.put("child", "value");
+            childMdc.set(mdc.copyObject());
+        });
+        thread.start();
+        thread.join();
+        MapTestUtils.compareMaps(Map.of("parent", "value", "child", "value"), childMdc.get());
+        MapTestUtils.compareMaps(Map.of("parent", "value"), mdc.copyObject());
+    }
+
+    @Test
+    public void testReplace() {
+        mdc.put("key1", "value1");
+        final Map<String, Object> captured = mdc.capture();
+        mdc.put("key2", "value2");
+
+        final Map<String, Object> previous = mdc.replace(captured);
+        Assertions.assertSame(captured, mdc.copyObject());
+        MapTestUtils.compareMaps(Map.of("key1", "value1", "key2", "value2"), previous);
+        mdc.replace(previous);
+        Assertions.assertSame(previous, mdc.copyObject());
+
+        // Maps from elsewhere are converted
+        mdc.replace(Map.of("other", "value"));
+        MapTestUtils.compareMaps(Map.of("other", "value"), mdc.copyObject());
+    }
+
+    @Test
+    public void testMapAgainstHashMap() {
+        final Random random = new Random(42L);
+        final Map<Object, Object> expected = new HashMap<>();
+        PersistentHashMap<Object, Object> map = PersistentHashMap.empty();
+        for (int i = 0; i < 20_000; i++) {
+            // Few distinct keys so that entries are replaced and removed as often as they are added
+            final Object key = random.nextBoolean() ? new CollidingKey(random.nextInt(200)) : random.nextInt(2_000);
+            if (random.nextInt(3) == 0) {
+                final PersistentHashMap<Object, Object> previous = map;
+                final int size = previous.size();
+                map = map.minus(key);
+                final boolean removed = expected.remove(key) != null;
+                Assertions.assertEquals(removed ? size - 1 : size, map.size());
+                if (!removed) {
+                    Assertions.assertSame(previous, map);
+                }
+            } else {
+                final Object value = random.nextInt(10);
+                map = map.plus(key, value);
+                expected.put(key, value);
+            }
+            Assertions.assertEquals(expected.get(key), map.get(key));
+        }
+        Assertions.assertEquals(expected.size(), map.size());
+        Assertions.assertEquals(expected, map);
+        Assertions.assertEquals(expected.hashCode(), map.hashCode());
+
+        // Remove everything, the map should end up empty
+        for (Object key : expected.keySet()) {
+            map = map.minus(key);
+        }
+        Assertions.assertTrue(map.isEmpty());
+        Assertions.assertFalse(map.entrySet().iterator().hasNext());
+    }
+
+    /**
+     * A key with a poor hash code, so that the map has to handle full hash collisions.
+     */
+    private static final class CollidingKey {
+        private final int value;
+
+        private CollidingKey(final int value) {
+            this.value = value;
+        }
+
+        @Override
+        public int hashCode() {
+            return value % 7;
+        }
+
+        @Override
+        public boolean equals(final Object obj) {
+            return obj instanceof CollidingKey && ((CollidingKey) obj).value == value;
+        }
+    }
+}
@@ -41,6 +41,7 @@ import org.jboss.logmanager.ExtHandler;
 import org.jboss.logmanager.ExtLogRecord;
 import org.jboss.logmanager.Level;
 import org.jboss.logmanager.LogContext;
+import org.jboss.logmanager.filters.RateLimitFilter;
 import org.jboss.logmanager.formatters.PatternFormatter;
 import org.jboss.logmanager.handlers.ConsoleHandler;
 import org.junit.jupiter.api.AfterEach;
@@ -217,6 +218,27 @@ public class PropertyConfigurationTests {
         Assertions.assertFalse(TestFilter.INITIALIZED, "The filter should not have been initialized");
     }
 
+    @Test
+    public void testFilterProperties() {
+        final Properties config = defaultProperties();
+        config.setProperty("logger.filter", "LIMIT");
+        config.setProperty("filter.LIMIT", RateLimitFilter.class.getName());
+        config.setProperty("filter.LIMIT.properties", "burst,rate,reportInterval");
+        config.setProperty("filter.LIMIT.burst", "20");
+        config.setProperty("filter.LIMIT.rate", "0.5");
+        config.setProperty("filter.LIMIT.reportInterval", "300");
+
+        PropertyContextConfiguration.configure(logContext, config);
+        testDefault(2, 1);
+
+        final Filter filter = logContext.getLogger("").getFilter();
+        Assertions.assertTrue(filter instanceof RateLimitFilter, () -> "Unexpected filter " + filter);
+        final RateLimitFilter rateLimitFilter = (RateLimitFilter) filter;
+        Assertions.assertEquals(20, rateLimitFilter.getBurst());
+        Assertions.assertEquals(0.5, rateLimitFilter.getRate());
+        Assertions.assertEquals(300L, rateLimitFilter.getReportInterval());
+    }
+
     private void testDefault(final int expectedLoggers, final int expectedRootHandlers) {
         final Collection<String> loggerNames = Collections.list(logContext.getLoggerNames());
         // We should have two defined loggers
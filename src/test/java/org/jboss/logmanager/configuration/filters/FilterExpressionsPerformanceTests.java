@@ -0,0 +1,97 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ *
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.logmanager.configuration.filters;
+
+import java.util.logging.Filter;
+
+import org.jboss.logmanager.ExtLogRecord;
+import org.jboss.logmanager.Level;
+import org.jboss.logmanager.LogContext;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Compares the compiled filter of an expression with the filters the expression is written with.
+ */
+public class FilterExpressionsPerformanceTests {
+    private static final String EXPRESSION = "all(not(match(\"heartbeat\")),"
+            + " any(match(\"timeout\"), match(\"refused\"), levels(ERROR, FATAL)), not(match(\"^Ignoring\")),"
+            + " levelRange[DEBUG, FATAL], not(levels(TRACE)), any(levels(WARN, ERROR, FATAL), match(\"connection\")))";
+    private static final java.util.logging.Level[] LEVELS = { Level.TRACE, Level.DEBUG, Level.INFO, Level.INFO,
+            Level.INFO, Level.WARN, Level.ERROR };
+    private static final int RECORDS = 1_000;
+    private static final int ITERATIONS = 200;
+
+    @Test
+    public void testPerformance() throws Exception {
+        try (LogContext logContext = LogContext.create()) {
+            final Filter interpreted = FilterExpressions.parseInterpreted(logContext, EXPRESSION);
+            final Filter compiled = FilterExpressions.parse(logContext, EXPRESSION);
+            // warm up both before measuring
+            run(interpreted);
+            run(compiled);
+            final long interpretedTime = run(interpreted);
+            final long compiledTime = run(compiled);
+            // the result is system dependant and can therefore only be checked manually
+            System.out.printf("interpreted: %d ms, compiled: %d ms%n", interpretedTime, compiledTime);
+        }
+    }
+
+    @Test
+    public void testManyMatches() throws Exception {
+        final StringBuilder expression = new StringBuilder("not(any(");
+        for (int i = 0; i < 50; i++) {
+            expression.append(i == 0 ? "" : ", ").append("match(\"noisy message ").append(i).append("\")");
+        }
+        expression.append("))");
+        try (LogContext logContext = LogContext.create()) {
+            final Filter interpreted = FilterExpressions.parseInterpreted(logContext, expression.toString());
+            final Filter compiled = FilterExpressions.parse(logContext, expression.toString());
+            run(interpreted);
+            run(compiled);
+            final long interpretedTime = run(interpreted);
+            final long compiledTime = run(compiled);
+            // the result is system dependant and can therefore only be checked manually
+            System.out.printf("50 matches, interpreted: %d ms, compiled: %d ms%n", interpretedTime, compiledTime);
+        }
+    }
+
+    private static long run(final Filter filter) {
+        final ExtLogRecord[] records = new ExtLogRecord[RECORDS];
+        for (int i = 0; i < RECORDS; i++) {
+            records[i] = FilterExpressionsTests.createRecord(LEVELS[i % LEVELS.length],
+                    "Request {0} to {1} failed with {2}", i, "host" + (i % 7), i % 3 == 0 ? "timeout" : "refused");
+        }
+        final long start = System.currentTimeMillis();
+        int loggable = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            for (ExtLogRecord record : records) {
+                // discard the formatted message so every iteration measures the same work
+                record.setParameters(record.getParameters());
+                if (filter.isLoggable(record)) {
+                    loggable++;
+                }
+            }
+        }
+        if (loggable == 0) {
+            throw new AssertionError("No record was loggable");
+        }
+        return System.currentTimeMillis() - start;
+    }
+}
@@ -0,0 +1,213 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ *
+ * Copyright 2026 Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.jboss.logmanager.configuration.filters;
+
+import java.util.Random;
+import java.util.logging.Filter;
+
+import org.jboss.logmanager.ExtLogRecord;
+import org.jboss.logmanager.Level;
+import org.jboss.logmanager.LogContext;
+import org.jboss.logmanager.filters.AcceptAllFilter;
+import org.jboss.logmanager.filters.DenyAllFilter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.Test;
+
+public class FilterExpressionsTests {
+    private static final String[] LEVELS = { "ALL", "FINEST", "TRACE", "DEBUG", "CONFIG", "INFO", "WARN", "ERROR",
+            "FATAL", "OFF" };
+    private static final java.util.logging.Level[] RECORD_LEVELS = { Level.TRACE, Level.DEBUG, Level.INFO, Level.WARN,
+            Level.ERROR, Level.FATAL, Level.FINEST, Level.CONFIG, Level.SEVERE };
+
+    private static final String[] MATCHES = { "match(\"test\")", "match(\"^a.*e\")", "match(\"message\")",
+            "match(\"other\")", "contains(\"xyz\", \"other\")" };
+
+    private final LogContext logContext = LogContext.create();
+
+    @AfterEach
+    public void close() throws Exception {
+        logContext.close();
+    }
+
+    @Test
+    public void testSimplification() {
+        Assertions.assertNull(FilterExpressions.parse(logContext, ""));
+        Assertions.assertSame(AcceptAllFilter.getInstance(),
+                FilterExpressions.parse(logContext, "all(accept, not(deny))"));
+        Assertions.assertSame(DenyAllFilter.getInstance(),
+                FilterExpressions.parse(logContext, "all(levels(INFO), match(\"test\"), levels(WARN))"));
+        Assertions.assertSame(AcceptAllFilter.getInstance(),
+                FilterExpressions.parse(logContext, "any(levelRange[ALL, INFO], not(levelRange[ALL, INFO]))"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> FilterExpressions.parse(logContext, "levelRange[WARN, INFO]"));
+
+        // The level check is evaluated first, the message is not formatted for other levels
+        final Filter filter = FilterExpressions.parse(logContext, "all(match(\"test\"), levels(ERROR, WARN))");
+        final ExtLogRecord record = createRecord(Level.INFO, "test {0}", new Object() {
+            @Override
+            public String toString() {
+                throw new AssertionError("The message should not be formatted");
+            }
+        });
+        Assertions.assertFalse(filter.isLoggable(record));
+        Assertions.assertTrue(filter.isLoggable(createRecord(Level.WARN, "a test")));
+
+        // Filters which change the record still run before later checks
+        final Filter changing = FilterExpressions.parse(logContext,
+                "all(substitute(\"test\", \"lunch\"), levels(INFO), match(\"lunch\"))");
+        final ExtLogRecord changed = createRecord(Level.WARN, "a test");
+        Assertions.assertFalse(changing.isLoggable(changed));
+        Assertions.assertEquals("a lunch", changed.getFormattedMessage());
+        final Filter levelChanging = FilterExpressions.parse(logContext, "all(levelChange(INFO), levels(INFO))");
+        Assertions.assertTrue(levelChanging.isLoggable(createRecord(Level.WARN, "a test")));
+    }
+
+    @Test
+    public void testContains() {
+        final Filter filter = FilterExpressions.parse(logContext,
+                "contains(\"refused\", \"timed out\", \"r\u00e9seau\")");
+        Assertions.assertTrue(filter.isLoggable(createRecord(Level.INFO, "Connection {0}", "refused")));
+        Assertions.assertTrue(filter.isLoggable(createRecord(Level.INFO, "The request timed out")));
+        Assertions.assertTrue(filter.isLoggable(createRecord(Level.INFO, "Erreur r\u00e9seau")));
+        Assertions.assertFalse(filter.isLoggable(createRecord(Level.INFO, "The request timed in")));
+
+        // The plain strings of several matches are looked up at once
+        final Filter matches = FilterExpressions.parse(logContext,
+                "not(any(match(\"heartbeat\"), match(\"^Ignoring\"), match(\"keep-alive\"), levels(DEBUG)))");
+        Assertions.assertFalse(matches.isLoggable(createRecord(Level.INFO, "Sending {0}", "heartbeat")));
+        Assertions.assertFalse(matches.isLoggable(createRecord(Level.INFO, "Ignoring request")));
+        Assertions.assertFalse(matches.isLoggable(createRecord(Level.INFO, "Sending keep-alive")));
+        Assertions.assertFalse(matches.isLoggable(createRecord(Level.DEBUG, "Received request")));
+        Assertions.assertTrue(matches.isLoggable(createRecord(Level.INFO, "Still Ignoring request")));
+    }
+
+    @Test
+    public void testRateLimit() {
+        final Filter filter = FilterExpressions.parse(logContext, "all(levels(INFO), rateLimit(2, 0.5))");
+        Assertions.assertTrue(filter.isLoggable(createRecord(Level.INFO, "Repeated")));
+        Assertions.assertTrue(filter.isLoggable(createRecord(Level.INFO, "Repeated")));
+        Assertions.assertFalse(filter.isLoggable(createRecord(Level.INFO, "Repeated")));
+        Assertions.assertTrue(filter.isLoggable(createRecord(Level.INFO, "Other")));
+        // Records rejected by an earlier filter don't take a token
+        Assertions.assertFalse(filter.isLoggable(createRecord(Level.WARN, "Other")));
+        Assertions.assertTrue(filter.isLoggable(createRecord(Level.INFO, "Other")));
+        Assertions.assertFalse(filter.isLoggable(createRecord(Level.INFO, "Other")));
+
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> FilterExpressions.parse(logContext, "rateLimit(2, fast)"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> FilterExpressions.parse(logContext, "rateLimit(2, 1.2.3)"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> FilterExpressions.parse(logContext, "rateLimit(0, 1)"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> FilterExpressions.parse(logContext, "rateLimit(2.5, 1)"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> FilterExpressions.parse(logContext, "rateLimit(3000000000, 1)"));
+    }
+
+    @Test
+    public void testSample() {
+        Assertions.assertFalse(FilterExpressions.parse(logContext, "sample(0)")
+                .isLoggable(createRecord(Level.DEBUG, "Sampled")));
+        Assertions.assertTrue(FilterExpressions.parse(logContext, "sample(1)")
+                .isLoggable(createRecord(Level.DEBUG, "Sampled")));
+
+        final Filter filter = FilterExpressions.parse(logContext, "any(levels(INFO), sample(0.5, \"traceId\"))");
+        for (int i = 0; i < 100; i++) {
+            final ExtLogRecord first = createRecord(Level.DEBUG, "First");
+            first.putMdc("traceId", "trace-" + i);
+            final ExtLogRecord second = createRecord(Level.DEBUG, "Second");
+            second.putMdc("traceId", "trace-" + i);
+            Assertions.assertEquals(filter.isLoggable(first), filter.isLoggable(second));
+        }
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> FilterExpressions.parse(logContext, "sample(2)"));
+        Assertions.assertThrows(IllegalArgumentException.class,
+                () -> FilterExpressions.parse(logContext, "sample(0.5, traceId)"));
+    }
+
+    @Test
+    public void testCompiledMatchesInterpreted() {
+        final Random random = new Random(7L);
+        for (int i = 0; i < 2_000; i++) {
+            final String expression = randomExpression(random, 3);
+            final Filter compiled = FilterExpressions.parse(logContext, expression);
+            final Filter interpreted = FilterExpressions.parseInterpreted(logContext, expression);
+            for (int j = 0; j < 20; j++) {
+                final java.util.logging.Level level = RECORD_LEVELS[random.nextInt(RECORD_LEVELS.length)];
+                final boolean parameter = random.nextBoolean();
+                final String message = random.nextBoolean() ? "a test" : "another message";
+                final ExtLogRecord expected = parameter ? createRecord(level, "{0}", message)
+                        : createRecord(level, message);
+                final ExtLogRecord actual = parameter ? createRecord(level, "{0}", message)
+                        : createRecord(level, message);
+                Assertions.assertEquals(interpreted.isLoggable(expected), compiled.isLoggable(actual), expression);
+                Assertions.assertEquals(expected.getLevel(), actual.getLevel(), expression);
+                Assertions.assertEquals(expected.getFormattedMessage(), actual.getFormattedMessage(), expression);
+            }
+        }
+    }
+
+    static String randomExpression(final Random random, final int depth) {
+        final int choice = random.nextInt(depth == 0 ? 6 : 9);
+        switch (choice) {
+            case 0:
+                return random.nextBoolean() ? "accept" : "deny";
+            case 1: {
+                final StringBuilder b = new StringBuilder("levels(");
+                final int count = 1 + random.nextInt(3);
+                for (int i = 0; i < count; i++) {
+                    b.append(i == 0 ? "" : ", ").append(LEVELS[random.nextInt(LEVELS.length)]);
+                }
+                return b.append(')').toString();
+            }
+            case 2: {
+                final int min = random.nextInt(LEVELS.length);
+                final int max = min + random.nextInt(LEVELS.length - min);
+                return "levelRange" + (random.nextBoolean() ? '[' : '(') + LEVELS[min] + ", " + LEVELS[max]
+                        + (random.nextBoolean() ? ']' : ')');
+            }
+            case 3:
+                return MATCHES[random.nextInt(MATCHES.length)];
+            case 4:
+                return random.nextBoolean() ? "substitute(\"test\", \"message\")" : "substituteAll(\"e\", \"test\")";
+            case 5:
+                return "levelChange(" + LEVELS[random.nextInt(LEVELS.length)] + ")";
+            case 6:
+                return "not(" + randomExpression(random, depth - 1) + ")";
+            default: {
+                final StringBuilder b = new StringBuilder(choice == 7 ? "all(" : "any(");
+                final int count = 1 + random.nextInt(4);
+                for (int i = 0; i < count; i++) {
+                    b.append(i == 0 ? "" : ", ").append(randomExpression(random, depth - 1));
+                }
+                return b.append(')').toString();
+            }
+        }
+    }
+
+    static ExtLogRecord createRecord(final java.util.logging.Level level, final String message,
+            final Object... parameters) {
+        final ExtLogRecord record = new ExtLogRecord(level, message, FilterExpressionsTests.class.getName());
+        record.setParameters(parameters);
+        return record;
+    }
+}
@@ -1,10 +1,15 @@
 package org.jboss.logmanager.formatters;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Locale;
+import java.util.MissingFormatArgumentException;
+import java.util.UnknownFormatConversionException;
 import java.util.logging.Level;
 
 import org.jboss.logmanager.ExtLogRecord;
 import org.jboss.logmanager.handlers.ConsoleHandler;
+import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Assumptions;
 import org.junit.jupiter.api.Test;
 
@@ -20,6 +25,48 @@ public final class ColorPatternFormatterTests {
         runTest();
     }
 
+    @Test
+    public void testCompiledPrintf() {
+        final Printf printf = new Printf(Locale.ROOT);
+        final Printf.Plan plan = printf.compile("[%-6s|%5d|%2$x|%<o|%c|%b|%%|%tF %<tT]%n");
+        final LocalDateTime time = LocalDateTime.of(2026, 3, 4, 5, 6, 7);
+        final Object[] params = { "abc", 42, 'z', true, time };
+        final String expected = "[abc   |   42|2a|52|z|true|%|2026-03-04 05:06:07]" + System.lineSeparator();
+        Assertions.assertEquals(expected, plan.format(params));
+        Assertions.assertEquals(expected, printf.format(plan.getFormat(), params));
+        // the plan holds no state between renders
+        Assertions.assertEquals("[null  | null|null|null|null|false|%|null null]" + System.lineSeparator(),
+                plan.format(null, null, null, null, null));
+        Assertions.assertEquals(expected, plan.render(new StringBuilder(), params).toString());
+
+        // errors in the format string are reported when it is compiled, missing arguments when it is rendered
+        Assertions.assertThrows(UnknownFormatConversionException.class, () -> printf.compile("%tJ"));
+        Assertions.assertThrows(UnknownFormatConversionException.class, () -> printf.compile("%w"));
+        final Printf.Plan missing = printf.compile("%s %s");
+        Assertions.assertThrows(MissingFormatArgumentException.class, () -> missing.format("one"));
+    }
+
+    @Test
+    public void testPrintfPlanEviction() {
+        final Printf printf = new Printf(Locale.ROOT);
+        final Printf.Plan hot = printf.getPlan("Hot %s");
+        for (int i = 0; i < 5_000; i++) {
+            printf.getPlan("Cold " + i + " %s");
+            // The plan in use stays cached while the others are evicted
+            Assertions.assertSame(hot, printf.getPlan("Hot %s"));
+        }
+    }
+
+    @Test
+    public void testColorPrintfPlan() {
+        final ColorPrintf printf = new ColorPrintf(false);
+        final String formatted = printf.format("%s and %s", "one", "two");
+        Assertions.assertEquals(formatted, printf.compile("%s and %s").format("one", "two"));
+        // the whole message is colored once, and the arguments within it
+        Assertions.assertTrue(formatted.startsWith("\u001b["), formatted);
+        Assertions.assertTrue(formatted.contains(" and "), formatted);
+    }
+
     private static void runTest() {
         boolean trueColor = ConsoleHandler.isTrueColor();
         System.out.printf("True color: %s%n", trueColor);
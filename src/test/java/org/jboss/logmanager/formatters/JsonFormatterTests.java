@@ -20,6 +20,7 @@
 package org.jboss.logmanager.formatters;
 
 import java.io.StringReader;
+import java.time.Instant;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.util.Collections;
@@ -28,8 +29,10 @@ import java.util.LinkedHashMap;
 import java.util.Map;
 
 import jakarta.json.Json;
+import jakarta.json.JsonNumber;
 import jakarta.json.JsonObject;
 import jakarta.json.JsonReader;
+import jakarta.json.JsonString;
 import jakarta.json.JsonValue;
 import jakarta.json.JsonValue.ValueType;
 
@@ -100,6 +103,76 @@ public class JsonFormatterTests extends AbstractTest {
         compare(record, formatter, metaDataMap);
     }
 
+    @Test
+    public void testTypedMdcValues() throws Exception {
+        final JsonFormatter formatter = new JsonFormatter();
+        final ExtLogRecord record = createLogRecord("Test typed MDC values");
+        record.setMdc(Map.of("requestId", 42L, "sampled", true, "traceId", "abc"));
+
+        // By default every value is written as a string
+        JsonObject mdc = readMdc(formatter.format(record));
+        Assertions.assertEquals("42", mdc.getString("requestId"));
+        Assertions.assertEquals("true", mdc.getString("sampled"));
+        Assertions.assertEquals("abc", mdc.getString("traceId"));
+
+        formatter.setTypedMdcValues(true);
+        mdc = readMdc(formatter.format(record));
+        Assertions.assertEquals(42L, mdc.getJsonNumber("requestId").longValue());
+        Assertions.assertTrue(mdc.getBoolean("sampled"));
+        Assertions.assertEquals("abc", mdc.getString("traceId"));
+    }
+
+    @Test
+    public void testTimestampFormats() throws Exception {
+        final JsonFormatter formatter = new JsonFormatter();
+        final ExtLogRecord record = createLogRecord("Test timestamp formats");
+        // a leap day, before the epoch and past the range of four digit years
+        final String[][] expected = {
+                { "2024-02-29T23:59:59.123456789Z", "2024-02-29T23:59:59.123Z" },
+                { "1969-12-31T23:59:59.000000001Z", "1969-12-31T23:59:59.000Z" },
+                { "0001-01-01T00:00:00.000000000Z", "0001-01-01T00:00:00.000Z" },
+                { "+10000-01-01T00:00:00.000000000Z", "+10000-01-01T00:00:00.000Z" },
+        };
+        for (String[] timestamps : expected) {
+            record.setInstant(Instant.parse(timestamps[0]));
+            formatter.setTimestampFormat(StructuredFormatter.TimestampFormat.ISO_UTC_NANOS);
+            Assertions.assertEquals(timestamps[0], ((JsonString) readTimestamp(formatter.format(record))).getString());
+            formatter.setTimestampFormat(StructuredFormatter.TimestampFormat.ISO_UTC_MILLIS);
+            Assertions.assertEquals(timestamps[1], ((JsonString) readTimestamp(formatter.format(record))).getString());
+        }
+
+        record.setInstant(Instant.ofEpochSecond(1_700_000_000L, 123_456_789));
+        formatter.setTimestampFormat(StructuredFormatter.TimestampFormat.EPOCH_MILLIS);
+        Assertions.assertEquals(1_700_000_000_123L,
+                ((JsonNumber) readTimestamp(formatter.format(record))).longValue());
+        formatter.setTimestampFormat(StructuredFormatter.TimestampFormat.EPOCH_NANOS);
+        Assertions.assertEquals(1_700_000_000_123_456_789L,
+                ((JsonNumber) readTimestamp(formatter.format(record))).longValue());
+
+        // past the range of a long in nanoseconds
+        record.setInstant(Instant.parse("2300-01-01T00:00:00.000000001Z"));
+        Assertions.assertEquals("10413792000000000001",
+                ((JsonString) readTimestamp(formatter.format(record))).getString());
+        record.setInstant(Instant.ofEpochSecond(1_700_000_000L, 123_456_789));
+
+        formatter.setTimestampFormat(null);
+        Assertions.assertEquals(StructuredFormatter.TimestampFormat.PATTERN, formatter.getTimestampFormat());
+        Assertions.assertEquals(DATE_TIME_FORMATTER.format(record.getInstant()),
+                ((JsonString) readTimestamp(formatter.format(record))).getString());
+    }
+
+    private static JsonValue readTimestamp(final String jsonString) {
+        try (JsonReader reader = Json.createReader(new StringReader(jsonString))) {
+            return reader.readObject().get(getKey(Key.TIMESTAMP));
+        }
+    }
+
+    private static JsonObject readMdc(final String jsonString) {
+        try (JsonReader reader = Json.createReader(new StringReader(jsonString))) {
+            return reader.readObject().getJsonObject(getKey(Key.MDC));
+        }
+    }
+
     private static int getInt(final JsonObject json, final Key key) {
         final String name = getKey(key);
         if (json.containsKey(name) && !json.isNull(name)) {
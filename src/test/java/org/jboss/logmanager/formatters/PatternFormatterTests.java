@@ -19,6 +19,10 @@
 
 package org.jboss.logmanager.formatters;
 
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+
 import org.jboss.logmanager.ExtLogRecord;
 import org.jboss.logmanager.MDC;
 import org.jboss.logmanager.NDC;
@@ -136,6 +140,24 @@ public class PatternFormatterTests {
         }
     }
 
+    @Test
+    public void mdcTypedValues() throws Exception {
+        try {
+            MDC.putObject("requestId", 42L);
+            MDC.putObject("sampled", Boolean.TRUE);
+            MDC.putObject("traceId", new StringBuilder("abc"));
+            final ExtLogRecord record = createLogRecord("test");
+
+            PatternFormatter formatter = new PatternFormatter("%X{requestId} %X{sampled} %X{traceId}");
+            Assertions.assertEquals("42 true abc", formatter.format(record));
+
+            formatter = new PatternFormatter("%X");
+            Assertions.assertEquals("{requestId=42, sampled=true, traceId=abc}", formatter.format(record));
+        } finally {
+            MDC.clear();
+        }
+    }
+
     @Test
     public void threads() throws Exception {
         final ExtLogRecord record = createLogRecord("test");
@@ -300,6 +322,57 @@ public class PatternFormatterTests {
         Assertions.assertEquals("jboss", formatter.format(record));
     }
 
+    @Test
+    public void modules() {
+        final ExtLogRecord record = createLogRecord("test");
+        record.setSourceModuleName("org.jboss.logmanager");
+        record.setSourceModuleVersion("3.1.0.Final");
+        final PatternFormatter formatter = new PatternFormatter("%D{1.} %D %v{1}");
+        Assertions.assertEquals("o.j.logmanager org.jboss.logmanager Final", formatter.format(record));
+        Assertions.assertEquals("o.j.logmanager org.jboss.logmanager Final", formatter.format(record));
+
+        // A different module is not served from the previous result
+        record.setSourceModuleName("org.acme");
+        record.setSourceModuleVersion(null);
+        Assertions.assertEquals("o.acme org.acme null", formatter.format(record));
+    }
+
+    @Test
+    public void dates() {
+        final ZoneId zoneId = ZoneId.of("America/New_York");
+        // the last two cross a daylight saving time change
+        final Instant[] instants = {
+                Instant.ofEpochSecond(1_700_000_000L, 0),
+                Instant.ofEpochSecond(1_700_000_000L, 7_000_000),
+                Instant.ofEpochSecond(1_700_000_000L, 999_999_999),
+                Instant.ofEpochSecond(1_700_000_001L, 120_450_000),
+                Instant.ofEpochSecond(1_700_000_001L, 5),
+                Instant.ofEpochSecond(-1L, 500_000_000),
+                Instant.parse("2026-11-01T05:59:59.250Z"),
+                Instant.parse("2026-11-01T06:00:00.250Z"),
+        };
+        final String[] patterns = {
+                "yyyy-MM-dd HH:mm:ss,SSS",
+                "HH:mm:ss.SSSSSSSSS",
+                "EEEE d MMMM yyyy HH:mm:ss.S zzz",
+                "SSS 'S' HH:mm",
+                "HH:mm:ss",
+                "yyyy-MM-dd HH:mm:ss.SSS.SSS",
+                "HH:mm:ss.nnnnnnnnn",
+                "HH:mm:ss[.SSS]",
+        };
+        for (String pattern : patterns) {
+            final DateTimeFormatter expected = DateTimeFormatter.ofPattern(pattern);
+            final CachedDateFormatter formatter = new CachedDateFormatter(pattern, zoneId);
+            for (Instant instant : instants) {
+                final StringBuilder builder = new StringBuilder();
+                formatter.formatTo(instant, builder);
+                Assertions.assertEquals(expected.format(instant.atZone(zoneId)), builder.toString(),
+                        () -> pattern + " " + instant);
+            }
+        }
+    }
+
     private void systemProperties(final String propertyPrefix) throws Exception {
         final ExtLogRecord record = createLogRecord("test");
         PatternFormatter formatter = new PatternFormatter("%" + propertyPrefix + "{org.jboss.logmanager.testProp}");
@@ -19,6 +19,7 @@
 
 package org.jboss.logmanager.handlers;
 
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -230,6 +231,55 @@ public class DelayedHandlerTests {
         }
     }
 
+    @Test
+    public void testReactivation() throws Exception {
+        final LogContext logContext = LogContext.create();
+        final Logger rootLogger = logContext.getLogger("");
+        final DelayedHandler handler = new DelayedHandler();
+        handler.setErrorManager(AssertingErrorManager.of());
+        rootLogger.addHandler(handler);
+
+        // Records queued by different threads are merged in the order they were created
+        final ExecutorService service = createExecutor();
+        try {
+            rootLogger.info("Test message 1");
+            service.submit(() -> rootLogger.info("Test message 2")).get();
+            rootLogger.info("Test message 3");
+        } finally {
+            service.shutdown();
+        }
+        final TestHandler testHandler = new TestHandler();
+        handler.addHandler(testHandler);
+        Assertions.assertTrue(handler.isActivated());
+        Assertions.assertEquals(3, TestHandler.MESSAGES.size());
+        Assertions.assertEquals("Test message 2", TestHandler.MESSAGES.get(1).getFormattedMessage());
+
+        // Once deactivated the records are queued again, and replayed on the next activation
+        handler.clearHandlers();
+        Assertions.assertFalse(handler.isActivated());
+        rootLogger.info("Test message 4");
+        Assertions.assertEquals(3, TestHandler.MESSAGES.size());
+        handler.addHandler(testHandler);
+        rootLogger.info("Test message 5");
+        Assertions.assertEquals(5, TestHandler.MESSAGES.size());
+        Assertions.assertEquals("Test message 4", TestHandler.MESSAGES.get(3).getFormattedMessage());
+        Assertions.assertEquals("Test message 5", TestHandler.MESSAGES.get(4).getFormattedMessage());
+    }
+
+    @Test
+    public void testQueuingThreadDoesNotRetainHandler() throws Exception {
+        DelayedHandler handler = new DelayedHandler();
+        handler.publish(new ExtLogRecord(java.util.logging.Level.INFO, "Test message", getClass().getName()));
+        final WeakReference<DelayedHandler> reference = new WeakReference<>(handler);
+        handler = null;
+        // The buffer of this thread must not keep the handler reachable
+        for (int i = 0; i < 50 && reference.get() != null; i++) {
+            System.gc();
+            Thread.sleep(20L);
+        }
+        Assertions.assertNull(reference.get(), "The handler is still reachable from the thread");
+    }
+
     private static ExecutorService createExecutor() {
         return Executors.newFixedThreadPool(ProcessorInfo.availableProcessors() * 2);
     }
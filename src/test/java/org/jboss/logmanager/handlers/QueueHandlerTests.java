@@ -23,6 +23,11 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import org.jboss.logmanager.ExtHandler;
 import org.jboss.logmanager.ExtLogRecord;
@@ -83,8 +88,146 @@ public class QueueHandlerTests extends AbstractHandlerTest {
         Assertions.assertEquals(1, handler.getQueue().length);
     }
 
+    @Test
+    public void testSlowNestedHandler() throws Exception {
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final QueueHandler handler = new QueueHandler(3);
+        handler.setErrorManager(AssertingErrorManager.of());
+        handler.addHandler(new ExtHandler() {
+            @Override
+            protected void doPublish(final ExtLogRecord record) {
+                if ("slow".equals(record.getMessage())) {
+                    entered.countDown();
+                    try {
+                        release.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+            }
+        });
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            final Future<?> slow = executor.submit(() -> handler.publish(createLogRecord("slow")));
+            Assertions.assertTrue(entered.await(10, TimeUnit.SECONDS));
+            // Other threads are not held up by the nested handler
+            for (int i = 0; i < 3; i++) {
+                handler.publish(createLogRecord("Test message %d", i));
+            }
+            final ExtLogRecord[] records = handler.getQueue();
+            Assertions.assertEquals(3, records.length);
+            Assertions.assertEquals("Test message 0", records[0].getMessage());
+            Assertions.assertEquals("Test message 2", records[2].getMessage());
+            release.countDown();
+            slow.get(10, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testConcurrentPublish() throws Exception {
+        final QueueHandler handler = new QueueHandler(64);
+        handler.setErrorManager(AssertingErrorManager.of());
+        final NestedHandler nestedHandler = new NestedHandler();
+        final int threads = 4;
+        final int count = 1_000;
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        final CountDownLatch added = new CountDownLatch(1);
+        try {
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                final int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < count; i++) {
+                        if (thread != 0 && i == count - 1) {
+                            // Make sure the last record of every thread is published after the handler is added
+                            added.await(30, TimeUnit.SECONDS);
+                        }
+                        final ExtLogRecord record = createLogRecord("%d", i);
+                        record.setThreadID(thread);
+                        handler.publish(record);
+                        if (thread == 0 && i == count / 2) {
+                            handler.addHandler(nestedHandler, true);
+                            added.countDown();
+                        }
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdown();
+        }
+        // Every thread logged its messages in order, the snapshot must keep that order
+        final ExtLogRecord[] records = handler.getQueue();
+        Assertions.assertEquals(64, records.length);
+        assertInOrder(records);
+        // The replayed records and all later records reach the handler added with a replay, in order
+        final ExtLogRecord[] nested = nestedHandler.getRecords().toArray(ExtLogRecord[]::new);
+        assertInOrder(nested);
+        final int[] last = new int[threads];
+        for (ExtLogRecord record : nested) {
+            last[record.getThreadID()] = Integer.parseInt(record.getMessage());
+        }
+        for (int t = 0; t < threads; t++) {
+            Assertions.assertEquals(count - 1, last[t]);
+        }
+
+        // Changing the limit keeps the most recent records
+        handler.setLimit(8);
+        final ExtLogRecord[] shrunk = handler.getQueue();
+        Assertions.assertEquals(8, shrunk.length);
+        Assertions.assertSame(records[records.length - 1], shrunk[shrunk.length - 1]);
+        Assertions.assertEquals(8, handler.getLimit());
+    }
+
+    @Test
+    public void testReplayWhilePublishing() throws Exception {
+        final QueueHandler handler = new QueueHandler(5);
+        handler.setErrorManager(AssertingErrorManager.of());
+        final NestedHandler replayed = new NestedHandler();
+        final List<Exception> failures = Collections.synchronizedList(new ArrayList<>());
+        handler.addHandler(new ExtHandler() {
+            @Override
+            protected void doPublish(final ExtLogRecord record) {
+                try {
+                    handler.addHandler(replayed, true);
+                } catch (IllegalStateException e) {
+                    failures.add(e);
+                }
+            }
+        });
+        // Adding a handler with a replay from a nested handler must fail rather than wait for itself
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            executor.submit(() -> handler.publish(createLogRecord("Test message"))).get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        Assertions.assertEquals(1, failures.size());
+        Assertions.assertTrue(replayed.getRecords().isEmpty());
+
+        // Once publishing is done the handler can be added
+        handler.addHandler(replayed, true);
+        Assertions.assertEquals(1, replayed.getRecords().size());
+    }
+
+    private static void assertInOrder(final ExtLogRecord[] records) {
+        final int[] previous = { -1, -1, -1, -1 };
+        for (ExtLogRecord record : records) {
+            final int value = Integer.parseInt(record.getMessage());
+            Assertions.assertTrue(value > previous[record.getThreadID()], "Records are out of order");
+            previous[record.getThreadID()] = value;
+        }
+    }
+
     static class NestedHandler extends ExtHandler {
-        private final List<ExtLogRecord> records = new ArrayList<ExtLogRecord>();
+        private final List<ExtLogRecord> records = Collections.synchronizedList(new ArrayList<ExtLogRecord>());
 
         NestedHandler() {
             setErrorManager(AssertingErrorManager.of());
@@ -19,7 +19,10 @@
 
 package org.jboss.logmanager.handlers;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.UncheckedIOException;
@@ -28,6 +31,7 @@ import java.net.DatagramSocket;
 import java.net.ServerSocket;
 import java.net.Socket;
 import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
 import java.security.GeneralSecurityException;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.ExecutorService;
@@ -35,10 +39,14 @@ import java.util.concurrent.Executors;
 import java.util.concurrent.LinkedBlockingDeque;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
 
 import javax.net.ServerSocketFactory;
 import javax.net.ssl.SSLServerSocketFactory;
 
+import org.jboss.logmanager.handlers.FramedOutputStream.Compression;
+
 /**
  * @author <a href="mailto:jperkins@redhat.com">James R. Perkins</a>
  */
@@ -80,6 +88,16 @@ abstract class SimpleServer implements Runnable, AutoCloseable {
         return server;
     }
 
+    /**
+     * Creates a TCP server which reads the frames written by a {@link FramedOutputStream}. Each frame is decompressed
+     * and queued as a single string.
+     */
+    static SimpleServer createFramedTcpServer(final Compression compression) throws IOException {
+        final SimpleServer server = new FramedTcpServer(new LinkedBlockingDeque<>(), compression);
+        server.start();
+        return server;
+    }
+
     static SimpleServer createUdpServer() throws IOException {
         final SimpleServer server = new UdpServer(new LinkedBlockingDeque<>());
         server.start();
@@ -179,6 +197,79 @@ abstract class SimpleServer implements Runnable, AutoCloseable {
         }
     }
 
+    private static class FramedTcpServer extends SimpleServer {
+        private final BlockingQueue<String> data;
+        private final Compression compression;
+        private final AtomicBoolean closed = new AtomicBoolean(true);
+        private final ServerSocket serverSocket;
+        private volatile Socket socket;
+
+        private FramedTcpServer(final BlockingQueue<String> data, final Compression compression) throws IOException {
+            super(data);
+            this.data = data;
+            this.compression = compression;
+            serverSocket = ServerSocketFactory.getDefault().createServerSocket(0);
+        }
+
+        @Override
+        public void run() {
+            closed.set(false);
+            try {
+                socket = serverSocket.accept();
+                final DataInputStream in = new DataInputStream(socket.getInputStream());
+                while (!closed.get()) {
+                    final byte[] frame = new byte[in.readInt()];
+                    in.readFully(frame);
+                    data.put(new String(decompress(frame), StandardCharsets.UTF_8));
+                }
+            } catch (EOFException ignore) {
+                // the client closed the connection
+            } catch (IOException e) {
+                if (!closed.get()) {
+                    throw new UncheckedIOException(e);
+                }
+            } catch (InterruptedException e) {
+                throw new RuntimeException(e);
+            }
+        }
+
+        private byte[] decompress(final byte[] frame) throws IOException {
+            switch (compression) {
+                case DEFLATE:
+                    try (InputStream in = new InflaterInputStream(new ByteArrayInputStream(frame))) {
+                        return in.readAllBytes();
+                    }
+                case GZIP:
+                    try (InputStream in = new GZIPInputStream(new ByteArrayInputStream(frame))) {
+                        return in.readAllBytes();
+                    }
+                default:
+                    return frame;
+            }
+        }
+
+        @Override
+        public void close() throws Exception {
+            try {
+                closed.set(true);
+                try {
+                    if (socket != null) {
+                        socket.close();
+                    }
+                } finally {
+                    serverSocket.close();
+                }
+            } finally {
+                super.close();
+            }
+        }
+
+        @Override
+        int getPort() {
+            return serverSocket.getLocalPort();
+        }
+    }
+
     private static class UdpServer extends SimpleServer {
         private final BlockingQueue<String> data;
         private final AtomicBoolean closed = new AtomicBoolean(true);
@@ -19,10 +19,27 @@
 
 package org.jboss.logmanager.handlers;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.DatagramSocket;
 import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
 import java.net.UnknownHostException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Supplier;
 import java.util.logging.ErrorManager;
 
@@ -32,6 +49,9 @@ import org.jboss.logmanager.ExtLogRecord;
 import org.jboss.logmanager.LogContext;
 import org.jboss.logmanager.Logger;
 import org.jboss.logmanager.formatters.PatternFormatter;
+import org.jboss.logmanager.handlers.FramedOutputStream.Compression;
+import org.jboss.logmanager.handlers.SocketChannelOutputStream.OverflowPolicy;
+import org.jboss.logmanager.handlers.SocketHandler.Distribution;
 import org.jboss.logmanager.handlers.SocketHandler.Protocol;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Assumptions;
@@ -68,6 +88,42 @@ public class SocketHandlerTests extends AbstractHandlerTest {
         }
     }
 
+    @Test
+    public void testAutoFlushConnection() throws Exception {
+        final AtomicInteger connectionFlushes = new AtomicInteger();
+        final AtomicInteger flushes = new AtomicInteger();
+        try (SimpleServer server = SimpleServer.createTcpServer()) {
+            final SocketHandler handler = new SocketHandler(Protocol.TCP, address, server.getPort()) {
+                @Override
+                protected void flushConnection(final Writer writer) {
+                    connectionFlushes.incrementAndGet();
+                    super.flushConnection(writer);
+                }
+
+                @Override
+                public void flush() {
+                    flushes.incrementAndGet();
+                    super.flush();
+                }
+            };
+            try {
+                handler.setAutoFlush(true);
+                handler.setConnectionCount(2);
+                handler.setEncoding("utf-8");
+                handler.setFormatter(new PatternFormatter("%s\n"));
+                handler.setErrorManager(AssertingErrorManager.of());
+                flushes.set(0);
+                handler.publish(createLogRecord("Test TCP flush"));
+                Assertions.assertEquals("Test TCP flush", server.timeoutPoll());
+                // Only the connection the record was written to is flushed
+                Assertions.assertEquals(1, connectionFlushes.get());
+                Assertions.assertEquals(0, flushes.get());
+            } finally {
+                handler.close();
+            }
+        }
+    }
+
     @Test
     public void testTlsConnection() throws Exception {
         try (
@@ -94,6 +150,304 @@ public class SocketHandlerTests extends AbstractHandlerTest {
         }
     }
 
+    @Test
+    public void testTcpSendBuffer() throws Exception {
+        try (
+                SimpleServer server = SimpleServer.createTcpServer();
+                SocketHandler handler = createHandler(Protocol.TCP, server.getPort())) {
+            handler.setSendBufferSize(8192);
+            final ExtLogRecord record = createLogRecord("Test TCP send buffer");
+            handler.publish(record);
+            final String msg = server.timeoutPoll();
+            Assertions.assertNotNull(msg);
+            Assertions.assertEquals("Test TCP send buffer", msg);
+            Assertions.assertEquals(0L, handler.getBytesDropped());
+        }
+    }
+
+    @Test
+    public void testTcpSendBufferOverflow() throws Exception {
+        final int port;
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            port = serverSocket.getLocalPort();
+        }
+        // Nothing is listening, so everything stays in the send buffer until it overflows
+        try (SocketHandler handler = createHandler(Protocol.TCP, port)) {
+            handler.setSendBufferSize(64);
+            handler.setOverflowPolicy(OverflowPolicy.DROP_NEWEST);
+            for (int i = 0; i < 10; i++) {
+                handler.publish(createLogRecord("Test TCP send buffer overflow"));
+            }
+            // Each message is 30 bytes, only two fit
+            Assertions.assertEquals(60L, handler.getBytesBuffered());
+            Assertions.assertEquals(240L, handler.getBytesDropped());
+
+            handler.setOverflowPolicy(OverflowPolicy.DROP_OLDEST);
+            handler.publish(createLogRecord("Test TCP send buffer overflow"));
+            Assertions.assertEquals(60L, handler.getBytesBuffered());
+            Assertions.assertEquals(270L, handler.getBytesDropped());
+        }
+    }
+
+    @Test
+    public void testTcpSendBufferDropsWholeRecords() throws Exception {
+        final int port;
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            port = serverSocket.getLocalPort();
+        }
+        try (SocketHandler handler = createHandler(Protocol.TCP, port)) {
+            // Without auto flush the records would otherwise reach the stream in encoder sized chunks
+            handler.setAutoFlush(false);
+            handler.setSendBufferSize(100);
+            handler.setOverflowPolicy(OverflowPolicy.DROP_NEWEST);
+            for (int i = 0; i < 10; i++) {
+                handler.publish(createLogRecord("Test TCP send buffer overflow"));
+            }
+            handler.flush();
+            // Each message is 30 bytes, three whole messages fit
+            Assertions.assertEquals(90L, handler.getBytesBuffered());
+            Assertions.assertEquals(210L, handler.getBytesDropped());
+
+            // A message larger than the buffer is dropped whole
+            handler.setOverflowPolicy(OverflowPolicy.DROP_OLDEST);
+            final String longMessage = "Test TCP send buffer overflow with a message which is longer than the buffer";
+            handler.publish(createLogRecord(longMessage + " so it can never be sent at all"));
+            Assertions.assertEquals(90L, handler.getBytesBuffered());
+            Assertions.assertEquals(210L + longMessage.length() + 32L, handler.getBytesDropped());
+        }
+    }
+
+    @Test
+    public void testTcpSpool() throws Exception {
+        final int port;
+        try (ServerSocket serverSocket = new ServerSocket(0)) {
+            port = serverSocket.getLocalPort();
+        }
+        try (SocketHandler handler = createHandler(Protocol.TCP, port)) {
+            handler.setSpoolDirectory(logDirectory().resolve("spool").toString());
+            // Nothing is listening, these should be spooled
+            for (int i = 0; i < 3; i++) {
+                handler.publish(createLogRecord("Test TCP spool %d", i));
+            }
+            try (SimpleServer server = SimpleServer.createTcpServer(port)) {
+                // The spooled messages should be sent, in order, once reconnected
+                Assertions.assertEquals(List.of("Test TCP spool 0", "Test TCP spool 1", "Test TCP spool 2"),
+                        pollLines(server, 3));
+                handler.publish(createLogRecord("Test TCP spool after reconnect"));
+                Assertions.assertEquals("Test TCP spool after reconnect", server.timeoutPoll());
+            }
+        }
+    }
+
+    @Test
+    public void testSpoolReadPosition() throws Exception {
+        final Path dir = logDirectory().resolve("spool-position");
+        try (DiskSpool spool = new DiskSpool(dir)) {
+            for (int i = 0; i < 3; i++) {
+                final byte[] message = ("message " + i).getBytes(StandardCharsets.UTF_8);
+                spool.append(message, 0, message.length);
+            }
+            Assertions.assertEquals("message 0", new String(spool.peek(), StandardCharsets.UTF_8));
+            spool.remove();
+        }
+        // A new spool, for example after a restart, continues after the removed messages
+        try (DiskSpool spool = new DiskSpool(dir)) {
+            Assertions.assertEquals("message 1", new String(spool.peek(), StandardCharsets.UTF_8));
+            spool.remove();
+        }
+        try (DiskSpool spool = new DiskSpool(dir)) {
+            Assertions.assertEquals("message 2", new String(spool.peek(), StandardCharsets.UTF_8));
+            spool.remove();
+            Assertions.assertNull(spool.peek());
+            Assertions.assertTrue(spool.isEmpty());
+        }
+        try (DiskSpool spool = new DiskSpool(dir)) {
+            Assertions.assertNull(spool.peek());
+            // Appended after every previous segment was read and deleted
+            final byte[] message = "message 3".getBytes(StandardCharsets.UTF_8);
+            spool.append(message, 0, message.length);
+        }
+        // The new message must survive more than one restart
+        try (DiskSpool spool = new DiskSpool(dir)) {
+            Assertions.assertEquals("message 3", new String(spool.peek(), StandardCharsets.UTF_8));
+        }
+        try (DiskSpool spool = new DiskSpool(dir)) {
+            Assertions.assertEquals("message 3", new String(spool.peek(), StandardCharsets.UTF_8));
+            spool.remove();
+            Assertions.assertNull(spool.peek());
+        }
+    }
+
+    @Test
+    public void testTcpConnectionPool() throws Exception {
+        try (
+                SimpleServer server1 = SimpleServer.createTcpServer();
+                SimpleServer server2 = SimpleServer.createTcpServer()) {
+            // Each new connection goes to the next server, so each server sees exactly one connection
+            final int[] ports = { server1.getPort(), server2.getPort() };
+            final AtomicInteger next = new AtomicInteger();
+            final ClientSocketFactory socketFactory = new ClientSocketFactory() {
+                @Override
+                public DatagramSocket createDatagramSocket() throws SocketException {
+                    return new DatagramSocket();
+                }
+
+                @Override
+                public Socket createSocket() throws IOException {
+                    return new Socket(address, ports[next.getAndIncrement() % ports.length]);
+                }
+
+                @Override
+                public InetAddress getAddress() {
+                    return address;
+                }
+
+                @Override
+                public int getPort() {
+                    return ports[0];
+                }
+            };
+            try (SocketHandler handler = createHandler(Protocol.TCP, server1.getPort())) {
+                handler.setClientSocketFactory(socketFactory);
+                handler.setConnectionCount(2);
+                handler.publish(createLogRecord("Test TCP connection pool 1"));
+                handler.publish(createLogRecord("Test TCP connection pool 2"));
+                handler.publish(createLogRecord("Test TCP connection pool 3"));
+                Assertions.assertEquals(2, next.get());
+
+                // Records are written to each connection in turn
+                Assertions.assertEquals(List.of("Test TCP connection pool 1", "Test TCP connection pool 3"),
+                        pollLines(server1, 2));
+                Assertions.assertEquals(List.of("Test TCP connection pool 2"), pollLines(server2, 1));
+
+                // Records from the same logger stay on the same connection
+                handler.setDistribution(Distribution.LOGGER_NAME);
+                final String loggerName = "org.jboss.logmanager.test.pool";
+                for (int i = 0; i < 3; i++) {
+                    final ExtLogRecord record = createLogRecord("Test TCP connection pool logger %d", i);
+                    record.setLoggerName(loggerName);
+                    handler.publish(record);
+                }
+                final SimpleServer expected = Math.floorMod(loggerName.hashCode(), 2) == 0 ? server1 : server2;
+                Assertions.assertEquals(List.of("Test TCP connection pool logger 0", "Test TCP connection pool logger 1",
+                        "Test TCP connection pool logger 2"), pollLines(expected, 3));
+                Assertions.assertNull((expected == server1 ? server2 : server1).peek());
+            }
+        }
+    }
+
+    @Test
+    public void testTcpFramedGzip() throws Exception {
+        try (SimpleServer server = SimpleServer.createFramedTcpServer(Compression.GZIP)) {
+            try (SocketHandler handler = createHandler(Protocol.TCP, server.getPort())) {
+                handler.setBatchSize(64 * 1024);
+                handler.setBatchDelay(500L);
+                handler.setCompression(Compression.GZIP);
+                for (int i = 0; i < 3; i++) {
+                    handler.publish(createLogRecord("Test TCP framed %d", i));
+                }
+                // The batch is well below the size limit, so all three records are written in one frame after the delay
+                final String frame = server.timeoutPoll();
+                Assertions.assertEquals("Test TCP framed 0\nTest TCP framed 1\nTest TCP framed 2\n", frame);
+                // The compressor is reused for the next batch
+                handler.publish(createLogRecord("Test TCP framed 3"));
+                Assertions.assertEquals("Test TCP framed 3\n", server.timeoutPoll());
+            }
+        }
+    }
+
+    @Test
+    public void testTcpFramedDeflate() throws Exception {
+        try (SimpleServer server = SimpleServer.createFramedTcpServer(Compression.DEFLATE)) {
+            try (SocketHandler handler = createHandler(Protocol.TCP, server.getPort())) {
+                handler.setBatchSize(1);
+                handler.setBatchDelay(TimeUnit.HOURS.toMillis(1L));
+                handler.setCompression(Compression.DEFLATE);
+                // Every record reaches the batch size, so each one is written in its own frame without waiting
+                handler.publish(createLogRecord("Test TCP framed 1"));
+                Assertions.assertEquals("Test TCP framed 1\n", server.timeoutPoll());
+                handler.publish(createLogRecord("Test TCP framed 2"));
+                Assertions.assertEquals("Test TCP framed 2\n", server.timeoutPoll());
+            }
+        }
+    }
+
+    @Test
+    public void testFramedBackgroundError() throws Exception {
+        final OutputStream failing = new OutputStream() {
+            @Override
+            public void write(final int b) throws IOException {
+                throw new IOException("Test failure");
+            }
+        };
+        try (FramedOutputStream out = new FramedOutputStream(failing, Compression.NONE, 1024, 10L)) {
+            out.write("Test framed error".getBytes(StandardCharsets.UTF_8));
+            // The batch is written, and fails, in the background; the failure is thrown from a later flush
+            final IOException error = timeout(() -> {
+                try {
+                    out.flush();
+                    return null;
+                } catch (IOException e) {
+                    return e;
+                }
+            }, 5);
+            Assertions.assertEquals("Test failure", error.getCause().getMessage());
+            // Only thrown once
+            out.flush();
+        }
+    }
+
+    @Test
+    public void testFramedSlowWrite() throws Exception {
+        final CountDownLatch writing = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final ByteArrayOutputStream written = new ByteArrayOutputStream();
+        final OutputStream slow = new OutputStream() {
+            @Override
+            public void write(final int b) {
+                write(new byte[] { (byte) b }, 0, 1);
+            }
+
+            @Override
+            public void write(final byte[] b, final int off, final int len) {
+                writing.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                synchronized (written) {
+                    written.write(b, off, len);
+                }
+            }
+        };
+        final FramedOutputStream out = new FramedOutputStream(slow, Compression.NONE, 1024, 10L);
+        final ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            out.write("first".getBytes(StandardCharsets.UTF_8));
+            Assertions.assertTrue(writing.await(5, TimeUnit.SECONDS));
+            // The background thread is stuck writing the first batch, which must not block new data
+            executor.submit(() -> {
+                out.write("second".getBytes(StandardCharsets.UTF_8));
+                return null;
+            }).get(5, TimeUnit.SECONDS);
+            executor.submit(() -> {
+                out.close();
+                return null;
+            });
+            release.countDown();
+            executor.shutdown();
+            Assertions.assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+        // Both frames were written by the time close returned
+        synchronized (written) {
+            Assertions.assertEquals((4 + 5) + (4 + 6), written.size());
+        }
+    }
+
     @Test
     public void testTcpPortChange() throws Exception {
         try (
@@ -237,6 +591,17 @@ public class SocketHandlerTests extends AbstractHandlerTest {
         return handler;
     }
 
+    private static List<String> pollLines(final SimpleServer server, final int count) throws InterruptedException {
+        // Several messages may be read in one chunk
+        final List<String> lines = new ArrayList<>();
+        while (lines.size() < count) {
+            final String msg = server.timeoutPoll();
+            Assertions.assertNotNull(msg, "Timed out waiting for " + count + " messages, received " + lines);
+            lines.addAll(Arrays.asList(msg.split("\n")));
+        }
+        return lines;
+    }
+
     private static <R> R timeout(final Supplier<R> supplier, final int timeout) throws InterruptedException {
         R value = null;
         long t = timeout * 1000L;
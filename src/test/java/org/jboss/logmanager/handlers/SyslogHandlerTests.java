@@ -21,6 +21,7 @@ package org.jboss.logmanager.handlers;
 
 import java.io.ByteArrayOutputStream;
 import java.io.UnsupportedEncodingException;
+import java.net.InetAddress;
 import java.util.Calendar;
 import java.util.logging.Level;
 
@@ -204,6 +205,27 @@ public class SyslogHandlerTests {
         Assertions.assertEquals(expectedMessage, createString(out));
     }
 
+    @Test
+    public void testUdpDatagramChannel() throws Exception {
+        try (SimpleServer server = SimpleServer.createUdpServer()) {
+            handler.close();
+            handler = new SyslogHandler(InetAddress.getByName("127.0.0.1"), server.getPort());
+            handler.setFormatter(new PatternFormatter("%s"));
+            handler.setErrorManager(AssertingErrorManager.of());
+            handler.setSyslogType(SyslogType.RFC3164);
+            handler.setHostname("test");
+            handler.setMessageDelimiter("\n");
+            handler.setUseMessageDelimiter(true);
+            handler.setUseDatagramChannel(true);
+
+            final Calendar cal = getCalendar();
+            final String expectedMessage = "<14>Jan  9 04:39:22 test java[" + handler.getPid() + "]: " + MSG;
+            handler.publish(createRecord(cal, MSG));
+            Assertions.assertEquals(expectedMessage, server.timeoutPoll());
+            Assertions.assertEquals(0L, handler.getDroppedMessageCount());
+        }
+    }
+
     private void testMultibyteTruncation(final String part1, final String part2, final int charsToTruncate) throws Exception {
         // Setup the handler
         handler.setSyslogType(SyslogType.RFC5424);